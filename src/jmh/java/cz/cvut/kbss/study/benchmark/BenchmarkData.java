@@ -0,0 +1,85 @@
+package cz.cvut.kbss.study.benchmark;
+
+import cz.cvut.kbss.study.environment.generator.Generator;
+import cz.cvut.kbss.study.model.qam.Answer;
+import cz.cvut.kbss.study.model.qam.Question;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Generates data of benchmark size on top of {@link Generator}.
+ */
+public class BenchmarkData {
+
+    /**
+     * Maximum number of questions in a section of generated forms.
+     */
+    static final int SECTION_SIZE = 10;
+
+    private BenchmarkData() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Generates a question tree resembling a form with the specified number of questions.
+     * <p>
+     * The root question contains sections of at most {@link #SECTION_SIZE} questions, each of them with a single
+     * answer (text or code value).
+     *
+     * @param questionCount Number of answered questions in the tree
+     * @return Root of the question tree
+     */
+    public static Question generateQuestionTree(int questionCount) {
+        final Question root = question();
+        Question section = null;
+        for (int i = 0; i < questionCount; i++) {
+            if (i % SECTION_SIZE == 0) {
+                section = question();
+                root.getSubQuestions().add(section);
+            }
+            final Question question = question();
+            question.getAnswers().add(answer(i));
+            section.getSubQuestions().add(question);
+        }
+        return root;
+    }
+
+    private static Question question() {
+        final Question question = new Question();
+        question.setOrigin(Generator.generateUri());
+        return question;
+    }
+
+    private static Answer answer(int index) {
+        final Answer answer = new Answer();
+        answer.setOrigin(Generator.generateUri());
+        if (index % 2 == 0) {
+            answer.setCodeValue(Generator.generateUri());
+        } else {
+            answer.setTextValue("Answer " + index);
+        }
+        return answer;
+    }
+
+    /**
+     * Gets all questions of the specified tree which have answers.
+     *
+     * @param root Root of the question tree
+     * @return Answered questions
+     */
+    public static Set<Question> answeredQuestions(Question root) {
+        final Set<Question> result = new HashSet<>();
+        collectAnswered(root, result);
+        return result;
+    }
+
+    private static void collectAnswered(Question question, Set<Question> result) {
+        if (question.getAnswers() != null && !question.getAnswers().isEmpty()) {
+            result.add(question);
+        }
+        if (question.getSubQuestions() != null) {
+            question.getSubQuestions().forEach(q -> collectAnswered(q, result));
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package cz.cvut.kbss.study.benchmark;
+
+import cz.cvut.kbss.study.environment.generator.Generator;
+import cz.cvut.kbss.study.model.RecordPhase;
+import cz.cvut.kbss.study.model.export.RawRecord;
+import cz.cvut.kbss.study.service.CodeListValuesCache;
+import cz.cvut.kbss.study.service.ConfigReader;
+import cz.cvut.kbss.study.service.ExcelRecordConverter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of Excel export of records by {@link ExcelRecordConverter}.
+ * <p>
+ * Code list values are served by {@link StubCodeListValuesDao}, so the benchmarks measure conversion of the records and
+ * writing of the workbook. Results are normalized per record, so with the GC profiler ({@code -prof gc}),
+ * {@code gc.alloc.rate.norm} gives bytes allocated per exported record.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ExcelRecordConverterBenchmark {
+
+    /**
+     * Converter using stubbed code list values.
+     */
+    @State(Scope.Benchmark)
+    public static class Converter {
+
+        StubCodeListValuesDao codeLists;
+
+        ExcelRecordConverter converter;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            this.codeLists = new StubCodeListValuesDao();
+            final CodeListValuesCache cache = new CodeListValuesCache(codeLists,
+                                                                      new ConfigReader(new MockEnvironment()),
+                                                                      new DefaultListableBeanFactory().getBeanProvider(
+                                                                              MeterRegistry.class));
+            this.converter = new ExcelRecordConverter(cache, new NoOpTransactionManager());
+            // Fail fast on a broken export (e.g., template) instead of after warmup iterations
+            converter.convert(generateRawRecords(10, codeLists), OutputStream.nullOutputStream());
+        }
+    }
+
+    public abstract static class RawRecords {
+
+        List<RawRecord> records;
+
+        @Setup(Level.Trial)
+        public void setUp(Converter converter) {
+            this.records = generateRawRecords(size(), converter.codeLists);
+        }
+
+        abstract int size();
+    }
+
+    @State(Scope.Benchmark)
+    public static class RawRecords1k extends RawRecords {
+        @Override
+        int size() {
+            return 1_000;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class RawRecords10k extends RawRecords {
+        @Override
+        int size() {
+            return 10_000;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class RawRecords100k extends RawRecords {
+        @Override
+        int size() {
+            return 100_000;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000)
+    public void convert1k(Converter converter, RawRecords1k records) throws IOException {
+        converter.converter.convert(records.records, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10_000)
+    public void convert10k(Converter converter, RawRecords10k records) throws IOException {
+        converter.converter.convert(records.records, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100_000)
+    public void convert100k(Converter converter, RawRecords100k records) throws IOException {
+        converter.converter.convert(records.records, OutputStream.nullOutputStream());
+    }
+
+    /**
+     * Generates records with all the exported attributes filled, code list values are picked from the specified code
+     * list.
+     */
+    static List<RawRecord> generateRawRecords(int count, StubCodeListValuesDao codeLists) {
+        // Fixed seed, so that runs are comparable
+        final Random random = new Random(count);
+        final List<RawRecord> result = new ArrayList<>(count);
+        final Instant now = Instant.now();
+        for (int i = 0; i < count; i++) {
+            final RawRecord r = new RawRecord();
+            r.setUri(Generator.generateUri());
+            r.setCreated(Date.from(now.minus(random.nextInt(365), ChronoUnit.DAYS)));
+            r.setLastModified(Date.from(now.minus(random.nextInt(30), ChronoUnit.DAYS)));
+            r.setLabel("Record " + i);
+            r.setPhase(URI.create(RecordPhase.values()[i % RecordPhase.values().length].getIri()));
+            r.setInstitution(pick(codeLists.institutions, random));
+            r.setAircraftType(pick(codeLists.aircraft, random));
+            r.setFuselage("F-" + random.nextInt(1000));
+            r.setAc_comp(pick(codeLists.components, random));
+            r.setFailDate("2024-0" + (1 + random.nextInt(9)) + "-1" + random.nextInt(10));
+            r.setFlightHours(Integer.toString(random.nextInt(10000)));
+            r.setNumberOfAirframeOverhauls(random.nextInt(10));
+            r.setClassificationOfOccurrence(pick(codeLists.codes, random));
+            r.setFailureAscertainmentCircumstances(pick(codeLists.codes, random));
+            r.setRepeatedFailure(pick(codeLists.codes, random));
+            r.setFailureCause(pick(codeLists.codes, random));
+            r.setConsequence(pick(codeLists.codes, random));
+            r.setMission(pick(codeLists.codes, random));
+            r.setRepair(pick(codeLists.codes, random));
+            r.setRepairDuration(random.nextInt(48) + "h");
+            r.setAverageNumberOfMenDuringRepairment(1 + random.nextInt(5) / 2.0);
+            r.setFailureDescription("Failure description of record " + i);
+            r.setDescriptionOfCorrectiveAction("Corrective action of record " + i);
+            r.setYearOfProductionOfDefectiveEquipment(Integer.toString(1990 + random.nextInt(30)));
+            r.setNumberOfOverhaulsOfDefectiveEquipment(random.nextInt(5));
+            r.setSerialNoOf("SN-" + random.nextInt(100000));
+            r.setNotes("Notes " + i);
+            r.setFhaEvent(pick(codeLists.codes, random));
+            result.add(r);
+        }
+        return result;
+    }
+
+    private static <T> T pick(List<T> values, Random random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    /**
+     * Code list lookups run in read-only transactions, which are no-op here.
+     */
+    private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
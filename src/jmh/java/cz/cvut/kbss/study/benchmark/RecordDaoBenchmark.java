@@ -0,0 +1,113 @@
+package cz.cvut.kbss.study.benchmark;
+
+import cz.cvut.kbss.study.model.Record;
+import cz.cvut.kbss.study.model.qam.Answer;
+import cz.cvut.kbss.study.model.qam.Question;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of single record operations of {@link cz.cvut.kbss.study.persistence.dao.RecordDao}.
+ * <p>
+ * Reads are executed outside of transaction (as by read-only services), writes in a transaction each. Note that
+ * records persisted by {@link #persist} stay in the repository, so it grows during the benchmark.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RecordDaoBenchmark {
+
+    /**
+     * Number of answers changed by each update.
+     */
+    private static final int CHANGED_ANSWERS = 5;
+
+    /**
+     * Randomly chosen existing record.
+     */
+    @State(Scope.Thread)
+    public static class ExistingRecord {
+
+        Record record;
+
+        @Setup(Level.Invocation)
+        public void setUp(RecordRepositoryState repository) {
+            this.record = repository.records.get(ThreadLocalRandom.current().nextInt(repository.records.size()));
+        }
+    }
+
+    /**
+     * New record with a question tree of the benchmarked size.
+     */
+    @State(Scope.Thread)
+    public static class NewRecord {
+
+        private int counter;
+
+        Record record;
+
+        @Setup(Level.Invocation)
+        public void setUp(RecordRepositoryState repository) {
+            this.record = repository.generateRecord(repository.recordCount + counter++);
+        }
+    }
+
+    /**
+     * Randomly chosen existing record with {@link #CHANGED_ANSWERS} answers changed.
+     */
+    @State(Scope.Thread)
+    public static class ChangedRecord {
+
+        Record record;
+
+        @Setup(Level.Invocation)
+        public void setUp(RecordRepositoryState repository, ExistingRecord existing) {
+            this.record = repository.recordDao.find(existing.record.getUri());
+            record.setLastModified(new Date());
+            final Iterator<Question> questions = BenchmarkData.answeredQuestions(record.getQuestion()).iterator();
+            for (int i = 0; i < CHANGED_ANSWERS && questions.hasNext(); i++) {
+                final Answer answer = questions.next().getAnswers().iterator().next();
+                answer.setCodeValue(null);
+                answer.setTextValue("Updated answer " + System.nanoTime());
+            }
+        }
+    }
+
+    @Benchmark
+    public Record persist(RecordRepositoryState repository, NewRecord newRecord) {
+        repository.transactional(() -> repository.recordDao.persist(newRecord.record));
+        return newRecord.record;
+    }
+
+    @Benchmark
+    public Record find(RecordRepositoryState repository, ExistingRecord existing) {
+        return repository.recordDao.find(existing.record.getUri());
+    }
+
+    @Benchmark
+    public Record findByKey(RecordRepositoryState repository, ExistingRecord existing) {
+        return repository.recordDao.findByKey(existing.record.getKey());
+    }
+
+    @Benchmark
+    public Record update(RecordRepositoryState repository, ChangedRecord changed) {
+        repository.transactional(() -> repository.recordDao.update(changed.record));
+        return changed.record;
+    }
+}
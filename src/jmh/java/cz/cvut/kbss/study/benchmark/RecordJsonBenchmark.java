@@ -0,0 +1,82 @@
+package cz.cvut.kbss.study.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import cz.cvut.kbss.study.config.WebAppConfig;
+import cz.cvut.kbss.study.environment.generator.Generator;
+import cz.cvut.kbss.study.model.Institution;
+import cz.cvut.kbss.study.model.Record;
+import cz.cvut.kbss.study.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of JSON serialization and deserialization of records by the object mapper used by the REST API (see
+ * {@link WebAppConfig#createJsonObjectMapper()}).
+ * <p>
+ * Each operation processes a single record, so with the GC profiler ({@code -prof gc}), {@code gc.alloc.rate.norm}
+ * gives bytes allocated per record.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecordJsonBenchmark {
+
+    /**
+     * Number of answered questions in the record.
+     */
+    @Param({"100", "1000", "5000"})
+    public int questionCount;
+
+    private ObjectWriter writer;
+
+    private ObjectReader reader;
+
+    private Record record;
+
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final ObjectMapper objectMapper = WebAppConfig.createJsonObjectMapper();
+        this.writer = objectMapper.writerFor(Record.class);
+        this.reader = objectMapper.readerFor(Record.class);
+        final Institution institution = Generator.generateInstitution();
+        final User author = Generator.generateUser(institution, Generator.generateAdminRoleGroup());
+        this.record = Generator.generateRecord(author);
+        record.setKey("1234567890");
+        record.setFormTemplate(Generator.generateUri().toString());
+        record.setDateCreated(new Date());
+        record.setLastModified(new Date());
+        record.setQuestion(BenchmarkData.generateQuestionTree(questionCount));
+        this.json = writer.writeValueAsBytes(record);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(record);
+    }
+
+    @Benchmark
+    public Record deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+}
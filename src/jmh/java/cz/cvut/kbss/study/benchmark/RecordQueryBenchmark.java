@@ -0,0 +1,82 @@
+package cz.cvut.kbss.study.benchmark;
+
+import cz.cvut.kbss.study.dto.RecordDto;
+import cz.cvut.kbss.study.model.RecordPhase;
+import cz.cvut.kbss.study.model.export.RawRecord;
+import cz.cvut.kbss.study.persistence.dao.util.RecordFilterParams;
+import cz.cvut.kbss.study.persistence.dao.util.RecordSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of record list and export queries of {@link cz.cvut.kbss.study.persistence.dao.RecordDao}, for each
+ * type of record filter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecordQueryBenchmark {
+
+    /**
+     * Page size of the record list.
+     */
+    private static final Pageable PAGE = PageRequest.of(0, 25, RecordSort.defaultSort());
+
+    public enum Filter {
+        NONE, AUTHOR, INSTITUTION, DATE, PHASE, FORM_TEMPLATE
+    }
+
+    @Param
+    public Filter filter;
+
+    private RecordFilterParams filters;
+
+    @Setup(Level.Trial)
+    public void setUp(RecordRepositoryState repository) {
+        this.filters = new RecordFilterParams();
+        switch (filter) {
+            case AUTHOR -> filters.setAuthor(repository.authors.get(0).getUsername());
+            case INSTITUTION -> filters.setInstitutionKeys(Set.of(repository.institutions.get(0).getKey()));
+            case DATE -> {
+                filters.setMinModifiedDate(LocalDate.now().minusDays(RecordRepositoryState.DAYS / 4));
+                filters.setMaxModifiedDate(LocalDate.now());
+            }
+            case PHASE -> filters.setPhaseIds(Set.of(RecordPhase.values()[0].getIri()));
+            case FORM_TEMPLATE -> filters.setFormTemplateIds(Set.of(repository.formTemplates.get(0)));
+            default -> {
+            }
+        }
+        // Warm up the record summaries, as the application does at startup
+        repository.recordDao.loadSummaries();
+    }
+
+    @Benchmark
+    public Page<RecordDto> findAllRecords(RecordRepositoryState repository) {
+        return repository.recordDao.findAllRecords(filters, PAGE);
+    }
+
+    @Benchmark
+    public Page<RawRecord> findAllRecordsRaw(RecordRepositoryState repository) {
+        return repository.recordDao.findAllRecordsRaw(filters, Pageable.unpaged());
+    }
+}
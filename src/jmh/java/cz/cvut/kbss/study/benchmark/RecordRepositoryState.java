@@ -0,0 +1,139 @@
+package cz.cvut.kbss.study.benchmark;
+
+import cz.cvut.kbss.study.environment.Transaction;
+import cz.cvut.kbss.study.environment.config.TestPersistenceConfig;
+import cz.cvut.kbss.study.environment.generator.Generator;
+import cz.cvut.kbss.study.model.Institution;
+import cz.cvut.kbss.study.model.Record;
+import cz.cvut.kbss.study.model.RecordPhase;
+import cz.cvut.kbss.study.model.RoleGroup;
+import cz.cvut.kbss.study.model.User;
+import cz.cvut.kbss.study.persistence.ConfigDataApplicationContextInitializer;
+import cz.cvut.kbss.study.persistence.dao.InstitutionDao;
+import cz.cvut.kbss.study.persistence.dao.RecordDao;
+import cz.cvut.kbss.study.persistence.dao.RoleGroupDao;
+import cz.cvut.kbss.study.persistence.dao.UserDao;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * In-memory repository populated with records of the benchmarked size.
+ * <p>
+ * The repository is set up by the same Spring configuration as DAO tests use, i.e., JOPA over a volatile RDF4J
+ * storage. Records are spread evenly among {@link #INSTITUTION_COUNT} institutions (each with one author),
+ * {@link #FORM_TEMPLATE_COUNT} form templates, all record phases and the last {@link #DAYS} days.
+ */
+@State(Scope.Benchmark)
+public class RecordRepositoryState {
+
+    static final int INSTITUTION_COUNT = 5;
+    static final int FORM_TEMPLATE_COUNT = 5;
+    static final int DAYS = 365;
+
+    /**
+     * Records are persisted in transactions of this size.
+     */
+    private static final int PERSIST_BATCH = 100;
+
+    /**
+     * Number of answered questions in each record.
+     */
+    @Param({"10", "100"})
+    public int formSize;
+
+    /**
+     * Number of records in the repository.
+     */
+    @Param({"100", "1000"})
+    public int recordCount;
+
+    private AnnotationConfigApplicationContext context;
+
+    PlatformTransactionManager txManager;
+
+    RecordDao recordDao;
+
+    final List<Institution> institutions = new ArrayList<>();
+
+    final List<User> authors = new ArrayList<>();
+
+    final List<String> formTemplates = new ArrayList<>();
+
+    final List<Record> records = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().setActiveProfiles("test");
+        new ConfigDataApplicationContextInitializer().initialize(context);
+        context.register(TestPersistenceConfig.class);
+        context.refresh();
+        this.txManager = context.getBean(PlatformTransactionManager.class);
+        this.recordDao = context.getBean(RecordDao.class);
+        populate();
+    }
+
+    private void populate() {
+        final RoleGroup roleGroup = Generator.generateAdminRoleGroup();
+        for (int i = 0; i < INSTITUTION_COUNT; i++) {
+            final Institution institution = Generator.generateInstitution();
+            institutions.add(institution);
+            authors.add(Generator.generateUser(institution, roleGroup));
+        }
+        for (int i = 0; i < FORM_TEMPLATE_COUNT; i++) {
+            formTemplates.add(Generator.generateUri().toString());
+        }
+        transactional(() -> {
+            context.getBean(RoleGroupDao.class).persist(roleGroup);
+            context.getBean(InstitutionDao.class).persist(institutions);
+            context.getBean(UserDao.class).persist(authors);
+        });
+        for (int i = 0; i < recordCount; i++) {
+            records.add(generateRecord(i));
+        }
+        for (int i = 0; i < recordCount; i += PERSIST_BATCH) {
+            final List<Record> batch = records.subList(i, Math.min(i + PERSIST_BATCH, recordCount));
+            transactional(() -> batch.forEach(recordDao::persist));
+        }
+    }
+
+    /**
+     * Generates a new record with a question tree of the benchmarked size.
+     * <p>
+     * Attributes used by record filters are distributed according to the index of the record.
+     *
+     * @param index Index of the record
+     * @return New record
+     */
+    Record generateRecord(int index) {
+        final Record record = Generator.generateRecord(authors.get(index % INSTITUTION_COUNT));
+        record.setUri(null);
+        record.setLocalName("Record" + index);
+        record.setFormTemplate(formTemplates.get(index % FORM_TEMPLATE_COUNT));
+        record.setPhase(RecordPhase.values()[index % RecordPhase.values().length]);
+        record.setDateCreated(Date.from(Instant.now().minus(index % DAYS, ChronoUnit.DAYS)));
+        record.setQuestion(BenchmarkData.generateQuestionTree(formSize));
+        return record;
+    }
+
+    void transactional(Runnable procedure) {
+        Transaction.execute(txManager, procedure);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+}
@@ -0,0 +1,102 @@
+package cz.cvut.kbss.study.benchmark;
+
+import cz.cvut.kbss.study.environment.generator.Generator;
+import cz.cvut.kbss.study.model.export.NamedItem;
+import cz.cvut.kbss.study.persistence.dao.CodeListValuesDao;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Code list values DAO serving a generated code list from memory, so that export benchmarks do not depend on the form
+ * generator repository.
+ * <p>
+ * The code list consists of {@link #ITEM_COUNT} items, {@link #AIRCRAFT_COUNT} aircraft types,
+ * {@link #INSTITUTION_COUNT} institutions and a hierarchy of aircraft components {@link #COMPONENT_DEPTH} levels deep.
+ */
+public class StubCodeListValuesDao extends CodeListValuesDao {
+
+    static final int ITEM_COUNT = 200;
+    static final int AIRCRAFT_COUNT = 20;
+    static final int INSTITUTION_COUNT = 10;
+    static final int COMPONENT_DEPTH = 4;
+
+    /**
+     * Number of narrower components of each non-leaf component.
+     */
+    private static final int COMPONENT_BRANCHING = 5;
+
+    private final Map<URI, NamedItem> items = new HashMap<>();
+
+    final List<URI> codes = new ArrayList<>();
+
+    final List<URI> aircraft = new ArrayList<>();
+
+    final List<URI> institutions = new ArrayList<>();
+
+    /**
+     * Leaf components, i.e., those with the longest broader path.
+     */
+    final List<URI> components = new ArrayList<>();
+
+    private final List<URI[]> broaderPairs = new ArrayList<>();
+
+    public StubCodeListValuesDao() {
+        super(null);
+        generate(ITEM_COUNT, "Item", codes);
+        generate(AIRCRAFT_COUNT, "Aircraft", aircraft);
+        generate(INSTITUTION_COUNT, "Institution", institutions);
+        final List<URI> roots = new ArrayList<>();
+        generate(COMPONENT_BRANCHING, "Component", roots);
+        generateComponents(roots, 1);
+    }
+
+    private void generate(int count, String label, List<URI> target) {
+        for (int i = 0; i < count; i++) {
+            final NamedItem item = new NamedItem();
+            item.setUri(Generator.generateUri());
+            item.setName(label + " " + i);
+            items.put(item.getUri(), item);
+            target.add(item.getUri());
+        }
+    }
+
+    private void generateComponents(List<URI> broader, int level) {
+        if (level == COMPONENT_DEPTH) {
+            components.addAll(broader);
+            return;
+        }
+        final List<URI> narrower = new ArrayList<>();
+        for (URI b : broader) {
+            final List<URI> children = new ArrayList<>();
+            generate(COMPONENT_BRANCHING, "Component L" + level, children);
+            children.forEach(c -> broaderPairs.add(new URI[]{c, b}));
+            narrower.addAll(children);
+        }
+        generateComponents(narrower, level + 1);
+    }
+
+    @Override
+    public List<NamedItem> findItems(Collection<URI> uris) {
+        return uris.stream().map(items::get).filter(i -> i != null).toList();
+    }
+
+    @Override
+    public List<NamedItem> findAircraft() {
+        return aircraft.stream().map(items::get).toList();
+    }
+
+    @Override
+    public List<NamedItem> findInstitutions() {
+        return institutions.stream().map(items::get).toList();
+    }
+
+    @Override
+    public List<URI[]> findBroaderPairs() {
+        return broaderPairs;
+    }
+}
@@ -1,5 +1,6 @@
 package cz.cvut.kbss.study.config;
 
+import cz.cvut.kbss.study.model.Role;
 import cz.cvut.kbss.study.security.AuthenticationSuccess;
 import cz.cvut.kbss.study.security.SecurityConstants;
 import cz.cvut.kbss.study.service.ConfigReader;
@@ -59,7 +60,10 @@ public class OAuth2SecurityConfig {
         LOG.debug("Using OAuth2/OIDC security.");
         http.oauth2ResourceServer(
                     (auth) -> auth.jwt((jwt) -> jwt.jwtAuthenticationConverter(grantedAuthoritiesExtractor())))
-            .authorizeHttpRequests((auth) -> auth.anyRequest().permitAll())
+            .authorizeHttpRequests(
+                    (auth) -> auth.requestMatchers(SecurityConstants.METRICS_URI)
+                                  .hasAuthority(Role.readStatistics.getRoleName())
+                                  .anyRequest().permitAll())
             .exceptionHandling(ehc -> ehc.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
             .cors((auth) -> auth.configurationSource(corsConfigurationSource()))
             .csrf(AbstractHttpConfigurer::disable)
@@ -3,6 +3,13 @@ package cz.cvut.kbss.study.config;
 import com.github.ledsoft.jopa.spring.transaction.DelegatingEntityManager;
 import com.github.ledsoft.jopa.spring.transaction.JopaTransactionManager;
 import cz.cvut.kbss.jopa.model.EntityManagerFactory;
+import cz.cvut.kbss.study.persistence.monitoring.InstrumentedEntityManager;
+import cz.cvut.kbss.study.persistence.monitoring.QueryMonitor;
+import cz.cvut.kbss.study.service.ConfigReader;
+import cz.cvut.kbss.study.util.ConfigParam;
+import cz.cvut.kbss.study.util.Configuration.Queries;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.transaction.PlatformTransactionManager;
@@ -13,8 +20,16 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 public class PersistenceConfig {
 
     @Bean
-    public DelegatingEntityManager entityManager() {
-        return new DelegatingEntityManager();
+    public DelegatingEntityManager entityManager(QueryMonitor queryMonitor) {
+        return new InstrumentedEntityManager(queryMonitor);
+    }
+
+    @Bean
+    public QueryMonitor queryMonitor(ConfigReader config, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new QueryMonitor(meterRegistry.getIfAvailable(),
+                                config.getDurationConfig(ConfigParam.QUERIES_SLOW_THRESHOLD, Queries.DEFAULT_SLOW_THRESHOLD),
+                                config.getDoubleConfig(ConfigParam.QUERIES_SLOW_LOG_SAMPLE_RATE,
+                                                       Queries.DEFAULT_SLOW_LOG_SAMPLE_RATE));
     }
 
     @Bean(name = "txManager")
@@ -2,6 +2,7 @@ package cz.cvut.kbss.study.config;
 
 import cz.cvut.kbss.study.exception.RecordManagerException;
 import cz.cvut.kbss.study.model.Role;
+import cz.cvut.kbss.study.rest.servlet.DiagnosticsContextFilter;
 import cz.cvut.kbss.study.security.CsrfHeaderFilter;
 import cz.cvut.kbss.study.security.CustomSwitchUserFilter;
 import cz.cvut.kbss.study.security.SecurityConstants;
@@ -86,6 +87,8 @@ public class SecurityConfig {
                                     "/register"
                             ).permitAll()
                             .requestMatchers("/rest/users/impersonate").hasAuthority(Role.impersonate.getRoleName())
+                            .requestMatchers(SecurityConstants.METRICS_URI)
+                            .hasAuthority(Role.readStatistics.getRoleName())
                             .anyRequest().authenticated())
             .cors((auth) -> auth.configurationSource(corsConfigurationSource(config)))
             .csrf(AbstractHttpConfigurer::disable)
@@ -122,6 +125,7 @@ public class SecurityConfig {
         corsConfiguration.addExposedHeader(HttpHeaders.LOCATION);
         corsConfiguration.addExposedHeader(HttpHeaders.CONTENT_DISPOSITION);
         corsConfiguration.addExposedHeader(HttpHeaders.LINK);
+        corsConfiguration.addExposedHeader(DiagnosticsContextFilter.SERVER_TIMING_HEADER);
 
         final UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", corsConfiguration);
@@ -1,6 +1,7 @@
 package cz.cvut.kbss.study.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.cvut.kbss.study.util.TimedClientHttpRequestFactory;
 import org.apache.hc.client5.http.classic.HttpClient;
 import org.apache.hc.client5.http.impl.DefaultRedirectStrategy;
 import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
@@ -36,16 +37,20 @@ public class ServiceConfig {
                                                        .setRedirectStrategy(new DefaultRedirectStrategy())
                                                        .build();
         factory.setHttpClient(httpClient);
-        restTemplate.setRequestFactory(factory);
+        // Interceptors would buffer request bodies, so outbound calls are timed by wrapping the request factory
+        restTemplate.setRequestFactory(new TimedClientHttpRequestFactory(factory));
 
         final MappingJackson2HttpMessageConverter jacksonConverter = new MappingJackson2HttpMessageConverter();
         jacksonConverter.setObjectMapper(objectMapper);
         final StringHttpMessageConverter stringConverter = new StringHttpMessageConverter(StandardCharsets.UTF_8);
+        // Allows sending JSON parts of multipart requests without serializing them upfront
+        final FormHttpMessageConverter formConverter = new FormHttpMessageConverter();
+        formConverter.addPartConverter(jacksonConverter);
         restTemplate.setMessageConverters(Arrays.asList(
             stringConverter,
             jacksonConverter,
             new ResourceHttpMessageConverter(),
-            new FormHttpMessageConverter()
+            formConverter
         ));
         return restTemplate;
     }
@@ -6,11 +6,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import cz.cvut.kbss.study.rest.servlet.DiagnosticsContextFilter;
+import cz.cvut.kbss.study.service.ConfigReader;
+import cz.cvut.kbss.study.util.ConfigParam;
 import cz.cvut.kbss.study.util.Constants;
+import cz.cvut.kbss.study.util.RequestTimings;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.ResourceHttpMessageConverter;
 import org.springframework.http.converter.StringHttpMessageConverter;
@@ -22,6 +27,8 @@ import org.springframework.web.multipart.support.StandardServletMultipartResolve
 import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.io.IOException;
+import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 
 @Configuration
@@ -63,7 +70,19 @@ public class WebAppConfig implements WebMvcConfigurer {
 
     @Bean
     public HttpMessageConverter<?> jsonMessageConverter(ObjectMapper objectMapper) {
-        final MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
+        // Serialization time is reported in request timings
+        final MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter() {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                    throws IOException {
+                final long start = System.nanoTime();
+                try {
+                    super.writeInternal(object, type, outputMessage);
+                } finally {
+                    RequestTimings.record(RequestTimings.SERIALIZATION, System.nanoTime() - start);
+                }
+            }
+        };
         converter.setObjectMapper(objectMapper);
         return converter;
     }
@@ -75,12 +94,31 @@ public class WebAppConfig implements WebMvcConfigurer {
 
     /**
      * Registers a filter that allows using current user's username in log pattern.
+     * <p>
+     * The filter also collects request timings, for all requests if enabled by configuration, or for requests with
+     * the {@link DiagnosticsContextFilter#TIMING_REQUEST_HEADER} header.
      */
     @Bean
-    public FilterRegistrationBean<DiagnosticsContextFilter> mdcFilter() {
+    public FilterRegistrationBean<DiagnosticsContextFilter> mdcFilter(ConfigReader config) {
         FilterRegistrationBean<DiagnosticsContextFilter> registrationBean = new FilterRegistrationBean<>();
-        registrationBean.setFilter(new DiagnosticsContextFilter());
+        registrationBean.setFilter(new DiagnosticsContextFilter(
+                Boolean.parseBoolean(config.getConfig(ConfigParam.DIAGNOSTICS_SERVER_TIMING)),
+                Boolean.parseBoolean(config.getConfig(ConfigParam.DIAGNOSTICS_SERVER_TIMING_HEADER))));
+        registrationBean.addUrlPatterns("/*");
+        return registrationBean;
+    }
+
+    /**
+     * Registers a filter marking the start of request processing, so that request timings include the security
+     * filter chain.
+     */
+    @Bean
+    public FilterRegistrationBean<DiagnosticsContextFilter.RequestStartFilter> requestStartFilter() {
+        FilterRegistrationBean<DiagnosticsContextFilter.RequestStartFilter> registrationBean =
+                new FilterRegistrationBean<>();
+        registrationBean.setFilter(new DiagnosticsContextFilter.RequestStartFilter());
         registrationBean.addUrlPatterns("/*");
+        registrationBean.setOrder(Ordered.HIGHEST_PRECEDENCE);
         return registrationBean;
     }
 
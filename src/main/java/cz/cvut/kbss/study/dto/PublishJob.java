@@ -0,0 +1,160 @@
+package cz.cvut.kbss.study.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Represents progress of publishing records running in the background.
+ * <p>
+ * The job is updated by the publishing thread while it may be read by request threads, so access to its state is
+ * synchronized.
+ */
+public class PublishJob {
+
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id;
+
+    private final String startedBy;
+
+    private final Date created;
+
+    private State state = State.QUEUED;
+
+    private Date finished;
+
+    private boolean chunkFailed;
+
+    /**
+     * Number of records sent to the publish service (or attempted to be sent).
+     */
+    private int processedCount;
+
+    /**
+     * Merged results of the publish requests.
+     */
+    private final RecordImportResult result = new RecordImportResult(0);
+
+    public PublishJob(String startedBy) {
+        this.id = UUID.randomUUID().toString();
+        this.startedBy = startedBy;
+        this.created = new Date();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    @JsonIgnore
+    public String getStartedBy() {
+        return startedBy;
+    }
+
+    public Date getCreated() {
+        return created;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized Date getFinished() {
+        return finished;
+    }
+
+    public synchronized int getProcessedCount() {
+        return processedCount;
+    }
+
+    public synchronized int getPublishedCount() {
+        return result.getImportedCount();
+    }
+
+    public synchronized int getFailedCount() {
+        return Math.max(0, processedCount - result.getImportedCount());
+    }
+
+    public synchronized List<String> getErrors() {
+        return result.getErrors() != null ? new ArrayList<>(result.getErrors()) : List.of();
+    }
+
+    /**
+     * Gets merged results of the publish requests made so far.
+     *
+     * @return Copy of the current result
+     */
+    @JsonIgnore
+    public synchronized RecordImportResult getResult() {
+        return new RecordImportResult(0).merge(result);
+    }
+
+    public synchronized void start() {
+        this.state = State.RUNNING;
+    }
+
+    /**
+     * Records result of publishing a chunk of records.
+     *
+     * @param chunkSize   Number of records sent to the publish service
+     * @param chunkResult Result returned by the publish service, possibly {@code null}
+     */
+    public synchronized void chunkPublished(int chunkSize, RecordImportResult chunkResult) {
+        this.processedCount += chunkSize;
+        result.merge(chunkResult);
+    }
+
+    /**
+     * Records failure to publish a chunk of records.
+     *
+     * @param chunkSize Number of records which were not published
+     * @param error     Error description
+     */
+    public synchronized void chunkFailed(int chunkSize, String error) {
+        this.processedCount += chunkSize;
+        result.setTotalCount(result.getTotalCount() + chunkSize);
+        result.addError(error);
+        this.chunkFailed = true;
+    }
+
+    public synchronized void complete() {
+        this.state = chunkFailed ? State.FAILED : State.COMPLETED;
+        this.finished = new Date();
+    }
+
+    public synchronized void fail(String error) {
+        result.addError(error);
+        this.state = State.FAILED;
+        this.finished = new Date();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PublishJob that)) {
+            return false;
+        }
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "PublishJob{" +
+                "id='" + id + '\'' +
+                ", state=" + getState() +
+                '}';
+    }
+}
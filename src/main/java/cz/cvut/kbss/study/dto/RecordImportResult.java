@@ -87,6 +87,33 @@ public class RecordImportResult {
         errors.add(error);
     }
 
+    /**
+     * Adds the specified result of importing another part of records to this result.
+     *
+     * @param other Result to merge into this one, {@code null} is ignored
+     * @return This result
+     */
+    public RecordImportResult merge(RecordImportResult other) {
+        if (other == null) {
+            return this;
+        }
+        totalCount += other.totalCount;
+        importedCount += other.importedCount;
+        if (other.importedRecords != null) {
+            if (importedRecords == null) {
+                importedRecords = new HashSet<>();
+            }
+            importedRecords.addAll(other.importedRecords);
+        }
+        if (other.errors != null) {
+            if (errors == null) {
+                errors = new ArrayList<>();
+            }
+            errors.addAll(other.errors);
+        }
+        return this;
+    }
+
     @Override
     public String toString() {
         return "RecordImportResult{" +
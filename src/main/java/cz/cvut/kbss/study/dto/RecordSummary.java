@@ -0,0 +1,135 @@
+package cz.cvut.kbss.study.dto;
+
+import cz.cvut.kbss.jopa.model.annotations.*;
+import cz.cvut.kbss.study.model.Vocabulary;
+import cz.cvut.kbss.study.model.util.HasUri;
+
+import java.net.URI;
+import java.util.Date;
+
+/**
+ * Denormalized summary of a record, holding the attributes used to filter and sort record lists.
+ * <p>
+ * Summaries are loaded by a single query (using the {@code RecordSummary} result set mapping) and kept in memory, so
+ * that record lists need not be filtered and sorted by the repository.
+ */
+@SparqlResultSetMappings(value =
+@SparqlResultSetMapping(name = "RecordSummary", entities = {
+        @EntityResult(entityClass = RecordSummary.class)
+})
+)
+@OWLClass(iri = Vocabulary.s_c_record)
+public class RecordSummary implements HasUri {
+
+    @Id
+    private URI uri;
+
+    @OWLDataProperty(iri = Vocabulary.s_p_key)
+    private String key;
+
+    @OWLAnnotationProperty(iri = Vocabulary.s_p_label)
+    private String localName;
+
+    @OWLDataProperty(iri = "http://institutionKey")
+    private String institutionKey;
+
+    @OWLDataProperty(iri = "http://username")
+    private String username;
+
+    @OWLObjectProperty(iri = Vocabulary.s_p_has_phase)
+    private URI phase;
+
+    @OWLDataProperty(iri = Vocabulary.s_p_has_form_template)
+    private String formTemplate;
+
+    @OWLDataProperty(iri = Vocabulary.s_p_created)
+    private Date created;
+
+    /**
+     * Date of last modification, or of creation when the record has not been modified.
+     */
+    @OWLDataProperty(iri = "http://date")
+    private Date date;
+
+    @Override
+    public URI getUri() {
+        return uri;
+    }
+
+    public void setUri(URI uri) {
+        this.uri = uri;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public String getLocalName() {
+        return localName;
+    }
+
+    public void setLocalName(String localName) {
+        this.localName = localName;
+    }
+
+    public String getInstitutionKey() {
+        return institutionKey;
+    }
+
+    public void setInstitutionKey(String institutionKey) {
+        this.institutionKey = institutionKey;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public URI getPhase() {
+        return phase;
+    }
+
+    public void setPhase(URI phase) {
+        this.phase = phase;
+    }
+
+    public String getFormTemplate() {
+        return formTemplate;
+    }
+
+    public void setFormTemplate(String formTemplate) {
+        this.formTemplate = formTemplate;
+    }
+
+    public Date getCreated() {
+        return created;
+    }
+
+    public void setCreated(Date created) {
+        this.created = created;
+    }
+
+    public Date getDate() {
+        return date;
+    }
+
+    public void setDate(Date date) {
+        this.date = date;
+    }
+
+    @Override
+    public String toString() {
+        return "RecordSummary{" +
+                "uri=" + uri +
+                ", key='" + key + '\'' +
+                ", date=" + date +
+                '}';
+    }
+}
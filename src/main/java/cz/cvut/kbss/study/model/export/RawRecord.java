@@ -2,6 +2,7 @@ package cz.cvut.kbss.study.model.export;
 
 import cz.cvut.kbss.jopa.model.annotations.*;
 import cz.cvut.kbss.study.model.Vocabulary;
+import cz.cvut.kbss.study.model.util.HasUri;
 
 import java.net.URI;
 import java.util.Date;
@@ -12,7 +13,7 @@ import java.util.Date;
 })
 )
 @OWLClass(iri = Vocabulary.s_c_record)
-public class RawRecord {
+public class RawRecord implements HasUri {
     @Id
     private URI uri;
 
@@ -73,6 +74,7 @@ public class RawRecord {
     private URI fhaEvent;
 
 
+    @Override
     public URI getUri() {
         return uri;
     }
@@ -3,7 +3,6 @@ package cz.cvut.kbss.study.persistence.dao;
 import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.study.model.Vocabulary;
 import cz.cvut.kbss.study.model.export.NamedItem;
-import cz.cvut.kbss.study.model.export.Path;
 import org.springframework.stereotype.Repository;
 
 import java.net.URI;
@@ -144,42 +143,28 @@ public class CodeListValuesDao {
                 """, NamedItem.class.getSimpleName()).getResultList();
     }
 
-    public List<Path> getBroaderPath(Collection<URI> elements){
-        String queryString = """
+    /**
+     * Finds all pairs of concepts related by {@code skos:broader}.
+     *
+     * @return List of two-element arrays, the first element is the narrower concept, the second is the broader one
+     */
+    public List<URI[]> findBroaderPairs() {
+        final List<?> rows = em.createNativeQuery("""
                 PREFIX skos: <http://www.w3.org/2004/02/skos/core#>
-                SELECT ?l1 ?l2 ?l3 ?l4 ?l5 (?p as ?uri) {
+                SELECT ?narrower ?broader {
                     SERVICE <repository:record-manager-formgen> {
-                        OPTIONAL{
-                            ?p skos:broader+ ?l1.
-                            FILTER NOT EXISTS{
-                                ?l1 skos:broader ?l0 .
-                            }
-                            OPTIONAL{
-                                ?l2 skos:broader ?l1 .
-                                ?p skos:broader+ ?l2.
-                                OPTIONAL{
-                                    ?l3 skos:broader ?l2 .
-                                    ?p skos:broader+ ?l3.
-                                    OPTIONAL{
-                                        ?l4 skos:broader ?l3 .
-                                        ?p skos:broader+ ?l4.
-                                        OPTIONAL{
-                                            ?l5 skos:broader ?l4 .
-                                            ?p skos:broader+ ?l5.
-                                        }
-                                    }
-                                }
-                            }
-                        }
+                        ?narrower skos:broader ?broader .
                     }
-                }VALUES ?p {
-                    %s
                 }
-                """;
-        queryString = queryString.formatted(elements.stream().map(u -> "<%s>".formatted(u.toString()))
-                .collect(Collectors.joining("\n")));
-        return em.createNativeQuery(queryString, Path.class.getSimpleName())
-                .getResultList();
+                """).getResultList();
+        return rows.stream().map(row -> {
+            final Object[] values = (Object[]) row;
+            return new URI[]{toUri(values[0]), toUri(values[1])};
+        }).collect(Collectors.toList());
+    }
+
+    private static URI toUri(Object value) {
+        return value instanceof URI uri ? uri : URI.create(value.toString());
     }
 
 }
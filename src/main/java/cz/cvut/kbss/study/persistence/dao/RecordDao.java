@@ -1,6 +1,7 @@
 package cz.cvut.kbss.study.persistence.dao;
 
 import cz.cvut.kbss.jopa.exceptions.NoResultException;
+import cz.cvut.kbss.jopa.model.Cache;
 import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.jopa.model.descriptors.Descriptor;
 import cz.cvut.kbss.jopa.model.descriptors.EntityDescriptor;
@@ -9,27 +10,45 @@ import cz.cvut.kbss.jopa.model.query.Query;
 import cz.cvut.kbss.jopa.model.query.TypedQuery;
 import cz.cvut.kbss.ontodriver.model.LangString;
 import cz.cvut.kbss.study.dto.RecordDto;
+import cz.cvut.kbss.study.dto.RecordSummary;
 import cz.cvut.kbss.study.exception.PersistenceException;
 import cz.cvut.kbss.study.exception.ValidationException;
 import cz.cvut.kbss.study.model.*;
 import cz.cvut.kbss.study.model.Record;
 import cz.cvut.kbss.study.model.export.RawRecord;
+import cz.cvut.kbss.study.model.util.HasUri;
+import cz.cvut.kbss.study.persistence.dao.util.CursorPage;
+import cz.cvut.kbss.study.persistence.dao.util.QueryTemplateRegistry;
 import cz.cvut.kbss.study.persistence.dao.util.QuestionSaver;
+import cz.cvut.kbss.study.persistence.dao.util.QuestionTreeMerger;
+import cz.cvut.kbss.study.persistence.dao.util.RecordCountCache;
+import cz.cvut.kbss.study.persistence.dao.util.RecordCursor;
+import cz.cvut.kbss.study.persistence.dao.util.RecordFetchPlan;
 import cz.cvut.kbss.study.persistence.dao.util.RecordFilterParams;
+import cz.cvut.kbss.study.persistence.dao.util.RecordGraphLoader;
 import cz.cvut.kbss.study.persistence.dao.util.RecordSort;
+import cz.cvut.kbss.study.persistence.dao.util.RecordSummaryTable;
+import cz.cvut.kbss.study.persistence.monitoring.QueryMonitor;
+import cz.cvut.kbss.study.service.ConfigReader;
+import cz.cvut.kbss.study.util.ConfigParam;
+import cz.cvut.kbss.study.util.Configuration;
 import cz.cvut.kbss.study.util.Constants;
 import cz.cvut.kbss.study.util.IdentificationUtils;
-import cz.cvut.kbss.study.util.Utils;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigInteger;
 import java.net.URI;
+import java.time.Duration;
 import java.time.ZoneOffset;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Repository
@@ -38,23 +57,96 @@ public class RecordDao extends OwlKeySupportingDao<Record> {
     public static final String FIND_ALL_RAW_RECORDS = "find-raw-records.sparql";
     public static final String RECORDS_CLAUSE_TEMPLATE_VAR = "###RECORD_CLAUSE###";
 
-    public RecordDao(EntityManager em) {
+    /**
+     * Maximum number of records whose phase is changed by a single update query.
+     */
+    static final int PHASE_UPDATE_BATCH_SIZE = 500;
+
+    private static final String RECORDS_COUNT = "records";
+    private static final String RAW_RECORDS_COUNT = "rawRecords";
+
+    // Query shape flags, each filtering criterion (or seek direction) present in the query sets one of them
+    private static final int AUTHOR_FILTER = 1;
+    private static final int INSTITUTION_FILTER = 1 << 1;
+    private static final int MIN_DATE_FILTER = 1 << 2;
+    private static final int MAX_DATE_FILTER = 1 << 3;
+    private static final int PHASE_FILTER = 1 << 4;
+    private static final int FORM_TEMPLATE_FILTER = 1 << 5;
+    private static final int SEEK_ASCENDING = 1 << 6;
+    private static final int SEEK_DESCENDING = 1 << 7;
+
+    private final RecordCountCache countCache;
+
+    private final RecordSummaryTable summaries;
+
+    private final RecordGraphLoader graphLoader;
+
+    private final QueryTemplateRegistry queryTemplates;
+
+    public RecordDao(EntityManager em, QueryTemplateRegistry queryTemplates, QueryMonitor queryMonitor,
+                     ConfigReader config) {
         super(Record.class, em);
+        this.graphLoader = new RecordGraphLoader(em, queryMonitor);
+        this.queryTemplates = queryTemplates;
+        final Duration cacheMaxAge = config.getDurationConfig(ConfigParam.RECORDS_CACHE_MAX_AGE,
+                                                              Configuration.Records.DEFAULT_CACHE_MAX_AGE);
+        this.countCache = new RecordCountCache(cacheMaxAge);
+        this.summaries = new RecordSummaryTable(cacheMaxAge);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Outside of read-write transactions, a record which is not in the second-level cache is loaded from its named graph
+     * by {@link RecordGraphLoader}. Such record is not managed and its questions do not have the origin path identifier
+     * set, so it must not be merged into a persistence context.
+     */
     @Override
     public Record find(URI uri) {
         Objects.requireNonNull(uri);
         try {
+            if (canUseGraphLoader(uri)) {
+                final Optional<Record> loaded = graphLoader.load(uri).filter(r -> uri.equals(r.getUri()));
+                if (loaded.isPresent()) {
+                    return loaded.get();
+                }
+            }
             return em.find(Record.class, uri, getDescriptor(uri));
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
 
+    /**
+     * Checks whether the specified record can be loaded by {@link RecordGraphLoader}, i.e., there is no read-write
+     * transaction whose changes the loader would not see and the record is not available in the second-level cache.
+     */
+    private boolean canUseGraphLoader(URI uri) {
+        return RecordGraphLoader.isApplicable() &&
+                !em.getEntityManagerFactory().getCache().contains(Record.class, uri, getDescriptor(uri));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Outside of read-write transactions, a record which is not in the second-level cache is loaded from its named graph
+     * by {@link RecordGraphLoader}. Such record is not managed and its questions do not have the origin path identifier
+     * set, so it must not be merged into a persistence context.
+     */
     @Override
     public Record findByKey(String key) {
         Objects.requireNonNull(key);
+        if (canUseGraphLoader(generateRecordUriFromKey(key))) {
+            final Optional<Record> loaded;
+            try {
+                loaded = graphLoader.load(generateRecordUriFromKey(key)).filter(r -> key.equals(r.getKey()));
+            } catch (RuntimeException e) {
+                throw new PersistenceException(e);
+            }
+            if (loaded.isPresent()) {
+                return loaded.get();
+            }
+        }
         try {
             return em.createQuery("SELECT r FROM " + Record.class.getSimpleName() + " r WHERE r.key = :key",
                                   type)
@@ -65,6 +157,14 @@ public class RecordDao extends OwlKeySupportingDao<Record> {
         }
     }
 
+    /**
+     * Persists the specified record together with its question tree.
+     * <p>
+     * The question tree is inserted in bulk, so afterwards the record references a managed instance of the root
+     * question instead of the original one.
+     *
+     * @param entity Record to persist
+     */
     @Override
     public void persist(Record entity) {
         Objects.requireNonNull(entity);
@@ -76,12 +176,14 @@ public class RecordDao extends OwlKeySupportingDao<Record> {
         }
         try {
             final Descriptor descriptor = getDescriptor(entity.getUri());
+            // Question tree is inserted in bulk, the record then references a managed instance of its root
+            entity.setQuestion(new QuestionSaver(descriptor).persistInBatch(entity.getQuestion(), em));
             em.persist(entity, descriptor);
-            final QuestionSaver questionSaver = new QuestionSaver(descriptor);
-            questionSaver.persistIfNecessary(entity.getQuestion(), em);
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
+        invalidateCounts();
+        markSummariesStale(List.of(entity.getUri()));
     }
 
     private Descriptor getDescriptor(String recordKey) {
@@ -101,26 +203,214 @@ public class RecordDao extends OwlKeySupportingDao<Record> {
         return URI.create(Vocabulary.s_c_record + "/" + Objects.requireNonNull(recordKey));
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Instead of replacing the whole question tree of the record, the specified record is compared with the stored one
+     * and only the changed attributes, answers and questions are written (see {@link QuestionTreeMerger}).
+     */
     @Override
     public void update(Record entity) {
         Objects.requireNonNull(entity);
         final Descriptor descriptor = getDescriptor(entity.getUri());
         final Record orig = em.find(Record.class, entity.getUri(), descriptor);
         assert orig != null;
-        orig.setQuestion(null);
-        em.merge(entity, descriptor);
+        try {
+            mergeAttributes(entity, orig);
+            orig.setQuestion(new QuestionTreeMerger(descriptor).merge(orig.getQuestion(), entity.getQuestion(), em));
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
         // Evict cached instances loaded from the default context
         em.getEntityManagerFactory().getCache().evict(Record.class, entity.getUri(), null);
         em.getEntityManagerFactory().getCache().evict(RecordDto.class, entity.getUri(), null);
+        invalidateCounts();
+        markSummariesStale(List.of(entity.getUri()));
+    }
+
+    /**
+     * Copies attributes of the record itself which differ into the managed instance.
+     */
+    private void mergeAttributes(Record source, Record target) {
+        if (!Objects.equals(source.getKey(), target.getKey())) {
+            target.setKey(source.getKey());
+        }
+        if (!Objects.equals(source.getLocalName(), target.getLocalName())) {
+            target.setLocalName(source.getLocalName());
+        }
+        if (!Objects.equals(source.getDateCreated(), target.getDateCreated())) {
+            target.setDateCreated(source.getDateCreated());
+        }
+        if (!Objects.equals(source.getLastModified(), target.getLastModified())) {
+            target.setLastModified(source.getLastModified());
+        }
+        if (!Objects.equals(source.getFormTemplate(), target.getFormTemplate())) {
+            target.setFormTemplate(source.getFormTemplate());
+        }
+        if (!Objects.equals(source.getFormTemplateVersion(), target.getFormTemplateVersion())) {
+            target.setFormTemplateVersion(source.getFormTemplateVersion());
+        }
+        if (source.getPhase() != target.getPhase()) {
+            target.setPhase(source.getPhase());
+        }
+        if (!Objects.equals(source.getRejectReason(), target.getRejectReason())) {
+            target.setRejectReason(source.getRejectReason());
+        }
+        if (!sameReference(source.getAuthor(), target.getAuthor())) {
+            target.setAuthor(findReference(User.class, source.getAuthor()));
+        }
+        if (!sameReference(source.getLastModifiedBy(), target.getLastModifiedBy())) {
+            target.setLastModifiedBy(findReference(User.class, source.getLastModifiedBy()));
+        }
+        if (!sameReference(source.getInstitution(), target.getInstitution())) {
+            target.setInstitution(findReference(Institution.class, source.getInstitution()));
+        }
+    }
+
+    private static boolean sameReference(HasUri a, HasUri b) {
+        return Objects.equals(a != null ? a.getUri() : null, b != null ? b.getUri() : null);
+    }
+
+    /**
+     * Referenced entities reside in the default context and must be managed when set on a managed record.
+     */
+    private <T extends HasUri> T findReference(Class<T> cls, T reference) {
+        return reference != null ? em.find(cls, reference.getUri()) : null;
     }
 
     public void updateStatus(URI entityUri, RecordPhase targetPhase){
-        Record entity = find(entityUri);
-        if(entity == null)
-             return;
-        entity.setPhase(targetPhase);
-        em.getEntityManagerFactory().getCache().evict(Record.class, entity.getUri(), null);
-        em.getEntityManagerFactory().getCache().evict(RecordDto.class, entity.getUri(), null);
+        updateStatus(Set.of(entityUri), targetPhase);
+    }
+
+    /**
+     * Sets phase of records with the specified identifiers.
+     * <p>
+     * The phase is rewritten directly in the repository, without loading the records. All records of a batch of
+     * {@link #PHASE_UPDATE_BATCH_SIZE} identifiers are updated by a single SPARQL update. Identifiers which do not
+     * correspond to any record are ignored.
+     *
+     * @param recordUris  Identifiers of records to update
+     * @param targetPhase Phase to set
+     */
+    public void updateStatus(Collection<URI> recordUris, RecordPhase targetPhase) {
+        Objects.requireNonNull(recordUris);
+        Objects.requireNonNull(targetPhase);
+        if (recordUris.isEmpty()) {
+            return;
+        }
+        final List<URI> uris = new ArrayList<>(recordUris);
+        try {
+            for (int i = 0; i < uris.size(); i += PHASE_UPDATE_BATCH_SIZE) {
+                final List<URI> batch = uris.subList(i, Math.min(i + PHASE_UPDATE_BATCH_SIZE, uris.size()));
+                final String values = batch.stream().map(uri -> "<" + uri + ">").collect(Collectors.joining(" "));
+                em.createNativeQuery("DELETE { GRAPH ?r { ?r ?hasPhase ?oldPhase . } } " +
+                                             "INSERT { GRAPH ?r { ?r ?hasPhase ?phase . } } " +
+                                             "WHERE { VALUES ?r { " + values + " } " +
+                                             "GRAPH ?r { ?r a ?type . OPTIONAL { ?r ?hasPhase ?oldPhase . } } }")
+                  .setParameter("type", typeUri)
+                  .setParameter("hasPhase", URI.create(Vocabulary.s_p_has_phase))
+                  .setParameter("phase", URI.create(targetPhase.getIri()))
+                  .executeUpdate();
+            }
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+        evictFromCache(uris);
+        invalidateCounts();
+        markSummariesStale(uris);
+    }
+
+    /**
+     * Evicts the specified records from the second level cache, both instances loaded from their own contexts and from
+     * the default context.
+     */
+    private void evictFromCache(Collection<URI> recordUris) {
+        final Cache cache = em.getEntityManagerFactory().getCache();
+        recordUris.forEach(uri -> {
+            cache.evict(uri);
+            cache.evict(Record.class, uri, null);
+            cache.evict(RecordDto.class, uri, null);
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The specified record may have been loaded by {@link RecordGraphLoader} and must not be merged, so the managed
+     * instance of the record is loaded and removed instead.
+     */
+    @Override
+    public void remove(Record entity) {
+        Objects.requireNonNull(entity);
+        try {
+            final Record toRemove = em.find(Record.class, entity.getUri(), getDescriptor(entity.getUri()));
+            if (toRemove == null) {
+                return;
+            }
+            em.remove(toRemove);
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+        invalidateCounts();
+        markSummariesStale(List.of(entity.getUri()));
+    }
+
+    /**
+     * Marks summaries of the specified records as stale.
+     * <p>
+     * When called within a transaction, the summaries are marked after the transaction completes, so that they are
+     * reloaded only when the changes are visible.
+     */
+    private void markSummariesStale(Collection<URI> recordUris) {
+        final List<URI> uris = List.copyOf(recordUris);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    summaries.markStale(uris);
+                }
+            });
+        } else {
+            summaries.markStale(uris);
+        }
+    }
+
+    /**
+     * Invalidates cached record counts.
+     * <p>
+     * When called within a transaction, the counts are invalidated again after the transaction completes, so that
+     * counts computed by concurrent readers before the changes became visible are not retained.
+     */
+    private void invalidateCounts() {
+        countCache.invalidate();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    countCache.invalidate();
+                }
+            });
+        }
+    }
+
+    /**
+     * Finds which of the specified record identifiers belong to existing records.
+     * <p>
+     * All the identifiers are resolved using a single query.
+     *
+     * @param uris Record identifiers to check
+     * @return Subset of the specified identifiers corresponding to existing records
+     */
+    public Set<URI> findExistingUris(Collection<URI> uris) {
+        Objects.requireNonNull(uris);
+        if (uris.isEmpty()) {
+            return Collections.emptySet();
+        }
+        final String values = uris.stream().map(uri -> "<" + uri + ">").collect(Collectors.joining(" "));
+        return new HashSet<>(em.createNativeQuery("SELECT ?r WHERE { VALUES ?r { " + values + " } ?r a ?type . }",
+                                                  URI.class)
+                               .setParameter("type", typeUri)
+                               .getResultList());
     }
 
     public List<RecordDto> findAllRecords() {
@@ -152,11 +442,58 @@ public class RecordDao extends OwlKeySupportingDao<Record> {
      * @return Records
      */
     public List<Record> findByAuthor(User author) {
+        return findByAuthor(author, RecordFetchPlan.FULL);
+    }
+
+    /**
+     * Gets records created by specified author, loading only the parts of the records given by the fetch plan.
+     *
+     * @param author    The author to filter by
+     * @param fetchPlan Specifies which parts of the records to load
+     * @return Records
+     */
+    public List<Record> findByAuthor(User author, RecordFetchPlan fetchPlan) {
         Objects.requireNonNull(author);
-        return em.createNativeQuery("SELECT ?r WHERE { ?r a ?type ; ?createdBy ?author . }", Record.class)
+        Objects.requireNonNull(fetchPlan);
+        final String queryString = "SELECT ?r WHERE { ?r a ?type ; ?createdBy ?author . }";
+        if (fetchPlan == RecordFetchPlan.FULL) {
+            return em.createNativeQuery(queryString, Record.class)
+                     .setParameter("type", typeUri)
+                     .setParameter("createdBy", URI.create(Vocabulary.s_p_has_author))
+                     .setParameter("author", author.getUri()).getResultList();
+        }
+        return em.createNativeQuery(queryString, RecordDto.class)
                  .setParameter("type", typeUri)
                  .setParameter("createdBy", URI.create(Vocabulary.s_p_has_author))
-                 .setParameter("author", author.getUri()).getResultList();
+                 .setParameter("author", author.getUri()).getResultList()
+                 .stream().map(dto -> toRecord(dto, fetchPlan)).collect(Collectors.toList());
+    }
+
+    /**
+     * Creates a record without the question tree from the specified header projection.
+     */
+    private static Record toRecord(RecordDto dto, RecordFetchPlan fetchPlan) {
+        assert fetchPlan != RecordFetchPlan.FULL;
+        final Record record = new Record();
+        record.setUri(dto.getUri());
+        record.setKey(dto.getKey());
+        record.setLocalName(dto.getLocalName());
+        record.setDateCreated(dto.getDateCreated());
+        record.setLastModified(dto.getLastModified());
+        record.setFormTemplate(dto.getFormTemplate());
+        record.setPhase(dto.getPhase());
+        record.setRejectReason(dto.getRejectReason());
+        if (fetchPlan == RecordFetchPlan.SHALLOW) {
+            record.setAuthor(dto.getAuthor());
+            record.setInstitution(dto.getInstitution());
+            if (dto.getLastModifiedBy() != null) {
+                // Only reference the last editor, the projection does not load it
+                final User lastModifiedBy = new User();
+                lastModifiedBy.setUri(dto.getLastModifiedBy());
+                record.setLastModifiedBy(lastModifiedBy);
+            }
+        }
+        return record;
     }
 
     public int getNumberOfProcessedRecords() {
@@ -169,6 +506,10 @@ public class RecordDao extends OwlKeySupportingDao<Record> {
 
     /**
      * Ensure that local name of provided record is unique within its organization.
+     * <p>
+     * The local name has to be unique among records of the same institution and form template. Uniqueness is checked by
+     * a single query, regardless of the number of records of the institution. The values are bound as literals in the
+     * persistence unit language (as they are stored by JOPA), so that the query can be evaluated using indexes.
      *
      * @param entity The local name to be checked for uniqueness
      */
@@ -178,17 +519,33 @@ public class RecordDao extends OwlKeySupportingDao<Record> {
             throw new ValidationException("error.record.localNameOfRecordIsEmpty",
                                           "Local name of record is empty for entity " + entity);
         }
-        boolean unique = findByInstitution(entity.getInstitution()).stream()
-                                                                   .filter(pr -> (entity.getFormTemplate() != null) && entity.getFormTemplate()
-                                                                                                                             .equals(pr.getFormTemplate()))
-                                                                   .filter(pr -> pr.getLocalName()
-                                                                                   .equals(entity.getLocalName()))
-                                                                   .allMatch(pr -> pr.getUri().equals(entity.getUri()));
-        if (!unique) {
+        if (entity.getFormTemplate() == null) {
+            return;
+        }
+        final String queryString = "ASK WHERE { " +
+                "?r a ?type ; " +
+                "?treatedAt ?institution ; " +
+                "?hasFormTemplate ?formTemplate ; " +
+                "?hasLabel ?localName . " +
+                (entity.getUri() != null ? "FILTER (?r != ?uri) " : "") +
+                "}";
+        final TypedQuery<Boolean> query = em.createNativeQuery(queryString, Boolean.class)
+                                            .setParameter("type", typeUri)
+                                            .setParameter("treatedAt", URI.create(Vocabulary.s_p_was_treated_at))
+                                            .setParameter("institution", entity.getInstitution().getUri())
+                                            .setParameter("hasFormTemplate",
+                                                          URI.create(Vocabulary.s_p_has_form_template))
+                                            .setParameter("hasLabel", URI.create(Vocabulary.s_p_label))
+                                            .setParameter("formTemplate", entity.getFormTemplate(),
+                                                          Constants.PU_LANGUAGE)
+                                            .setParameter("localName", entity.getLocalName(), Constants.PU_LANGUAGE);
+        if (entity.getUri() != null) {
+            query.setParameter("uri", entity.getUri());
+        }
+        if (query.getSingleResult()) {
             throw new ValidationException("error.record.localNameOfRecordIsNotUnique",
                                           "Local name of record is not unique for entity " + entity);
         }
-        em.clear();
     }
 
     /**
@@ -207,7 +564,97 @@ public class RecordDao extends OwlKeySupportingDao<Record> {
     public Page<RecordDto> findAllRecords(RecordFilterParams filters, Pageable pageSpec) {
         Objects.requireNonNull(filters);
         Objects.requireNonNull(pageSpec);
-        return findRecords(filters, pageSpec, RecordDto.class);
+        final Sort sort = pageSpec.getSortOr(RecordSort.defaultSort());
+        final boolean ascending = isAscendingByDate(sort);
+        final Function<RecordDto, Date> dateExtractor =
+                r -> r.getLastModified() != null ? r.getLastModified() : r.getDateCreated();
+        if (filters.getCursor().isPresent()) {
+            // One record more than the page size to find out whether there is a next page
+            final int limit = pageSpec.isPaged() ? pageSpec.getPageSize() + 1 : Integer.MAX_VALUE;
+            final RecordSummaryTable.Window window = summaries.findMatching(filters, ascending, 0, limit,
+                                                                            this::querySummaries);
+            return toCursorPage(loadDtos(window.rows()), pageSpec, sort, window.total(), dateExtractor);
+        }
+        final long offset = pageSpec.isPaged() ? pageSpec.getOffset() : 0;
+        final int limit = pageSpec.isPaged() ? pageSpec.getPageSize() : Integer.MAX_VALUE;
+        final RecordSummaryTable.Window window = summaries.findMatching(filters, ascending, offset, limit,
+                                                                        this::querySummaries);
+        return new PageImpl<>(loadDtos(window.rows()), pageSpec, window.total());
+    }
+
+    /**
+     * Loads the in-memory record summaries (and their indexes) used to answer record list requests, unless they are
+     * already loaded.
+     * <p>
+     * This is done on the first list request anyway, calling this method at startup just saves the first user the wait.
+     */
+    public void loadSummaries() {
+        summaries.load(this::querySummaries);
+    }
+
+    /**
+     * Discards the in-memory record summaries, they are loaded again on the next record list request.
+     * <p>
+     * Summaries contain attributes of record authors and institutions, so this should be called when these change.
+     * When called within a transaction, the summaries are discarded after the transaction completes.
+     */
+    public void invalidateSummaries() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    summaries.invalidate();
+                }
+            });
+        } else {
+            summaries.invalidate();
+        }
+    }
+
+    /**
+     * Queries summaries of the specified records, or of all records if {@code recordUris} is {@code null}.
+     */
+    private List<RecordSummary> querySummaries(Collection<URI> recordUris) {
+        if (recordUris != null && recordUris.isEmpty()) {
+            return List.of();
+        }
+        final String values = recordUris != null ?
+                              "VALUES ?r { " + recordUris.stream().map(uri -> "<" + uri + ">")
+                                                         .collect(Collectors.joining(" ")) + " } " : "";
+        final Query query = em.createNativeQuery("SELECT ?r (?r as ?uri) ?key ?localName ?institutionKey ?username " +
+                                                         "?phase ?formTemplate ?created ?date WHERE { " + values +
+                                                         "?r a ?type ; " +
+                                                         "?hasKey ?key ; " +
+                                                         "?hasAuthor ?author ; " +
+                                                         "?hasCreatedDate ?created ; " +
+                                                         "?hasInstitution ?institution . " +
+                                                         "?institution ?hasKey ?institutionKey ." +
+                                                         "?author ?hasUsername ?username ." +
+                                                         "OPTIONAL { ?r ?hasLabel ?localName . } " +
+                                                         "OPTIONAL { ?r ?hasPhase ?phase . } " +
+                                                         "OPTIONAL { ?r ?hasFormTemplate ?formTemplate . } " +
+                                                         "OPTIONAL { ?r ?hasLastModified ?lastModified . } " +
+                                                         "BIND (COALESCE(?lastModified, ?created) AS ?date) }",
+                                                 RecordSummary.class.getSimpleName())
+                             .setParameter("hasLabel", URI.create(Vocabulary.s_p_label));
+        setQueryParameters(query, Map.of());
+        return query.getResultList();
+    }
+
+    /**
+     * Loads DTOs of the specified records by a single query, preserving their order.
+     */
+    private List<RecordDto> loadDtos(List<RecordSummary> records) {
+        if (records.isEmpty()) {
+            return List.of();
+        }
+        final String values = records.stream().map(r -> "<" + r.getUri() + ">").collect(Collectors.joining(" "));
+        final Map<URI, RecordDto> dtos = em.createNativeQuery("SELECT ?r WHERE { VALUES ?r { " + values + " } " +
+                                                                      "?r a ?type . }", RecordDto.class)
+                                           .setParameter("type", typeUri)
+                                           .getResultList().stream()
+                                           .collect(Collectors.toMap(RecordDto::getUri, Function.identity()));
+        return records.stream().map(r -> dtos.get(r.getUri())).filter(Objects::nonNull).toList();
     }
 
     /**
@@ -224,15 +671,48 @@ public class RecordDao extends OwlKeySupportingDao<Record> {
      * @see #findAllRecords(RecordFilterParams, Pageable)
      */
     public Page<Record> findAllRecordsFull(RecordFilterParams filters, Pageable pageSpec) {
+        return findAllRecordsFull(filters, pageSpec, RecordFetchPlan.FULL);
+    }
+
+    /**
+     * Retrieves records matching the specified filtering criteria, loading only the parts of the records given by the
+     * fetch plan.
+     *
+     * @param filters   Record filtering criteria
+     * @param pageSpec  Specification of page and sorting
+     * @param fetchPlan Specifies which parts of the records to load
+     * @return Page with matching records
+     * @see #findAllRecordsFull(RecordFilterParams, Pageable)
+     */
+    public Page<Record> findAllRecordsFull(RecordFilterParams filters, Pageable pageSpec, RecordFetchPlan fetchPlan) {
         Objects.requireNonNull(filters);
         Objects.requireNonNull(pageSpec);
-        return findRecords(filters, pageSpec, Record.class);
+        Objects.requireNonNull(fetchPlan);
+        if (fetchPlan == RecordFetchPlan.FULL) {
+            return findRecords(filters, pageSpec, Record.class,
+                               r -> r.getLastModified() != null ? r.getLastModified() : r.getDateCreated());
+        }
+        final Page<RecordDto> headers = findAllRecords(filters, pageSpec);
+        final List<Record> records = headers.getContent().stream().map(dto -> toRecord(dto, fetchPlan)).toList();
+        if (headers instanceof CursorPage<RecordDto> cursorPage) {
+            return new CursorPage<>(records, pageSpec, headers.getTotalElements(),
+                                    cursorPage.getNextCursor().orElse(null));
+        }
+        return new PageImpl<>(records, pageSpec, headers.getTotalElements());
     }
 
-    private <T> Page<T> findRecords(RecordFilterParams filters, Pageable pageSpec, Class<T> resultClass) {
-        final Map<String, Object> queryParams = new HashMap<>();
-        final String whereClause = constructWhereClause(filters, queryParams);
-        final String queryString = "SELECT ?r WHERE " + whereClause + resolveOrderBy(pageSpec.getSortOr(RecordSort.defaultSort()));
+    private <T extends HasUri> Page<T> findRecords(RecordFilterParams filters, Pageable pageSpec,
+                                                   Class<T> resultClass, Function<T, Date> dateExtractor) {
+        if (filters.getCursor().isPresent()) {
+            return findRecordsAfterCursor(filters, pageSpec, resultClass, dateExtractor);
+        }
+        final int shape = filterShape(filters);
+        final Map<String, Object> queryParams = bindFilterParams(filters, new HashMap<>());
+        // Normalized before being used in the template key, so that the number of assembled queries is bounded
+        final String orderBy = resolveOrderBy(RecordSort.normalize(pageSpec.getSortOr(RecordSort.defaultSort())));
+        final String queryString = queryTemplates.assemble("records:" + shape + ":" + orderBy,
+                                                           () -> "SELECT ?r WHERE " + constructWhereClause(shape) +
+                                                                   orderBy);
         final TypedQuery<T> query = em.createNativeQuery(queryString, resultClass);
         setQueryParameters(query, queryParams);
         if (pageSpec.isPaged()) {
@@ -240,12 +720,68 @@ public class RecordDao extends OwlKeySupportingDao<Record> {
             query.setMaxResults(pageSpec.getPageSize());
         }
         final List<T> records = query.getResultList();
-        final TypedQuery<Integer> countQuery = em.createNativeQuery("SELECT (COUNT(?r) as ?cnt) WHERE " + whereClause, Integer.class);
-        setQueryParameters(countQuery, queryParams);
-        final Integer totalCount = countQuery.getSingleResult();
+        final int totalCount = countRecords(filters, shape, queryParams);
         return new PageImpl<>(records, pageSpec, totalCount);
     }
 
+    /**
+     * Keyset pagination - instead of skipping records of the preceding pages, only records following the cursor in the
+     * sort order are selected.
+     * <p>
+     * One record more than the page size is requested to find out whether there is a next page.
+     */
+    private <T extends HasUri> Page<T> findRecordsAfterCursor(RecordFilterParams filters, Pageable pageSpec,
+                                                              Class<T> resultClass, Function<T, Date> dateExtractor) {
+        assert filters.getCursor().isPresent();
+        final Sort sort = pageSpec.getSortOr(RecordSort.defaultSort());
+        final boolean ascending = isAscendingByDate(sort);
+        final int shape = filterShape(filters);
+        final int seekShape = shape | seekShape(filters.getCursor().get(), ascending);
+        final Map<String, Object> queryParams = bindFilterParams(filters, new HashMap<>());
+        final Map<String, Object> seekParams = bindCursorParams(filters.getCursor().get(), new HashMap<>(queryParams));
+        final String queryString = queryTemplates.assemble(
+                "recordsAfterCursor:" + seekShape,
+                () -> "SELECT ?r WHERE {" + constructWhereClause(shape) + seekClause(seekShape) + "}" +
+                        resolveKeysetOrderBy(ascending));
+        final TypedQuery<T> query = em.createNativeQuery(queryString, resultClass);
+        setQueryParameters(query, seekParams);
+        if (pageSpec.isPaged()) {
+            query.setMaxResults(pageSpec.getPageSize() + 1);
+        }
+        final List<T> records = query.getResultList();
+        final int totalCount = countRecords(filters, shape, queryParams);
+        return toCursorPage(records, pageSpec, sort, totalCount, dateExtractor);
+    }
+
+    /**
+     * Creates a keyset page from records retrieved using a seek query, which requested one record more than the page
+     * size.
+     */
+    private static <T extends HasUri> Page<T> toCursorPage(List<T> records, Pageable pageSpec, Sort sort,
+                                                           int totalCount, Function<T, Date> dateExtractor) {
+        if (pageSpec.isUnpaged()) {
+            return new CursorPage<>(records, pageSpec, totalCount, null);
+        }
+        final boolean hasNext = records.size() > pageSpec.getPageSize();
+        final List<T> content = hasNext ? records.subList(0, pageSpec.getPageSize()) : records;
+        RecordCursor nextCursor = null;
+        if (hasNext) {
+            final T last = content.get(content.size() - 1);
+            nextCursor = RecordCursor.of(dateExtractor.apply(last).toInstant(), last.getUri());
+        }
+        return new CursorPage<>(content, PageRequest.of(0, pageSpec.getPageSize(), sort), totalCount, nextCursor);
+    }
+
+    private int countRecords(RecordFilterParams filters, int shape, Map<String, Object> queryParams) {
+        return countCache.getOrCompute(RECORDS_COUNT, filters, () -> {
+            final String queryString = queryTemplates.assemble(
+                    "recordsCount:" + shape, () -> "SELECT (COUNT(?r) as ?cnt) WHERE " + constructWhereClause(shape));
+            final TypedQuery<Integer> countQuery = em.createNativeQuery(queryString, Integer.class);
+            setQueryParameters(countQuery, queryParams);
+            return countQuery.getSingleResult();
+        });
+    }
+
     public Set<RecordPhase> findUsedRecordPhases(){
         return em.createNativeQuery("SELECT ?phase WHERE { ?record ?hasPhase ?phase } ", String.class)
                 .setParameter("hasPhase", URI.create(Vocabulary.s_p_has_phase))
@@ -256,19 +792,31 @@ public class RecordDao extends OwlKeySupportingDao<Record> {
 
     }
 
+    /**
+     * Retrieves export data of records matching the specified filtering criteria.
+     * <p>
+     * If the filters contain a cursor, keyset pagination is used, so that all the matching records can be retrieved
+     * chunk by chunk without the repository having to skip over the preceding ones.
+     *
+     * @param filters  Record filtering criteria
+     * @param pageSpec Specification of page and sorting
+     * @return Page with matching records
+     */
     public Page<RawRecord> findAllRecordsRaw(RecordFilterParams filters, Pageable pageSpec){
-        final Map<String, Object> queryParams = new HashMap<>();
-        final String whereClause = constructWhereClauseWithGraphs(filters, queryParams);
-
-        final String queryStringNoPaging = Utils.loadQuery(FIND_ALL_RAW_RECORDS)
-                .replaceFirst(RECORDS_CLAUSE_TEMPLATE_VAR, whereClause);
-        final String queryString = queryStringNoPaging + (pageSpec.isPaged()
-                ? resolveOrderBy(pageSpec.getSortOr(RecordSort.defaultSort()))
-                : ""
-        );
+        if (filters.getCursor().isPresent()) {
+            return findAllRecordsRawAfterCursor(filters, pageSpec);
+        }
+        final int shape = filterShape(filters);
+        final Map<String, Object> queryParams = bindGraphParams(bindFilterParams(filters, new HashMap<>()));
+        final String orderBy = pageSpec.isPaged() ?
+                               resolveOrderBy(RecordSort.normalize(pageSpec.getSortOr(RecordSort.defaultSort()))) : "";
+        final String queryString = queryTemplates.assemble(
+                "rawRecords:" + shape + ":" + orderBy,
+                () -> queryTemplates.get(FIND_ALL_RAW_RECORDS)
+                                    .fill(RECORDS_CLAUSE_TEMPLATE_VAR, constructWhereClauseWithGraphs(shape)) +
+                        orderBy);
 
         Query query = em.createNativeQuery(queryString,  RawRecord.class.getSimpleName());
-        queryParams.forEach(query::setParameter);
 
         if (pageSpec.isPaged()) {
             query.setFirstResult((int) pageSpec.getOffset());
@@ -276,19 +824,51 @@ public class RecordDao extends OwlKeySupportingDao<Record> {
         }
         setQueryParameters(query, queryParams);
         List<RawRecord> result = query.getResultList();
-        Integer totalCount = result.size();
+        int totalCount = result.size();
         if(pageSpec.isPaged()){
-            TypedQuery<Integer> countQuery = em.createNativeQuery(
-                    "SELECT (COUNT(?r) as ?cnt) WHERE {%s}".formatted(whereClause),
-                    Integer.class);
-
-            setQueryParameters(countQuery, queryParams);
-            totalCount = countQuery.getSingleResult();
+            totalCount = countRawRecords(filters, shape, queryParams);
         }
 
         return new PageImpl<>(result, pageSpec, totalCount);
     }
 
+    private Page<RawRecord> findAllRecordsRawAfterCursor(RecordFilterParams filters, Pageable pageSpec) {
+        assert filters.getCursor().isPresent();
+        final Sort sort = pageSpec.getSortOr(RecordSort.defaultSort());
+        final boolean ascending = isAscendingByDate(sort);
+        final int shape = filterShape(filters);
+        final int seekShape = shape | seekShape(filters.getCursor().get(), ascending);
+        final Map<String, Object> queryParams = bindGraphParams(bindFilterParams(filters, new HashMap<>()));
+        final Map<String, Object> seekParams = bindCursorParams(filters.getCursor().get(), new HashMap<>(queryParams));
+        final String queryString = queryTemplates.assemble(
+                "rawRecordsAfterCursor:" + seekShape,
+                () -> queryTemplates.get(FIND_ALL_RAW_RECORDS)
+                                    .fill(RECORDS_CLAUSE_TEMPLATE_VAR, constructWhereClauseWithGraphs(seekShape)) +
+                        resolveKeysetOrderBy(ascending));
+
+        final Query query = em.createNativeQuery(queryString, RawRecord.class.getSimpleName());
+        setQueryParameters(query, seekParams);
+        if (pageSpec.isPaged()) {
+            query.setMaxResults(pageSpec.getPageSize() + 1);
+        }
+        final List<RawRecord> records = query.getResultList();
+        final int totalCount = countRawRecords(filters, shape, queryParams);
+        return toCursorPage(records, pageSpec, sort, totalCount,
+                            r -> r.getLastModified() != null ? r.getLastModified() : r.getCreated());
+    }
+
+    private int countRawRecords(RecordFilterParams filters, int shape, Map<String, Object> queryParams) {
+        return countCache.getOrCompute(RAW_RECORDS_COUNT, filters, () -> {
+            final String queryString = queryTemplates.assemble(
+                    "rawRecordsCount:" + shape,
+                    () -> "SELECT (COUNT(?r) as ?cnt) WHERE {%s}".formatted(constructWhereClauseWithGraphs(shape)));
+            TypedQuery<Integer> countQuery = em.createNativeQuery(queryString, Integer.class);
+
+            setQueryParameters(countQuery, queryParams);
+            return countQuery.getSingleResult();
+        });
+    }
+
     private void setQueryParameters(Query query, Map<String, Object> queryParams) {
         query
                 .setParameter("type", typeUri)
@@ -303,9 +883,44 @@ public class RecordDao extends OwlKeySupportingDao<Record> {
         queryParams.forEach(query::setParameter);
     }
 
-    private static String constructWhereClause(RecordFilterParams filters, Map<String, Object> queryParams) {
+    /**
+     * Determines shape of the query for the specified filtering criteria, i.e., which of the criteria are present.
+     * <p>
+     * Queries with the same shape differ only in parameter values and thus can be cached.
+     */
+    private static int filterShape(RecordFilterParams filters) {
+        int shape = 0;
+        if (filters.getAuthor().isPresent()) {
+            shape |= AUTHOR_FILTER;
+        }
+        if (!filters.getInstitutionKeys().isEmpty()) {
+            shape |= INSTITUTION_FILTER;
+        }
+        if (filters.getMinModifiedDate().isPresent()) {
+            shape |= MIN_DATE_FILTER;
+        }
+        if (filters.getMaxModifiedDate().isPresent()) {
+            shape |= MAX_DATE_FILTER;
+        }
+        if (!filters.getPhaseIds().isEmpty()) {
+            shape |= PHASE_FILTER;
+        }
+        if (!filters.getFormTemplateIds().isEmpty()) {
+            shape |= FORM_TEMPLATE_FILTER;
+        }
+        return shape;
+    }
+
+    private static int seekShape(RecordCursor cursor, boolean ascending) {
+        if (cursor.isInitial()) {
+            return 0;
+        }
+        return ascending ? SEEK_ASCENDING : SEEK_DESCENDING;
+    }
+
+    private static String constructWhereClause(int shape) {
         // Could not use Criteria API because it does not support OPTIONAL
-        String whereClause = "{" +
+        return "{" +
                 "?r a ?type ; " +
                 "?hasAuthor ?author ; " +
                 "?hasCreatedDate ?created ; " +
@@ -315,70 +930,116 @@ public class RecordDao extends OwlKeySupportingDao<Record> {
                 "OPTIONAL { ?r ?hasPhase ?phase . } " +
                 "OPTIONAL { ?r ?hasFormTemplate ?formTemplate . } " +
                 "OPTIONAL { ?r ?hasLastModified ?lastModified . } " +
-                "BIND (COALESCE(?lastModified, ?created) AS ?date) ";
-        whereClause += mapParamsToQuery(filters, queryParams);
-        whereClause += "}";
-        return whereClause;
+                "BIND (COALESCE(?lastModified, ?created) AS ?date) " +
+                filterClause(shape) +
+                "}";
     }
 
-    private static String constructWhereClauseWithGraphs(RecordFilterParams filters, Map<String, Object> queryParams) {
+    private static String constructWhereClauseWithGraphs(int shape) {
         // Could not use Criteria API because it does not support OPTIONAL
-        String whereClause = "{GRAPH ?r{" +
+        return "{GRAPH ?r{" +
                 "?r a ?type ; " +
                 "?hasCreatedDate ?created ; " +
                 "?hasInstitution ?institution . " +
                 "OPTIONAL { ?r ?hasPhase ?phase . } " +
                 "OPTIONAL { ?r ?hasFormTemplate ?formTemplate . } " +
                 "OPTIONAL { ?r ?hasLastModified ?lastModified . } " +
-                "BIND (COALESCE(?lastModified, ?created) AS ?date) ";
-        whereClause += mapParamsToQuery(filters, queryParams);
-        whereClause += "}" +
+                "BIND (COALESCE(?lastModified, ?created) AS ?date) " +
+                filterClause(shape) +
+                seekClause(shape) +
+                "}" +
                 "GRAPH ?institutionGraph{" +
                 "?institution ?hasKey ?institutionKey ." +
                 "}}";
-
-        queryParams.put("institutionGraph", URI.create(Vocabulary.s_c_institution + "s"));
-
-        return whereClause;
     }
 
-    private static String mapParamsToQuery(RecordFilterParams filterParams, Map<String, Object> queryParams) {
+    private static String filterClause(int shape) {
         final List<String> filters = new ArrayList<>();
-        filterParams.getAuthor().ifPresent(author -> queryParams.put("username",  new LangString(author, Constants.PU_LANGUAGE)));
-        if(!filterParams.getInstitutionKeys().isEmpty()) {
+        if ((shape & INSTITUTION_FILTER) != 0) {
             filters.add("FILTER (?institutionKey in (?institutionKeys))");
-            queryParams.put("institutionKeys", filterParams.getInstitutionKeys().stream().map(key -> new LangString(key, Constants.PU_LANGUAGE)).collect(Collectors.toList()));
         }
-        filterParams.getMinModifiedDate().ifPresent(date -> {
+        if ((shape & MIN_DATE_FILTER) != 0) {
             filters.add("FILTER (?date >= ?minDate)");
-            queryParams.put("minDate", date.atStartOfDay(ZoneOffset.UTC).toInstant());
-        });
-        filterParams.getMaxModifiedDate().ifPresent(date -> {
+        }
+        if ((shape & MAX_DATE_FILTER) != 0) {
             filters.add("FILTER (?date < ?maxDate)");
-            queryParams.put("maxDate", date.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant());
-        });
-        if (!filterParams.getPhaseIds().isEmpty()) {
+        }
+        if ((shape & PHASE_FILTER) != 0) {
             filters.add("FILTER (?phase in (?phases))");
+        }
+        if ((shape & FORM_TEMPLATE_FILTER) != 0) {
+            filters.add("FILTER (?formTemplate in (?formTemplates))");
+        }
+        return String.join(" ", filters);
+    }
+
+    private static Map<String, Object> bindFilterParams(RecordFilterParams filterParams,
+                                                        Map<String, Object> queryParams) {
+        filterParams.getAuthor().ifPresent(author -> queryParams.put("username",  new LangString(author, Constants.PU_LANGUAGE)));
+        if(!filterParams.getInstitutionKeys().isEmpty()) {
+            queryParams.put("institutionKeys", filterParams.getInstitutionKeys().stream().map(key -> new LangString(key, Constants.PU_LANGUAGE)).collect(Collectors.toList()));
+        }
+        filterParams.getMinModifiedDate().ifPresent(
+                date -> queryParams.put("minDate", date.atStartOfDay(ZoneOffset.UTC).toInstant()));
+        filterParams.getMaxModifiedDate().ifPresent(
+                date -> queryParams.put("maxDate", date.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant()));
+        if (!filterParams.getPhaseIds().isEmpty()) {
             queryParams.put("phases",
                             filterParams.getPhaseIds().stream().map(URI::create).collect(Collectors.toList()));
         }
         if (!filterParams.getFormTemplateIds().isEmpty()) {
-            filters.add("FILTER (?formTemplate in (?formTemplates))");
             queryParams.put("formTemplates",
                 filterParams.getFormTemplateIds().stream().map(id -> new LangString(id, Constants.PU_LANGUAGE)).collect(Collectors.toList()));
         }
-        return String.join(" ", filters);
+        return queryParams;
+    }
+
+    private static Map<String, Object> bindGraphParams(Map<String, Object> queryParams) {
+        queryParams.put("institutionGraph", URI.create(Vocabulary.s_c_institution + "s"));
+        return queryParams;
     }
 
+    /**
+     * Builds a seek predicate selecting records following the cursor in the sort order.
+     * <p>
+     * Record identifier is used as a tiebreaker for records with the same date.
+     */
+    private static String seekClause(int shape) {
+        if ((shape & (SEEK_ASCENDING | SEEK_DESCENDING)) == 0) {
+            return "";
+        }
+        final String op = (shape & SEEK_ASCENDING) != 0 ? ">" : "<";
+        return " FILTER (?date " + op + " ?cursorDate || (?date = ?cursorDate && STR(?r) " + op + " STR(?cursorRecord)))";
+    }
+
+    private static Map<String, Object> bindCursorParams(RecordCursor cursor, Map<String, Object> queryParams) {
+        if (!cursor.isInitial()) {
+            queryParams.put("cursorDate", cursor.getDate().get());
+            queryParams.put("cursorRecord", cursor.getRecordUri().get());
+        }
+        return queryParams;
+    }
+
+    private static boolean isAscendingByDate(Sort sort) {
+        RecordSort.requireSupported(sort);
+        final Sort.Order dateOrder = sort.getOrderFor(RecordSort.SORT_DATE_PROPERTY);
+        return dateOrder != null && dateOrder.isAscending();
+    }
+
+    private static String resolveKeysetOrderBy(boolean ascending) {
+        final String direction = ascending ? "ASC" : "DESC";
+        return " ORDER BY " + direction + "(?date) " + direction + "(STR(?r))";
+    }
+
+    /**
+     * Resolves ORDER BY clause of the specified {@link RecordSort#normalize(Sort) normalized} sort.
+     */
     private static String resolveOrderBy(Sort sort) {
         if (sort.isUnsorted()) {
             return "";
         }
         final StringBuilder sb = new StringBuilder(" ORDER BY");
         for (Sort.Order o : sort) {
-            if (!RecordSort.SORTING_PROPERTIES.contains(o.getProperty())) {
-                throw new IllegalArgumentException("Unsupported record sorting property '" + o.getProperty() + "'.");
-            }
             sb.append(' ');
             sb.append(o.isAscending() ? "ASC(" : "DESC(");
             sb.append('?').append(o.getProperty()).append(')');
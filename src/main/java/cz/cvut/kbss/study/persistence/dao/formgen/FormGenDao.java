@@ -45,9 +45,8 @@ public class FormGenDao {
                 Objects.requireNonNull(r);
                 initRequiredFieldsIfNecessary(r);
                 persistRelatedFieldsIfNecessary(r, em, descriptor);
+                r.setQuestion(new QuestionSaver(descriptor).persistInBatch(r.getQuestion(), em));
                 em.persist(r, descriptor);
-                final QuestionSaver questionSaver = new QuestionSaver(descriptor);
-                questionSaver.persistIfNecessary(r.getQuestion(), em);
             }
 
             em.getTransaction().commit();
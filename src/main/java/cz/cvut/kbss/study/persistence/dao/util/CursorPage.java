@@ -0,0 +1,50 @@
+package cz.cvut.kbss.study.persistence.dao.util;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Page of records retrieved using keyset pagination.
+ * <p>
+ * Instead of a page number, the following page is identified by a {@link RecordCursor} pointing to the last record of
+ * this page. Keyset pages can only be traversed forward.
+ *
+ * @param <T> Type of the page content
+ */
+public class CursorPage<T> extends PageImpl<T> {
+
+    private final RecordCursor nextCursor;
+
+    /**
+     * @param content    Page content
+     * @param pageable   Paging specification
+     * @param total      Total number of matching records (regardless of the cursor)
+     * @param nextCursor Cursor pointing to the last record of this page, {@code null} if there are no more records
+     */
+    public CursorPage(List<T> content, Pageable pageable, long total, RecordCursor nextCursor) {
+        super(content, pageable, total);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Gets cursor which can be used to retrieve the next page.
+     *
+     * @return Next page cursor, empty if this is the last page
+     */
+    public Optional<RecordCursor> getNextCursor() {
+        return Optional.ofNullable(nextCursor);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return false;
+    }
+}
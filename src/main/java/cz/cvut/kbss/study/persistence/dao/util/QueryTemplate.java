@@ -0,0 +1,112 @@
+package cz.cvut.kbss.study.persistence.dao.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SPARQL query text split into static segments and named placeholders (e.g., {@code ###RECORD_CLAUSE###}).
+ * <p>
+ * The template is parsed once, filling it in only concatenates the segments with the placeholder values.
+ */
+public final class QueryTemplate {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("###[A-Z_]+###");
+
+    private final String name;
+
+    private final String text;
+
+    /**
+     * Static segments, there is always one more segment than there are placeholders.
+     */
+    private final String[] segments;
+
+    private final String[] placeholders;
+
+    private QueryTemplate(String name, String text, String[] segments, String[] placeholders) {
+        this.name = name;
+        this.text = text;
+        this.segments = segments;
+        this.placeholders = placeholders;
+    }
+
+    /**
+     * Parses the specified query text.
+     *
+     * @param name Template name, used in error messages
+     * @param text Query text, possibly containing placeholders
+     * @return Parsed template
+     */
+    public static QueryTemplate parse(String name, String text) {
+        Objects.requireNonNull(text);
+        final List<String> segments = new ArrayList<>();
+        final List<String> placeholders = new ArrayList<>();
+        final Matcher matcher = PLACEHOLDER.matcher(text);
+        int start = 0;
+        while (matcher.find()) {
+            segments.add(text.substring(start, matcher.start()));
+            placeholders.add(matcher.group());
+            start = matcher.end();
+        }
+        segments.add(text.substring(start));
+        return new QueryTemplate(name, text, segments.toArray(String[]::new), placeholders.toArray(String[]::new));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the query text, including any unfilled placeholders.
+     *
+     * @return Template text
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Fills the specified placeholder with the specified value.
+     *
+     * @param placeholder Placeholder, including the surrounding {@code ###}
+     * @param value       Value to fill in
+     * @return Query text
+     * @throws IllegalArgumentException If the template contains other placeholders
+     */
+    public String fill(String placeholder, String value) {
+        return fill(Map.of(placeholder, value));
+    }
+
+    /**
+     * Fills placeholders with the specified values.
+     *
+     * @param values Map of placeholders (including the surrounding {@code ###}) to values
+     * @return Query text
+     * @throws IllegalArgumentException If a value for a placeholder contained in the template is missing
+     */
+    public String fill(Map<String, String> values) {
+        int length = text.length();
+        for (String placeholder : placeholders) {
+            final String value = values.get(placeholder);
+            if (value == null) {
+                throw new IllegalArgumentException(
+                        "Missing value of placeholder " + placeholder + " in query template " + name + ".");
+            }
+            length += value.length();
+        }
+        final StringBuilder sb = new StringBuilder(length).append(segments[0]);
+        for (int i = 0; i < placeholders.length; i++) {
+            sb.append(values.get(placeholders[i])).append(segments[i + 1]);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "QueryTemplate{" + name + '}';
+    }
+}
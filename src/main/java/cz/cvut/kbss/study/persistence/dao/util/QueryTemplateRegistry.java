@@ -0,0 +1,89 @@
+package cz.cvut.kbss.study.persistence.dao.util;
+
+import cz.cvut.kbss.study.exception.RecordManagerException;
+import cz.cvut.kbss.study.util.Constants;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Provides SPARQL query templates and caches queries assembled from them.
+ * <p>
+ * All the queries in the {@link Constants#QUERY_DIRECTORY} classpath directory are loaded and parsed once, when the
+ * registry is created. Queries assembled for a particular combination of filtering criteria (a query shape) are cached
+ * under a key identifying the shape, so that only parameter values have to be bound to them per call.
+ */
+@Component
+public class QueryTemplateRegistry {
+
+    private final Map<String, QueryTemplate> templates;
+
+    private final Map<String, String> assembled = new ConcurrentHashMap<>();
+
+    public QueryTemplateRegistry() {
+        this.templates = loadTemplates();
+    }
+
+    private static Map<String, QueryTemplate> loadTemplates() {
+        final Map<String, QueryTemplate> result = new HashMap<>();
+        try {
+            final Resource[] resources = new PathMatchingResourcePatternResolver(
+                    QueryTemplateRegistry.class.getClassLoader())
+                    .getResources("classpath*:" + Constants.QUERY_DIRECTORY + "/*");
+            for (Resource resource : resources) {
+                final String name = resource.getFilename();
+                if (name == null || !resource.isReadable()) {
+                    continue;
+                }
+                try (final BufferedReader in = new BufferedReader(
+                        new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+                    result.put(name, QueryTemplate.parse(name, in.lines().collect(Collectors.joining("\n"))));
+                }
+            }
+        } catch (IOException e) {
+            throw new RecordManagerException("Initialization exception. Unable to load queries!", e);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Gets template of the query with the specified file name.
+     *
+     * @param name Query file name
+     * @return Query template
+     * @throws RecordManagerException If there is no such query
+     */
+    public QueryTemplate get(String name) {
+        final QueryTemplate template = templates.get(name);
+        if (template == null) {
+            throw new RecordManagerException(
+                    "Query file " + name + " not found in " + Constants.QUERY_DIRECTORY + ".");
+        }
+        return template;
+    }
+
+    /**
+     * Gets a cached query, assembling it if it has not been cached yet.
+     * <p>
+     * The key has to identify the query shape completely, i.e., queries assembled for the same key must be identical.
+     *
+     * @param key       Query shape key
+     * @param assembler Assembles the query
+     * @return Assembled query
+     */
+    public String assemble(String key, Supplier<String> assembler) {
+        final String query = assembled.get(key);
+        return query != null ? query : assembled.computeIfAbsent(key, k -> assembler.get());
+    }
+}
@@ -2,20 +2,39 @@ package cz.cvut.kbss.study.persistence.dao.util;
 
 import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.jopa.model.descriptors.Descriptor;
+import cz.cvut.kbss.study.model.Vocabulary;
+import cz.cvut.kbss.study.model.qam.Answer;
 import cz.cvut.kbss.study.model.qam.Question;
+import cz.cvut.kbss.study.util.Constants;
+import cz.cvut.kbss.study.util.IdentificationUtils;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.rio.ntriples.NTriplesUtil;
 
 import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
- * Recursively persists questions, handling references to the same question instance (they have the same URI).
+ * Persists question trees, handling references to the same question instance (they have the same URI).
  * <p>
  * The questions can be persisted into the default context, or into a named context specified by a {@link Descriptor}.
+ * <p>
+ * The tree is traversed iteratively, so that very deep trees do not overflow the stack. Besides persisting each
+ * question by the entity manager ({@link #persistIfNecessary(Question, EntityManager)}), the whole tree can be written
+ * by a few bulk inserts ({@link #persistInBatch(Question, EntityManager)}).
  */
 public class QuestionSaver {
 
+    /**
+     * Maximum number of statements inserted by a single update in batch mode.
+     */
+    static final int BATCH_SIZE = 5000;
+
     private final Descriptor descriptor;
     private final Set<URI> visited = new HashSet<>();
 
@@ -23,24 +42,153 @@ public class QuestionSaver {
         this.descriptor = Objects.requireNonNull(descriptor);
     }
 
+    /**
+     * Persists the specified question tree by the entity manager, question by question.
+     *
+     * @param root Root of the question tree, possibly {@code null}
+     * @param em   Entity manager
+     */
     public void persistIfNecessary(Question root, EntityManager em) {
+        traverse(root, q -> em.persist(q, descriptor));
+    }
+
+    /**
+     * Persists the specified question tree by bulk inserts of all its question and answer statements.
+     * <p>
+     * The statements are inserted directly into the repository (within the current transaction), bypassing the
+     * persistence context. Questions and answers without identifier get one generated. This makes saving of large
+     * question trees much cheaper than persisting each question separately, but the tree has to be new and the
+     * descriptor has to specify a single context.
+     * <p>
+     * Since the inserted questions are not known to the persistence context, an entity referencing the root question
+     * (e.g., a record) has to be persisted after the tree is saved and it has to reference the returned instance
+     * instead of the original root.
+     *
+     * @param root Root of the question tree, possibly {@code null}
+     * @param em   Entity manager
+     * @return Managed reference to the saved root question, {@code null} if the root is {@code null}
+     */
+    public Question persistInBatch(Question root, EntityManager em) {
         if (root == null) {
-            return;
+            return null;
         }
-        if (visited.contains(root.getUri())) {
+        final BatchInsert insert = new BatchInsert(em, descriptor.getSingleContext().orElse(null));
+        traverse(root, insert::add);
+        insert.flush();
+        return em.getReference(Question.class, root.getUri(), descriptor);
+    }
+
+    private void traverse(Question root, Consumer<Question> action) {
+        if (root == null) {
             return;
         }
-        em.persist(root, descriptor);
-        visited.add(root.getUri());
-        root.getSubQuestions().forEach(q -> this.persistSubQuestionIfNecessary(q, em));
+        final Deque<Question> toVisit = new ArrayDeque<>();
+        toVisit.push(root);
+        while (!toVisit.isEmpty()) {
+            final Question question = toVisit.pop();
+            // Questions without identifier are always distinct
+            if (question.getUri() != null && !visited.add(question.getUri())) {
+                continue;
+            }
+            action.accept(question);
+            visited.add(question.getUri());
+            question.getSubQuestions().forEach(toVisit::push);
+        }
     }
 
-    private void persistSubQuestionIfNecessary(Question question, EntityManager em) {
-        if (visited.contains(question.getUri())) {
-            return;
+    /**
+     * Accumulates statements of questions and their answers and inserts them by SPARQL {@code INSERT DATA} updates.
+     * <p>
+     * Origin path identifiers of questions are not accessible outside the entity and thus are not written.
+     */
+    private static class BatchInsert {
+
+        private static final ValueFactory VF = SimpleValueFactory.getInstance();
+
+        private final EntityManager em;
+        private final URI context;
+
+        private final StringBuilder data = new StringBuilder();
+        private int statementCount;
+
+        private BatchInsert(EntityManager em, URI context) {
+            this.em = em;
+            this.context = context;
+        }
+
+        private void add(Question question) {
+            if (question.getUri() == null) {
+                question.setUri(generateUri(Vocabulary.s_c_question));
+            }
+            final String subject = iri(question.getUri());
+            addStatement(subject, "a", iri(Vocabulary.s_c_question));
+            question.getTypes().forEach(t -> addStatement(subject, "a", iri(t)));
+            if (question.getOrigin() != null) {
+                addStatement(subject, iri(Vocabulary.s_p_has_question_origin), iri(question.getOrigin()));
+            }
+            for (Question subQuestion : question.getSubQuestions()) {
+                if (subQuestion.getUri() == null) {
+                    subQuestion.setUri(generateUri(Vocabulary.s_c_question));
+                }
+                addStatement(subject, iri(Vocabulary.s_p_has_related_question), iri(subQuestion.getUri()));
+            }
+            for (Answer answer : question.getAnswers()) {
+                add(answer);
+                addStatement(subject, iri(Vocabulary.s_p_has_answer), iri(answer.getUri()));
+            }
+        }
+
+        private void add(Answer answer) {
+            if (answer.getUri() == null) {
+                answer.setUri(generateUri(Vocabulary.s_c_answer));
+            }
+            final String subject = iri(answer.getUri());
+            addStatement(subject, "a", iri(Vocabulary.s_c_answer));
+            answer.getTypes().forEach(t -> addStatement(subject, "a", iri(t)));
+            if (answer.getTextValue() != null) {
+                addStatement(subject, iri(Vocabulary.s_p_has_data_value), literal(answer.getTextValue()));
+            }
+            if (answer.getCodeValue() != null) {
+                addStatement(subject, iri(Vocabulary.s_p_has_object_value), iri(answer.getCodeValue()));
+            }
+            if (answer.getOrigin() != null) {
+                addStatement(subject, iri(Vocabulary.s_p_has_answer_origin), iri(answer.getOrigin()));
+            }
+        }
+
+        private void addStatement(String subject, String predicate, String object) {
+            data.append(subject).append(' ').append(predicate).append(' ').append(object).append(" .\n");
+            if (++statementCount >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (statementCount == 0) {
+                return;
+            }
+            final String update = context != null ?
+                                  "INSERT DATA { GRAPH " + iri(context) + " {\n" + data + "} }" :
+                                  "INSERT DATA {\n" + data + "}";
+            em.createNativeQuery(update).executeUpdate();
+            data.setLength(0);
+            statementCount = 0;
+        }
+
+        private static URI generateUri(String classIri) {
+            return URI.create(classIri + "/instance" + IdentificationUtils.generateKey());
+        }
+
+        private static String iri(Object value) {
+            return NTriplesUtil.toNTriplesString(VF.createIRI(value.toString()));
+        }
+
+        /**
+         * Creates a string literal tagged with the persistence unit language, the same way the entity manager stores
+         * strings.
+         */
+        private static String literal(String value) {
+            return NTriplesUtil.toNTriplesString(VF.createLiteral(value, Constants.PU_LANGUAGE));
         }
-        em.persist(question, descriptor);
-        visited.add(question.getUri());
-        question.getSubQuestions().forEach(q -> persistSubQuestionIfNecessary(q, em));
     }
 }
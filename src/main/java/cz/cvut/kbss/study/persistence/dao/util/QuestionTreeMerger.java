@@ -0,0 +1,277 @@
+package cz.cvut.kbss.study.persistence.dao.util;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.descriptors.Descriptor;
+import cz.cvut.kbss.study.model.qam.Answer;
+import cz.cvut.kbss.study.model.qam.Question;
+import cz.cvut.kbss.study.model.util.HasUri;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Applies changes of a question tree to its managed (stored) counterpart.
+ * <p>
+ * Questions of both trees are matched by their identifiers anywhere in the tree, so that questions moved to another
+ * parent or shared by several parents are kept. Incoming questions without an identifier are matched by their origin
+ * among subquestions of the matching parent. Answers are matched within their question by identifier or origin. Only
+ * attributes which actually differ are written into the managed instances, new questions and answers are persisted and
+ * questions and answers missing in the incoming tree are removed. This way, the amount of data written into the
+ * repository corresponds to the size of the change, not to the size of the whole tree.
+ * <p>
+ * Questions and answers missing in the incoming tree are removed before new ones are persisted, so that an incoming
+ * instance may reuse the identifier of a removed one. Removal of a question does not cascade to its subquestions, each
+ * question no longer referenced from the tree is removed separately.
+ * <p>
+ * New questions and answers are persisted into the context specified by a {@link Descriptor}.
+ */
+public class QuestionTreeMerger {
+
+    private final Descriptor descriptor;
+
+    /**
+     * All questions of the managed tree.
+     */
+    private final Map<URI, Question> managedQuestions = new HashMap<>();
+
+    /**
+     * Identifiers of incoming questions, these are not available for matching by origin.
+     */
+    private final Set<URI> incomingUris = new HashSet<>();
+
+    /**
+     * Managed questions which are part of the resulting tree.
+     */
+    private final Set<URI> retained = new HashSet<>();
+
+    /**
+     * New questions with identifier, so that a new question referenced multiple times is persisted only once.
+     */
+    private final Map<URI, Question> newQuestionsByUri = new HashMap<>();
+
+    private final List<Question> newQuestions = new ArrayList<>();
+
+    private final List<Answer> removedAnswers = new ArrayList<>();
+
+    private final Map<Answer, Question> newAnswers = new IdentityHashMap<>();
+
+    private final Deque<Question[]> toMerge = new ArrayDeque<>();
+
+    public QuestionTreeMerger(Descriptor descriptor) {
+        this.descriptor = Objects.requireNonNull(descriptor);
+    }
+
+    /**
+     * Merges the incoming question tree into the managed one.
+     *
+     * @param managed  Root of the managed question tree, possibly {@code null}
+     * @param incoming Root of the incoming question tree, possibly {@code null}
+     * @param em       Entity manager
+     * @return Root of the resulting question tree, which should be set on the owner of the managed tree
+     */
+    public Question merge(Question managed, Question incoming, EntityManager em) {
+        index(managed, managedQuestions::putIfAbsent);
+        index(incoming, q -> incomingUris.add(q.getUri()));
+        Question result = null;
+        if (incoming != null) {
+            final Map<URI, Question> rootCandidates = managed != null ? byUri(Set.of(managed)) : new HashMap<>();
+            rootCandidates.keySet().removeAll(incomingUris);
+            result = resolve(incoming, rootCandidates);
+            // Explicit stack instead of recursion, forms may be very deep
+            while (!toMerge.isEmpty()) {
+                final Question[] pair = toMerge.pop();
+                mergeQuestion(pair[0], pair[1]);
+            }
+        }
+        removeUnused(em);
+        persistNew(em);
+        return result;
+    }
+
+    /**
+     * Applies the specified action to all questions with identifier in the specified tree.
+     */
+    private static void index(Question root, Consumer<Question> action) {
+        if (root == null) {
+            return;
+        }
+        final Set<Question> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<Question> toVisit = new ArrayDeque<>();
+        toVisit.push(root);
+        while (!toVisit.isEmpty()) {
+            final Question question = toVisit.pop();
+            if (!visited.add(question)) {
+                continue;
+            }
+            if (question.getUri() != null) {
+                action.accept(question);
+            }
+            question.getSubQuestions().forEach(toVisit::push);
+        }
+    }
+
+    /**
+     * Finds the instance representing the specified incoming question in the resulting tree and schedules merging of
+     * its content.
+     *
+     * @param incoming   Incoming question
+     * @param candidates Managed questions which the incoming question may match by origin
+     * @return Matching managed question or the incoming question if it is new
+     */
+    private Question resolve(Question incoming, Map<URI, Question> candidates) {
+        final Question match = incoming.getUri() != null ? managedQuestions.get(incoming.getUri()) :
+                               takeMatch(candidates, incoming, Question::getOrigin);
+        if (match != null) {
+            if (retained.add(match.getUri())) {
+                toMerge.push(new Question[]{match, incoming});
+            }
+            return match;
+        }
+        if (incoming.getUri() != null) {
+            final Question known = newQuestionsByUri.putIfAbsent(incoming.getUri(), incoming);
+            if (known != null) {
+                return known;
+            }
+        }
+        newQuestions.add(incoming);
+        toMerge.push(new Question[]{null, incoming});
+        return incoming;
+    }
+
+    /**
+     * Merges content of the incoming question into the managed one, or resolves subquestions of a new question if
+     * there is no managed one.
+     */
+    private void mergeQuestion(Question managed, Question incoming) {
+        if (managed == null) {
+            final Set<Question> subQuestions = new HashSet<>();
+            for (Question subQuestion : incoming.getSubQuestions()) {
+                subQuestions.add(resolve(subQuestion, Map.of()));
+            }
+            incoming.setSubQuestions(subQuestions);
+            return;
+        }
+        mergeAttributes(managed, incoming);
+        mergeAnswers(managed, incoming);
+        mergeSubQuestions(managed, incoming);
+    }
+
+    private static void mergeAttributes(Question managed, Question incoming) {
+        if (!Objects.equals(managed.getOrigin(), incoming.getOrigin())) {
+            managed.setOrigin(incoming.getOrigin());
+        }
+        if (!Objects.equals(managed.getTypes(), incoming.getTypes())) {
+            managed.setTypes(incoming.getTypes());
+        }
+    }
+
+    private void mergeAnswers(Question managed, Question incoming) {
+        final Map<URI, Answer> unmatched = byUri(managed.getAnswers());
+        for (Answer answer : incoming.getAnswers()) {
+            final Answer match = takeMatch(unmatched, answer, Answer::getOrigin);
+            if (match != null) {
+                mergeAttributes(match, answer);
+            } else {
+                newAnswers.put(answer, managed);
+            }
+        }
+        if (!unmatched.isEmpty()) {
+            managed.getAnswers().removeAll(unmatched.values());
+            removedAnswers.addAll(unmatched.values());
+        }
+    }
+
+    private static void mergeAttributes(Answer managed, Answer incoming) {
+        if (!Objects.equals(managed.getTextValue(), incoming.getTextValue())) {
+            managed.setTextValue(incoming.getTextValue());
+        }
+        if (!Objects.equals(managed.getCodeValue(), incoming.getCodeValue())) {
+            managed.setCodeValue(incoming.getCodeValue());
+        }
+        if (!Objects.equals(managed.getOrigin(), incoming.getOrigin())) {
+            managed.setOrigin(incoming.getOrigin());
+        }
+        if (!Objects.equals(managed.getTypes(), incoming.getTypes())) {
+            managed.setTypes(incoming.getTypes());
+        }
+    }
+
+    private void mergeSubQuestions(Question managed, Question incoming) {
+        final Map<URI, Question> candidates = byUri(managed.getSubQuestions());
+        candidates.keySet().removeAll(incomingUris);
+        final Set<Question> resolved = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Question subQuestion : incoming.getSubQuestions()) {
+            resolved.add(resolve(subQuestion, candidates));
+        }
+        final List<Question> missing = managed.getSubQuestions().stream().filter(q -> !resolved.contains(q)).toList();
+        final Set<Question> current = Collections.newSetFromMap(new IdentityHashMap<>());
+        current.addAll(managed.getSubQuestions());
+        final List<Question> added = resolved.stream().filter(q -> !current.contains(q)).toList();
+        if (missing.isEmpty() && added.isEmpty()) {
+            return;
+        }
+        managed.getSubQuestions().removeAll(missing);
+        managed.getSubQuestions().addAll(added);
+    }
+
+    /**
+     * Removes managed questions and answers which are not part of the resulting tree.
+     */
+    private void removeUnused(EntityManager em) {
+        removedAnswers.forEach(em::remove);
+        final List<Question> removed = managedQuestions.values().stream()
+                                                       .filter(q -> !retained.contains(q.getUri()))
+                                                       .toList();
+        // Subquestions are detached first, so that removal does not cascade to subquestions which are retained
+        removed.forEach(q -> q.setSubQuestions(new HashSet<>()));
+        // Answers of removed questions are removed by cascade
+        removed.forEach(em::remove);
+    }
+
+    private void persistNew(EntityManager em) {
+        // Answers of new questions are persisted by cascade
+        newQuestions.forEach(q -> em.persist(q, descriptor));
+        newAnswers.forEach((answer, question) -> {
+            em.persist(answer, descriptor);
+            question.getAnswers().add(answer);
+        });
+    }
+
+    private static <T extends HasUri> Map<URI, T> byUri(Set<T> instances) {
+        final Map<URI, T> result = new LinkedHashMap<>(instances.size());
+        instances.forEach(i -> result.put(i.getUri(), i));
+        return result;
+    }
+
+    /**
+     * Finds and removes from the candidates an instance matching the specified incoming one.
+     */
+    private static <T extends HasUri> T takeMatch(Map<URI, T> candidates, T incoming, Function<T, URI> origin) {
+        if (incoming.getUri() != null) {
+            return candidates.remove(incoming.getUri());
+        }
+        final Iterator<T> it = candidates.values().iterator();
+        while (it.hasNext()) {
+            final T candidate = it.next();
+            if (origin.apply(incoming) != null && origin.apply(incoming).equals(origin.apply(candidate))) {
+                it.remove();
+                return candidate;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,106 @@
+package cz.cvut.kbss.study.persistence.dao.util;
+
+import cz.cvut.kbss.study.util.Configuration;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntSupplier;
+
+/**
+ * Caches numbers of records matching filtering criteria.
+ * <p>
+ * Counts are keyed by the kind of the count query and the filtering criteria without keyset pagination cursor, so all
+ * pages of the same listing share one entry. Any change of records invalidates the whole cache, which keeps the counts
+ * exact. A count computed concurrently with an invalidation is not stored, so that a stale value cannot outlive the
+ * change. Changes which cannot be tracked this way (e.g., changes made by another application instance) are picked up
+ * by computing counts older than the maximum age again.
+ * <p>
+ * The cache holds a bounded number of entries, the least recently used ones are discarded first.
+ */
+public class RecordCountCache {
+
+    static final int MAX_SIZE = 256;
+
+    private final Map<Key, Entry> counts = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > MAX_SIZE;
+        }
+    };
+
+    private final Duration maxAge;
+
+    private final Clock clock;
+
+    private long generation;
+
+    public RecordCountCache() {
+        this(Configuration.Records.DEFAULT_CACHE_MAX_AGE);
+    }
+
+    /**
+     * @param maxAge Maximum age of cached counts
+     */
+    public RecordCountCache(Duration maxAge) {
+        this(maxAge, Clock.systemUTC());
+    }
+
+    RecordCountCache(Duration maxAge, Clock clock) {
+        this.maxAge = Objects.requireNonNull(maxAge);
+        this.clock = Objects.requireNonNull(clock);
+    }
+
+    /**
+     * Returns the cached count for the specified query kind and filters, computing (and caching) it if necessary.
+     *
+     * @param kind    Identifies the count query, different queries may count different sets of records
+     * @param filters Record filtering criteria
+     * @param counter Computes the count when it is not cached or the cached one is too old
+     * @return Number of matching records
+     */
+    public int getOrCompute(String kind, RecordFilterParams filters, IntSupplier counter) {
+        final Key key = new Key(kind, filters.withCursor(null));
+        final long currentGeneration;
+        final Instant start;
+        synchronized (this) {
+            start = clock.instant();
+            final Entry cached = counts.get(key);
+            if (cached != null && cached.computedAt.plus(maxAge).isAfter(start)) {
+                return cached.count;
+            }
+            currentGeneration = generation;
+        }
+        final int count = counter.getAsInt();
+        synchronized (this) {
+            if (currentGeneration == generation) {
+                counts.put(key, new Entry(count, start));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Discards all cached counts.
+     */
+    public synchronized void invalidate() {
+        counts.clear();
+        generation++;
+    }
+
+    private record Key(String kind, RecordFilterParams filters) {
+        private Key {
+            Objects.requireNonNull(kind);
+            Objects.requireNonNull(filters);
+        }
+    }
+
+    /**
+     * Cached count together with the time when its computation started.
+     */
+    private record Entry(int count, Instant computedAt) {
+    }
+}
@@ -0,0 +1,140 @@
+package cz.cvut.kbss.study.persistence.dao.util;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Position in a list of records sorted by date, used for keyset (seek) pagination.
+ * <p>
+ * A cursor points to the last record of a page, identified by its date (last modification or creation) and identifier.
+ * The next page then consists of records following this position in the sort order, which can be found without the
+ * repository having to skip over all the preceding records.
+ * <p>
+ * An initial cursor does not point to any record and represents the beginning of the list.
+ */
+public final class RecordCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private static final RecordCursor INITIAL = new RecordCursor(null, null);
+
+    private final Instant date;
+
+    private final URI recordUri;
+
+    private RecordCursor(Instant date, URI recordUri) {
+        this.date = date;
+        this.recordUri = recordUri;
+    }
+
+    /**
+     * Creates a cursor pointing to a record with the specified date and identifier.
+     *
+     * @param date      Record date (last modification or creation)
+     * @param recordUri Record identifier
+     * @return New cursor
+     */
+    public static RecordCursor of(Instant date, URI recordUri) {
+        return new RecordCursor(Objects.requireNonNull(date), Objects.requireNonNull(recordUri));
+    }
+
+    /**
+     * Returns a cursor pointing before the first record.
+     *
+     * @return Initial cursor
+     */
+    public static RecordCursor initial() {
+        return INITIAL;
+    }
+
+    public boolean isInitial() {
+        return date == null;
+    }
+
+    public Optional<Instant> getDate() {
+        return Optional.ofNullable(date);
+    }
+
+    public Optional<URI> getRecordUri() {
+        return Optional.ofNullable(recordUri);
+    }
+
+    /**
+     * Encodes this cursor into an opaque token suitable for use in a URL.
+     *
+     * @return Cursor token, empty string for the initial cursor
+     * @see #decode(String)
+     */
+    public String encode() {
+        if (isInitial()) {
+            return "";
+        }
+        final String value = Long.toString(date.toEpochMilli()) + SEPARATOR + recordUri;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor from the specified token.
+     * <p>
+     * An empty token represents the initial cursor.
+     *
+     * @param token Token created by {@link #encode()}
+     * @return Decoded cursor
+     * @throws IllegalArgumentException If the token is not a valid cursor
+     */
+    public static RecordCursor decode(String token) {
+        Objects.requireNonNull(token);
+        if (token.isBlank()) {
+            return INITIAL;
+        }
+        final String value;
+        try {
+            value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw invalidCursor(token, e);
+        }
+        final int separatorIndex = value.indexOf(SEPARATOR);
+        if (separatorIndex < 0) {
+            throw invalidCursor(token, null);
+        }
+        try {
+            return of(Instant.ofEpochMilli(Long.parseLong(value.substring(0, separatorIndex))),
+                      URI.create(value.substring(separatorIndex + 1)));
+        } catch (IllegalArgumentException e) {
+            // Covers also NumberFormatException
+            throw invalidCursor(token, e);
+        }
+    }
+
+    private static IllegalArgumentException invalidCursor(String token, Throwable cause) {
+        return new IllegalArgumentException("Invalid record cursor '" + token + "'.", cause);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RecordCursor that)) {
+            return false;
+        }
+        return Objects.equals(date, that.date) && Objects.equals(recordUri, that.recordUri);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(date, recordUri);
+    }
+
+    @Override
+    public String toString() {
+        return "RecordCursor{" +
+                "date=" + date +
+                ", recordUri=" + recordUri +
+                '}';
+    }
+}
@@ -0,0 +1,23 @@
+package cz.cvut.kbss.study.persistence.dao.util;
+
+/**
+ * Specifies how much of a record graph is loaded when records are retrieved.
+ * <p>
+ * Question and answer trees of records may be large, so callers which do not need them should not pay for loading them.
+ */
+public enum RecordFetchPlan {
+    /**
+     * Only attributes of the record itself are loaded (identifier, key, local name, dates, phase, form template and
+     * reject reason). References to other entities and the question tree are not loaded.
+     */
+    HEADER,
+    /**
+     * Attributes of the record together with its author, institution and last editor. The question tree is not
+     * loaded.
+     */
+    SHALLOW,
+    /**
+     * The whole record including its question and answer tree.
+     */
+    FULL
+}
@@ -4,6 +4,7 @@ import cz.cvut.kbss.study.model.Record;
 
 import java.time.LocalDate;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -25,6 +26,8 @@ public class RecordFilterParams {
 
     private Set<String> phaseIds = Collections.emptySet();
 
+    private RecordCursor cursor;
+
     public RecordFilterParams() {
     }
 
@@ -87,6 +90,41 @@ public class RecordFilterParams {
         this.phaseIds = phaseIds;
     }
 
+    /**
+     * Gets cursor for keyset pagination.
+     * <p>
+     * If present, only records following the cursor position in the requested sort order match.
+     *
+     * @return Keyset pagination cursor, empty if offset-based paging is used
+     */
+    public Optional<RecordCursor> getCursor() {
+        return Optional.ofNullable(cursor);
+    }
+
+    public void setCursor(RecordCursor cursor) {
+        this.cursor = cursor;
+    }
+
+    /**
+     * Creates a copy of this instance with the specified keyset pagination cursor.
+     * <p>
+     * The copy does not share any mutable state with this instance.
+     *
+     * @param cursor Cursor to set on the copy, possibly {@code null}
+     * @return New {@code RecordFilterParams} instance
+     */
+    public RecordFilterParams withCursor(RecordCursor cursor) {
+        final RecordFilterParams copy = new RecordFilterParams(author, copyOf(institutionKeys), minModifiedDate,
+                                                               maxModifiedDate, copyOf(phaseIds),
+                                                               copyOf(formTemplateIds));
+        copy.setCursor(cursor);
+        return copy;
+    }
+
+    private static Set<String> copyOf(Set<String> set) {
+        return set != null ? new HashSet<>(set) : null;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -100,12 +138,13 @@ public class RecordFilterParams {
                 && Objects.equals(minModifiedDate, that.minModifiedDate)
                 && Objects.equals(maxModifiedDate, that.maxModifiedDate)
                 && Objects.equals(formTemplateIds, that.formTemplateIds)
-                && Objects.equals(phaseIds, that.phaseIds);
+                && Objects.equals(phaseIds, that.phaseIds)
+                && Objects.equals(cursor, that.cursor);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(author, institutionKeys, minModifiedDate, maxModifiedDate, formTemplateIds, phaseIds);
+        return Objects.hash(author, institutionKeys, minModifiedDate, maxModifiedDate, formTemplateIds, phaseIds, cursor);
     }
 
     @Override
@@ -117,6 +156,7 @@ public class RecordFilterParams {
                 ", maxModifiedDate=" + maxModifiedDate +
                 ", formTemplateIds=" + formTemplateIds +
                 ", phaseIds=" + phaseIds +
+                ", cursor=" + cursor +
                 '}';
     }
 }
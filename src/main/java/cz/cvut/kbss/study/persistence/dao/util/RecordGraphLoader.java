@@ -0,0 +1,221 @@
+package cz.cvut.kbss.study.persistence.dao.util;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.study.model.Institution;
+import cz.cvut.kbss.study.model.Record;
+import cz.cvut.kbss.study.model.RecordPhase;
+import cz.cvut.kbss.study.model.User;
+import cz.cvut.kbss.study.model.Vocabulary;
+import cz.cvut.kbss.study.model.qam.Answer;
+import cz.cvut.kbss.study.model.qam.Question;
+import cz.cvut.kbss.study.persistence.monitoring.QueryMonitor;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryResult;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Loads a whole record, including its question and answer tree, from the record's named graph.
+ * <p>
+ * All statements of the record graph are retrieved at once and the object tree is assembled in memory, instead of
+ * loading each question and answer by a separate lookup. The author, last editor and institution of the record are
+ * loaded by the entity manager, as they reside in the default graph and are usually cached.
+ * <p>
+ * The loader reads data directly from the underlying RDF4J repository, bypassing the persistence context and the
+ * second-level cache. Consequently:
+ * <ul>
+ *     <li>it does not see changes made by a running transaction, so it refuses to run in read-write transactions (see
+ *     {@link #isApplicable()}),</li>
+ *     <li>the returned record is not managed by the persistence context and is not put into the second-level
+ *     cache,</li>
+ *     <li>origin path identifiers of questions are not loaded, because they are not accessible outside of the
+ *     entity. The returned record is thus meant for reading only and must not be merged into a persistence
+ *     context.</li>
+ * </ul>
+ * Retrieval of the statements is reported to the {@link QueryMonitor} like regular queries.
+ */
+public class RecordGraphLoader {
+
+    static final String QUERY_NAME = "RecordGraphLoader.load";
+
+    private final EntityManager em;
+
+    private final QueryMonitor monitor;
+
+    public RecordGraphLoader(EntityManager em, QueryMonitor monitor) {
+        this.em = Objects.requireNonNull(em);
+        this.monitor = Objects.requireNonNull(monitor);
+    }
+
+    /**
+     * Checks whether the loader can be used in the current thread, i.e., there is no read-write transaction whose
+     * changes the loader would not see.
+     *
+     * @return {@code true} if there is no transaction or the transaction is read-only
+     */
+    public static boolean isApplicable() {
+        return !TransactionSynchronizationManager.isActualTransactionActive() ||
+                TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * Loads record stored in the specified named graph.
+     *
+     * @param graphUri Identifier of the record graph
+     * @return Loaded record, empty if the graph does not contain any record
+     * @throws IllegalStateException If called in a read-write transaction
+     */
+    public Optional<Record> load(URI graphUri) {
+        Objects.requireNonNull(graphUri);
+        if (!isApplicable()) {
+            throw new IllegalStateException(
+                    "Record graph loader cannot be used in a read-write transaction, it would not see its changes.");
+        }
+        final Repository repository = em.unwrap(Repository.class);
+        final Map<Resource, List<Statement>> statementsBySubject = new HashMap<>();
+        Resource recordId = null;
+        int count = 0;
+        boolean failed = true;
+        final long start = System.nanoTime();
+        try (final RepositoryConnection connection = repository.getConnection()) {
+            final IRI context = connection.getValueFactory().createIRI(graphUri.toString());
+            try (final RepositoryResult<Statement> statements = connection.getStatements(null, null, null, false,
+                                                                                         context)) {
+                for (Statement s : statements) {
+                    count++;
+                    statementsBySubject.computeIfAbsent(s.getSubject(), k -> new ArrayList<>()).add(s);
+                    if (RDF.TYPE.equals(s.getPredicate()) && Vocabulary.s_c_record.equals(s.getObject()
+                                                                                           .stringValue())) {
+                        recordId = s.getSubject();
+                    }
+                }
+            }
+            failed = false;
+        } finally {
+            monitor.record(QUERY_NAME, System.nanoTime() - start, count, failed,
+                           () -> "Statements of graph <" + graphUri + ">");
+        }
+        if (recordId == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new GraphAssembler(statementsBySubject).assembleRecord(recordId));
+    }
+
+    private class GraphAssembler {
+
+        private final Map<Resource, List<Statement>> statementsBySubject;
+
+        /**
+         * Questions already assembled, the same question may be referenced multiple times.
+         */
+        private final Map<Resource, Question> questions = new HashMap<>();
+
+        private GraphAssembler(Map<Resource, List<Statement>> statementsBySubject) {
+            this.statementsBySubject = statementsBySubject;
+        }
+
+        private Record assembleRecord(Resource id) {
+            final Record record = new Record();
+            record.setUri(toUri(id));
+            for (Statement s : statementsBySubject.get(id)) {
+                final Value value = s.getObject();
+                switch (s.getPredicate().stringValue()) {
+                    case Vocabulary.s_p_key -> record.setKey(value.stringValue());
+                    case Vocabulary.s_p_label -> record.setLocalName(value.stringValue());
+                    case Vocabulary.s_p_created -> record.setDateCreated(toDate(value));
+                    case Vocabulary.s_p_modified -> record.setLastModified(toDate(value));
+                    case Vocabulary.s_p_has_form_template -> record.setFormTemplate(value.stringValue());
+                    case Vocabulary.s_p_has_form_template_version ->
+                            record.setFormTemplateVersion(value.stringValue());
+                    case Vocabulary.s_p_reject_reason -> record.setRejectReason(value.stringValue());
+                    case Vocabulary.s_p_has_phase -> record.setPhase(RecordPhase.fromIri(value.stringValue()));
+                    case Vocabulary.s_p_has_author -> record.setAuthor(em.find(User.class, toUri(value)));
+                    case Vocabulary.s_p_has_last_editor ->
+                            record.setLastModifiedBy(em.find(User.class, toUri(value)));
+                    case Vocabulary.s_p_was_treated_at ->
+                            record.setInstitution(em.find(Institution.class, toUri(value)));
+                    case Vocabulary.s_p_has_question -> record.setQuestion(assembleQuestion((Resource) value));
+                    default -> {
+                    }
+                }
+            }
+            return record;
+        }
+
+        private Question assembleQuestion(Resource id) {
+            final Question existing = questions.get(id);
+            if (existing != null) {
+                return existing;
+            }
+            final Question question = new Question();
+            question.setUri(toUri(id));
+            questions.put(id, question);
+            final Set<String> types = new HashSet<>();
+            for (Statement s : statementsBySubject.getOrDefault(id, List.of())) {
+                final Value value = s.getObject();
+                // Origin path identifier is not accessible outside the entity, so it is not loaded
+                switch (s.getPredicate().stringValue()) {
+                    case Vocabulary.s_p_has_related_question ->
+                            question.getSubQuestions().add(assembleQuestion((Resource) value));
+                    case Vocabulary.s_p_has_answer -> question.getAnswers().add(assembleAnswer((Resource) value));
+                    case Vocabulary.s_p_has_question_origin -> question.setOrigin(toUri(value));
+                    default -> addType(s, Vocabulary.s_c_question, types);
+                }
+            }
+            question.setTypes(types);
+            return question;
+        }
+
+        private Answer assembleAnswer(Resource id) {
+            final Answer answer = new Answer();
+            answer.setUri(toUri(id));
+            final Set<String> types = new HashSet<>();
+            for (Statement s : statementsBySubject.getOrDefault(id, List.of())) {
+                final Value value = s.getObject();
+                switch (s.getPredicate().stringValue()) {
+                    case Vocabulary.s_p_has_data_value -> answer.setTextValue(value.stringValue());
+                    case Vocabulary.s_p_has_object_value -> answer.setCodeValue(toUri(value));
+                    case Vocabulary.s_p_has_answer_origin -> answer.setOrigin(toUri(value));
+                    default -> addType(s, Vocabulary.s_c_answer, types);
+                }
+            }
+            answer.setTypes(types);
+            return answer;
+        }
+    }
+
+    /**
+     * Adds type asserted by the specified statement, except for the type mapped by the entity class itself (the same
+     * way as the entity manager does).
+     */
+    private static void addType(Statement statement, String entityClassIri, Set<String> types) {
+        if (RDF.TYPE.equals(statement.getPredicate()) && !entityClassIri.equals(statement.getObject().stringValue())) {
+            types.add(statement.getObject().stringValue());
+        }
+    }
+
+    private static URI toUri(Value value) {
+        return URI.create(value.stringValue());
+    }
+
+    private static Date toDate(Value value) {
+        return ((Literal) value).calendarValue().toGregorianCalendar().getTime();
+    }
+}
@@ -2,6 +2,9 @@ package cz.cvut.kbss.study.persistence.dao.util;
 
 import org.springframework.data.domain.Sort;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -33,4 +36,39 @@ public class RecordSort {
     public static Sort defaultSort() {
         return Sort.by(Sort.Order.desc("date"));
     }
+
+    /**
+     * Verifies that the specified sort uses only {@link #SORTING_PROPERTIES supported properties}.
+     *
+     * @param sort Sort to verify
+     * @return The specified sort
+     * @throws IllegalArgumentException If the sort uses an unsupported property
+     */
+    public static Sort requireSupported(Sort sort) {
+        for (Sort.Order o : sort) {
+            if (!SORTING_PROPERTIES.contains(o.getProperty())) {
+                throw new IllegalArgumentException("Unsupported record sorting property '" + o.getProperty() + "'.");
+            }
+        }
+        return sort;
+    }
+
+    /**
+     * Verifies that the specified sort uses only supported properties and reduces it to the first order of each
+     * property.
+     * <p>
+     * Sorts requested by clients may repeat properties or contain order attributes not used when sorting records. The
+     * normalized sort consists only of distinct supported properties and their directions, so the number of distinct
+     * normalized sorts is bounded.
+     *
+     * @param sort Sort to normalize
+     * @return Normalized sort
+     * @throws IllegalArgumentException If the sort uses an unsupported property
+     */
+    public static Sort normalize(Sort sort) {
+        requireSupported(sort);
+        final Map<String, Sort.Order> orders = new LinkedHashMap<>();
+        sort.forEach(o -> orders.putIfAbsent(o.getProperty(), new Sort.Order(o.getDirection(), o.getProperty())));
+        return Sort.by(List.copyOf(orders.values()));
+    }
 }
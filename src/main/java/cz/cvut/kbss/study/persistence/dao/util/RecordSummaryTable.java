@@ -0,0 +1,464 @@
+package cz.cvut.kbss.study.persistence.dao.util;
+
+import cz.cvut.kbss.study.dto.RecordSummary;
+import cz.cvut.kbss.study.util.Configuration;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * In-memory table of record summaries, used to filter, sort and page record lists without querying the repository.
+ * <p>
+ * Besides the rows themselves, the table maintains secondary indexes by institution key, phase, form template and
+ * author username, and a date-sorted set of all rows. Filters on indexed attributes are answered from the smallest
+ * matching index entry, date range filters from a view of the sorted set. Keyset pagination cursors are resolved by
+ * seeking in the sorted set, or by binary search over the sorted matching rows. Only rows of the requested page are
+ * copied out of the table.
+ * <p>
+ * The table is loaded on first use (or explicitly by {@link #load(Function)}). Records changed by write operations are
+ * marked as stale and their rows are reloaded before the table is read next time. Marking should happen only after the
+ * change is committed, so that the reloaded rows reflect it. Changes which cannot be tracked this way (e.g., changes
+ * of institutions or users, or changes made by another application instance) are picked up by reloading the whole
+ * table once it is older than the maximum age, or after {@link #invalidate()}.
+ * <p>
+ * Reloading runs outside the lock guarding reads, readers wait only while the reloaded rows are swapped in.
+ */
+public class RecordSummaryTable {
+
+    /**
+     * Order of records by date ascending, record identifier is used as a tiebreaker (the same way as keyset
+     * pagination does).
+     */
+    static final Comparator<RecordSummary> ASCENDING = Comparator.comparing(RecordSummary::getDate)
+                                                                 .thenComparing(r -> r.getUri().toString());
+
+    /**
+     * Sorts before all records with the same date.
+     */
+    private static final URI MIN_URI = URI.create("");
+
+    private final Map<URI, RecordSummary> rows = new HashMap<>();
+
+    private final NavigableSet<RecordSummary> byDate = new TreeSet<>(ASCENDING);
+    private final Map<String, Set<RecordSummary>> byInstitution = new HashMap<>();
+    private final Map<String, Set<RecordSummary>> byPhase = new HashMap<>();
+    private final Map<String, Set<RecordSummary>> byFormTemplate = new HashMap<>();
+    private final Map<String, Set<RecordSummary>> byAuthor = new HashMap<>();
+
+    /**
+     * Cached numbers of rows in date ranges (keyed by the minimum and maximum date filter), cleared on every change of
+     * the rows.
+     */
+    private final Map<List<LocalDate>, Integer> rangeCounts = new ConcurrentHashMap<>();
+
+    private final Set<URI> stale = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Guards the rows and indexes.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Serializes reloads, so that concurrent readers do not load the same rows.
+     */
+    private final Lock reloadLock = new ReentrantLock();
+
+    private final Duration maxAge;
+
+    private final Clock clock;
+
+    /**
+     * Time of the last full load, {@code null} if the table is not loaded.
+     */
+    private volatile Instant loadedAt;
+
+    /**
+     * Incremented by {@link #invalidate()}, so that a full load running concurrently with it is not considered fresh.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public RecordSummaryTable() {
+        this(Configuration.Records.DEFAULT_CACHE_MAX_AGE);
+    }
+
+    /**
+     * @param maxAge Maximum age of the table, after which it is reloaded as a whole
+     */
+    public RecordSummaryTable(Duration maxAge) {
+        this(maxAge, Clock.systemUTC());
+    }
+
+    RecordSummaryTable(Duration maxAge, Clock clock) {
+        this.maxAge = Objects.requireNonNull(maxAge);
+        this.clock = Objects.requireNonNull(clock);
+    }
+
+    /**
+     * Marks the specified records as changed, their rows will be reloaded before the next read.
+     *
+     * @param recordUris Identifiers of changed (added, updated or removed) records
+     */
+    public void markStale(Collection<URI> recordUris) {
+        stale.addAll(recordUris);
+    }
+
+    /**
+     * Discards the whole table, it will be loaded again before the next read.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        this.loadedAt = null;
+    }
+
+    /**
+     * Loads the table if it has not been loaded yet.
+     *
+     * @param loader Loads summaries of records with the specified identifiers, or of all records when the argument is
+     *               {@code null}
+     */
+    public void load(Function<Collection<URI>, List<RecordSummary>> loader) {
+        refresh(loader);
+    }
+
+    /**
+     * Finds a window of summaries of records matching the specified filtering criteria, sorted by date.
+     * <p>
+     * If the filters contain a keyset pagination cursor, the window starts after the cursor position, otherwise at the
+     * specified offset.
+     *
+     * @param filters   Record filtering criteria
+     * @param ascending Whether to sort the records by date ascending
+     * @param offset    Number of matching records (following the cursor, if any) to skip
+     * @param limit     Maximum number of returned summaries
+     * @param loader    Loads summaries of records with the specified identifiers, or of all records when the argument
+     *                  is {@code null}. Summaries of records which do not exist are not returned
+     * @return Window of sorted matching summaries together with the total number of matching records (regardless of
+     * the cursor)
+     */
+    public Window findMatching(RecordFilterParams filters, boolean ascending, long offset, int limit,
+                               Function<Collection<URI>, List<RecordSummary>> loader) {
+        Objects.requireNonNull(filters);
+        refresh(loader);
+        final RecordSummary position = cursorPosition(filters);
+        lock.readLock().lock();
+        try {
+            final Collection<RecordSummary> candidates = selectCandidates(filters);
+            if (candidates == null) {
+                // No indexed attribute is filtered, the date range is already sorted and all its rows match
+                final NavigableSet<RecordSummary> range = dateRange(filters);
+                final NavigableSet<RecordSummary> following;
+                if (position == null) {
+                    following = ascending ? range : range.descendingSet();
+                } else {
+                    following = ascending ? range.tailSet(position, false) :
+                                range.headSet(position, false).descendingSet();
+                }
+                return new Window(copyWindow(following, offset, limit), countRange(range, filters));
+            }
+            final Predicate<RecordSummary> predicate = toPredicate(filters);
+            final List<RecordSummary> matching = new ArrayList<>();
+            for (RecordSummary row : candidates) {
+                if (predicate.test(row)) {
+                    matching.add(row);
+                }
+            }
+            final Comparator<RecordSummary> order = ascending ? ASCENDING : ASCENDING.reversed();
+            matching.sort(order);
+            int from = 0;
+            if (position != null) {
+                final int index = Collections.binarySearch(matching, position, order);
+                from = index >= 0 ? index + 1 : -index - 1;
+            }
+            from = (int) Math.min(matching.size(), from + offset);
+            final int to = (int) Math.min(matching.size(), (long) from + limit);
+            return new Window(new ArrayList<>(matching.subList(from, to)), matching.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copies at most {@code limit} rows following the first {@code offset} rows of the specified sorted rows.
+     */
+    private static List<RecordSummary> copyWindow(Collection<RecordSummary> sorted, long offset, int limit) {
+        final List<RecordSummary> window = new ArrayList<>(Math.min(limit, 64));
+        final Iterator<RecordSummary> it = sorted.iterator();
+        for (long skipped = 0; skipped < offset && it.hasNext(); skipped++) {
+            it.next();
+        }
+        while (window.size() < limit && it.hasNext()) {
+            window.add(it.next());
+        }
+        return window;
+    }
+
+    /**
+     * Counts rows of the specified date range.
+     * <p>
+     * Size of a range view is computed by iterating over it, so counts of date ranges are cached until the table
+     * changes.
+     */
+    private int countRange(NavigableSet<RecordSummary> range, RecordFilterParams filters) {
+        if (range == byDate) {
+            return byDate.size();
+        }
+        return rangeCounts.computeIfAbsent(
+                Arrays.asList(filters.getMinModifiedDate().orElse(null), filters.getMaxModifiedDate().orElse(null)),
+                k -> range.size());
+    }
+
+    /**
+     * Window of matching record summaries.
+     *
+     * @param rows  Summaries in the window
+     * @param total Total number of matching records
+     */
+    public record Window(List<RecordSummary> rows, int total) {
+    }
+
+    /**
+     * Creates a row at the position of the keyset pagination cursor of the specified filters.
+     *
+     * @return Cursor position, {@code null} if the filters contain no cursor or the initial one
+     */
+    private static RecordSummary cursorPosition(RecordFilterParams filters) {
+        final RecordCursor cursor = filters.getCursor().orElse(RecordCursor.initial());
+        if (cursor.isInitial()) {
+            return null;
+        }
+        final RecordSummary position = new RecordSummary();
+        position.setDate(Date.from(cursor.getDate().get()));
+        position.setUri(cursor.getRecordUri().get());
+        return position;
+    }
+
+    /**
+     * Selects the smallest set of candidate rows using the secondary indexes.
+     *
+     * @return Candidate rows, {@code null} if no indexed attribute is filtered
+     */
+    private Collection<RecordSummary> selectCandidates(RecordFilterParams filters) {
+        final List<Collection<RecordSummary>> matches = new ArrayList<>(4);
+        filters.getAuthor().ifPresent(author -> matches.add(lookup(byAuthor, Set.of(author))));
+        if (!filters.getInstitutionKeys().isEmpty()) {
+            matches.add(lookup(byInstitution, filters.getInstitutionKeys()));
+        }
+        if (!filters.getPhaseIds().isEmpty()) {
+            matches.add(lookup(byPhase, filters.getPhaseIds()));
+        }
+        if (!filters.getFormTemplateIds().isEmpty()) {
+            matches.add(lookup(byFormTemplate, filters.getFormTemplateIds()));
+        }
+        return matches.stream().min(Comparator.comparingInt(Collection::size)).orElse(null);
+    }
+
+    private static Collection<RecordSummary> lookup(Map<String, Set<RecordSummary>> index, Set<String> keys) {
+        if (keys.size() == 1) {
+            return index.getOrDefault(keys.iterator().next(), Set.of());
+        }
+        final List<RecordSummary> result = new ArrayList<>();
+        keys.forEach(k -> result.addAll(index.getOrDefault(k, Set.of())));
+        return result;
+    }
+
+    private NavigableSet<RecordSummary> dateRange(RecordFilterParams filters) {
+        final Instant min = filters.getMinModifiedDate().map(d -> d.atStartOfDay(ZoneOffset.UTC).toInstant())
+                                   .orElse(null);
+        final Instant max = filters.getMaxModifiedDate()
+                                   .map(d -> d.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant()).orElse(null);
+        if (min != null && max != null && !min.isBefore(max)) {
+            return Collections.emptyNavigableSet();
+        }
+        NavigableSet<RecordSummary> range = byDate;
+        if (min != null) {
+            range = range.tailSet(probe(min), true);
+        }
+        if (max != null) {
+            range = range.headSet(probe(max), false);
+        }
+        return range;
+    }
+
+    /**
+     * Creates a row which sorts before all rows with the specified date.
+     */
+    private static RecordSummary probe(Instant date) {
+        final RecordSummary probe = new RecordSummary();
+        probe.setDate(Date.from(date));
+        probe.setUri(MIN_URI);
+        return probe;
+    }
+
+    private void refresh(Function<Collection<URI>, List<RecordSummary>> loader) {
+        if (!needsRefresh()) {
+            return;
+        }
+        reloadLock.lock();
+        try {
+            // Another thread may have reloaded the table in the meantime
+            if (isExpired()) {
+                reloadAll(loader);
+            } else if (!stale.isEmpty()) {
+                reloadStale(loader);
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private boolean needsRefresh() {
+        return isExpired() || !stale.isEmpty();
+    }
+
+    private boolean isExpired() {
+        final Instant loaded = loadedAt;
+        return loaded == null || !loaded.plus(maxAge).isAfter(clock.instant());
+    }
+
+    private void reloadAll(Function<Collection<URI>, List<RecordSummary>> loader) {
+        final Instant start = clock.instant();
+        final long currentGeneration = generation.get();
+        // Records marked stale from now on are reloaded again, the full load may not reflect their change
+        stale.clear();
+        final List<RecordSummary> loaded = loader.apply(null);
+        lock.writeLock().lock();
+        try {
+            clear();
+            loaded.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (currentGeneration == generation.get()) {
+            this.loadedAt = start;
+        }
+    }
+
+    private void reloadStale(Function<Collection<URI>, List<RecordSummary>> loader) {
+        final Set<URI> toReload = new HashSet<>(stale);
+        // Records marked again while reloading remain stale
+        stale.removeAll(toReload);
+        final List<RecordSummary> reloaded;
+        try {
+            reloaded = loader.apply(toReload);
+        } catch (RuntimeException e) {
+            stale.addAll(toReload);
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            toReload.forEach(this::remove);
+            reloaded.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(RecordSummary row) {
+        remove(row.getUri());
+        rangeCounts.clear();
+        rows.put(row.getUri(), row);
+        byDate.add(row);
+        index(byInstitution, row.getInstitutionKey(), row);
+        index(byPhase, row.getPhase() != null ? row.getPhase().toString() : null, row);
+        index(byFormTemplate, row.getFormTemplate(), row);
+        index(byAuthor, row.getUsername(), row);
+    }
+
+    private static void index(Map<String, Set<RecordSummary>> index, String key, RecordSummary row) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new HashSet<>()).add(row);
+        }
+    }
+
+    private void remove(URI uri) {
+        final RecordSummary row = rows.remove(uri);
+        if (row == null) {
+            return;
+        }
+        rangeCounts.clear();
+        byDate.remove(row);
+        unindex(byInstitution, row.getInstitutionKey(), row);
+        unindex(byPhase, row.getPhase() != null ? row.getPhase().toString() : null, row);
+        unindex(byFormTemplate, row.getFormTemplate(), row);
+        unindex(byAuthor, row.getUsername(), row);
+    }
+
+    private static void unindex(Map<String, Set<RecordSummary>> index, String key, RecordSummary row) {
+        if (key == null) {
+            return;
+        }
+        final Set<RecordSummary> entry = index.get(key);
+        if (entry != null) {
+            entry.remove(row);
+            if (entry.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private void clear() {
+        rangeCounts.clear();
+        rows.clear();
+        byDate.clear();
+        byInstitution.clear();
+        byPhase.clear();
+        byFormTemplate.clear();
+        byAuthor.clear();
+    }
+
+    private static Predicate<RecordSummary> toPredicate(RecordFilterParams filters) {
+        Predicate<RecordSummary> predicate = r -> true;
+        if (filters.getAuthor().isPresent()) {
+            final String author = filters.getAuthor().get();
+            predicate = predicate.and(r -> author.equals(r.getUsername()));
+        }
+        if (!filters.getInstitutionKeys().isEmpty()) {
+            final Set<String> keys = filters.getInstitutionKeys();
+            predicate = predicate.and(r -> keys.contains(r.getInstitutionKey()));
+        }
+        if (filters.getMinModifiedDate().isPresent()) {
+            final Instant min = filters.getMinModifiedDate().get().atStartOfDay(ZoneOffset.UTC).toInstant();
+            predicate = predicate.and(r -> !r.getDate().toInstant().isBefore(min));
+        }
+        if (filters.getMaxModifiedDate().isPresent()) {
+            final Instant max = filters.getMaxModifiedDate().get().plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            predicate = predicate.and(r -> r.getDate().toInstant().isBefore(max));
+        }
+        if (!filters.getPhaseIds().isEmpty()) {
+            final Set<String> phases = filters.getPhaseIds();
+            predicate = predicate.and(r -> r.getPhase() != null && phases.contains(r.getPhase().toString()));
+        }
+        if (!filters.getFormTemplateIds().isEmpty()) {
+            final Set<String> formTemplates = filters.getFormTemplateIds();
+            predicate = predicate.and(r -> formTemplates.contains(r.getFormTemplate()));
+        }
+        return predicate;
+    }
+}
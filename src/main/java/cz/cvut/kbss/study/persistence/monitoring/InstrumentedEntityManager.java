@@ -0,0 +1,72 @@
+package cz.cvut.kbss.study.persistence.monitoring;
+
+import com.github.ledsoft.jopa.spring.transaction.DelegatingEntityManager;
+import cz.cvut.kbss.jopa.model.query.Query;
+import cz.cvut.kbss.jopa.model.query.TypedQuery;
+
+import java.util.Objects;
+
+/**
+ * Entity manager proxy which instruments native queries by a {@link QueryMonitor}.
+ * <p>
+ * Queries are named after the DAO method which created them (e.g., {@code RecordDao.findRecords}).
+ */
+public class InstrumentedEntityManager extends DelegatingEntityManager {
+
+    private static final String DAO_PACKAGE = "cz.cvut.kbss.study.persistence.dao.";
+
+    static final String UNKNOWN_QUERY = "unknown";
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final QueryMonitor monitor;
+
+    public InstrumentedEntityManager(QueryMonitor monitor) {
+        this.monitor = Objects.requireNonNull(monitor);
+    }
+
+    @Override
+    public Query createNativeQuery(String sparqlString) {
+        return InstrumentedQuery.wrap(super.createNativeQuery(sparqlString), resolveQueryName(), monitor);
+    }
+
+    @Override
+    public <T> TypedQuery<T> createNativeQuery(String sparqlString, Class<T> resultClass) {
+        return InstrumentedQuery.wrap(super.createNativeQuery(sparqlString, resultClass), resolveQueryName(),
+                                      monitor);
+    }
+
+    @Override
+    public Query createNativeQuery(String sparqlString, String resultSetMapping) {
+        return InstrumentedQuery.wrap(super.createNativeQuery(sparqlString, resultSetMapping), resolveQueryName(),
+                                      monitor);
+    }
+
+    /**
+     * Resolves query name from the closest DAO frame on the call stack.
+     */
+    static String resolveQueryName() {
+        return STACK_WALKER.walk(frames -> frames.filter(f -> f.getClassName().startsWith(DAO_PACKAGE))
+                                                 .findFirst()
+                                                 .map(f -> simpleClassName(f.getClassName()) + "." +
+                                                         methodName(f.getMethodName()))
+                                                 .orElse(UNKNOWN_QUERY));
+    }
+
+    private static String simpleClassName(String className) {
+        final String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        final int nested = simpleName.indexOf('$');
+        return nested > 0 ? simpleName.substring(0, nested) : simpleName;
+    }
+
+    /**
+     * Lambda bodies (e.g., {@code lambda$countRecords$3}) are attributed to their enclosing method.
+     */
+    private static String methodName(String methodName) {
+        if (methodName.startsWith("lambda$")) {
+            final int end = methodName.indexOf('$', "lambda$".length());
+            return end > 0 ? methodName.substring("lambda$".length(), end) : methodName;
+        }
+        return methodName;
+    }
+}
@@ -0,0 +1,78 @@
+package cz.cvut.kbss.study.persistence.monitoring;
+
+import cz.cvut.kbss.jopa.model.query.Query;
+import cz.cvut.kbss.jopa.model.query.TypedQuery;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Wraps a query so that its executions are reported to a {@link QueryMonitor}.
+ * <p>
+ * All calls are passed to the wrapped query, calls returning the query itself (parameter setters etc.) return the
+ * wrapper instead, so that chained calls remain instrumented.
+ */
+class InstrumentedQuery implements InvocationHandler {
+
+    private static final Set<String> EXECUTING_METHODS = Set.of("getResultList", "getResultStream",
+                                                                "getSingleResult", "executeUpdate");
+
+    private final Query delegate;
+
+    private final String name;
+
+    private final QueryMonitor monitor;
+
+    private InstrumentedQuery(Query delegate, String name, QueryMonitor monitor) {
+        this.delegate = delegate;
+        this.name = name;
+        this.monitor = monitor;
+    }
+
+    static Query wrap(Query query, String name, QueryMonitor monitor) {
+        return (Query) Proxy.newProxyInstance(InstrumentedQuery.class.getClassLoader(), new Class<?>[]{Query.class},
+                                              new InstrumentedQuery(query, name, monitor));
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> TypedQuery<T> wrap(TypedQuery<T> query, String name, QueryMonitor monitor) {
+        return (TypedQuery<T>) Proxy.newProxyInstance(InstrumentedQuery.class.getClassLoader(),
+                                                      new Class<?>[]{TypedQuery.class},
+                                                      new InstrumentedQuery(query, name, monitor));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (!EXECUTING_METHODS.contains(method.getName())) {
+            final Object result = invokeDelegate(method, args);
+            return result == delegate ? proxy : result;
+        }
+        final long start = System.nanoTime();
+        boolean failed = true;
+        int rows = -1;
+        try {
+            final Object result = invokeDelegate(method, args);
+            failed = false;
+            if (result instanceof List<?> list) {
+                rows = list.size();
+            } else if ("getSingleResult".equals(method.getName())) {
+                rows = 1;
+            }
+            return result;
+        } finally {
+            monitor.record(name, System.nanoTime() - start, rows, failed, delegate::toString);
+        }
+    }
+
+    private Object invokeDelegate(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package cz.cvut.kbss.study.persistence.monitoring;
+
+import cz.cvut.kbss.study.util.RequestTimings;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Records execution of SPARQL queries.
+ * <p>
+ * For each named query, a timer of its executions (tagged by outcome) and a distribution of the numbers of result rows
+ * are registered. The meters are registered on first execution of the query and reused afterwards. Queries running
+ * longer than the configured threshold are logged by name, their text (with parameter values bound, so it may contain
+ * user data) is logged only at debug level. A configurable fraction of slow queries is sampled to keep the log readable
+ * under load.
+ * <p>
+ * Query executions are also added to {@link RequestTimings} of the current request.
+ */
+public class QueryMonitor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(QueryMonitor.class);
+
+    static final String QUERY_TIMER = "recordmanager.sparql.query";
+    static final String QUERY_ROWS = "recordmanager.sparql.query.rows";
+
+    private final MeterRegistry meterRegistry;
+
+    private final long slowThresholdNanos;
+
+    private final double slowLogSampleRate;
+
+    private final Map<String, Timer> successTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> errorTimers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> rowSummaries = new ConcurrentHashMap<>();
+
+    /**
+     * @param meterRegistry     Registry of query meters, {@code null} if metrics should not be recorded
+     * @param slowThreshold     Queries taking at least this long are considered slow
+     * @param slowLogSampleRate Fraction (between 0 and 1) of slow queries which are logged
+     */
+    public QueryMonitor(MeterRegistry meterRegistry, Duration slowThreshold, double slowLogSampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = Objects.requireNonNull(slowThreshold).toNanos();
+        this.slowLogSampleRate = Math.max(0, Math.min(1, slowLogSampleRate));
+    }
+
+    /**
+     * Records an execution of the specified query.
+     *
+     * @param name      Query name
+     * @param nanos     Execution time in nanoseconds
+     * @param rows      Number of result rows, negative if not known (e.g., for updates)
+     * @param failed    Whether the execution failed
+     * @param queryText Supplies query text for the slow-query log
+     */
+    public void record(String name, long nanos, int rows, boolean failed, Supplier<String> queryText) {
+        RequestTimings.record(RequestTimings.DATABASE, nanos);
+        if (meterRegistry != null) {
+            timer(name, failed).record(nanos, TimeUnit.NANOSECONDS);
+            if (rows >= 0) {
+                rowSummary(name).record(rows);
+            }
+        }
+        if (nanos >= slowThresholdNanos && LOG.isWarnEnabled() && isSampled()) {
+            LOG.warn("Slow query {} took {} ms{}.", name, TimeUnit.NANOSECONDS.toMillis(nanos),
+                     rows >= 0 ? " and returned " + rows + " rows" : "");
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Text of slow query {}:\n{}", name, queryText.get());
+            }
+        }
+    }
+
+    private Timer timer(String name, boolean failed) {
+        return (failed ? errorTimers : successTimers).computeIfAbsent(
+                name, n -> Timer.builder(QUERY_TIMER)
+                                .description("SPARQL query execution time")
+                                .tag("query", n)
+                                .tag("outcome", failed ? "error" : "success")
+                                .register(meterRegistry));
+    }
+
+    private DistributionSummary rowSummary(String name) {
+        return rowSummaries.computeIfAbsent(
+                name, n -> DistributionSummary.builder(QUERY_ROWS)
+                                              .description("Number of rows returned by SPARQL query")
+                                              .tag("query", n)
+                                              .register(meterRegistry));
+    }
+
+    private boolean isSampled() {
+        return slowLogSampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < slowLogSampleRate;
+    }
+}
@@ -0,0 +1,33 @@
+package cz.cvut.kbss.study.rest;
+
+import cz.cvut.kbss.study.security.SecurityConstants;
+import cz.cvut.kbss.study.service.event.CodeListValuesChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/codeLists")
+public class CodeListController extends BaseController {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CodeListController(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Discards cached code list values, e.g., after the code lists were updated in the form generator repository.
+     */
+    @PreAuthorize("hasAuthority('" + SecurityConstants.importCodelists + "')")
+    @DeleteMapping(value = "/cache")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void invalidateCache() {
+        LOG.debug("Code list values cache invalidation requested.");
+        eventPublisher.publishEvent(new CodeListValuesChangedEvent(this));
+    }
+}
@@ -1,7 +1,12 @@
 package cz.cvut.kbss.study.rest;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import cz.cvut.kbss.study.dto.PublishJob;
 import cz.cvut.kbss.study.dto.RecordDto;
 import cz.cvut.kbss.study.dto.RecordImportResult;
 import cz.cvut.kbss.study.exception.NotFoundException;
@@ -9,7 +14,11 @@ import cz.cvut.kbss.study.exception.ValidationException;
 import cz.cvut.kbss.study.model.Record;
 import cz.cvut.kbss.study.model.RecordPhase;
 import cz.cvut.kbss.study.model.export.RawRecord;
+import cz.cvut.kbss.study.persistence.dao.util.CursorPage;
+import cz.cvut.kbss.study.persistence.dao.util.RecordCursor;
+import cz.cvut.kbss.study.persistence.dao.util.RecordFetchPlan;
 import cz.cvut.kbss.study.persistence.dao.util.RecordFilterParams;
+import cz.cvut.kbss.study.persistence.dao.util.RecordSort;
 import cz.cvut.kbss.study.rest.event.PaginatedResultRetrievedEvent;
 import cz.cvut.kbss.study.rest.exception.BadRequestException;
 import cz.cvut.kbss.study.rest.util.RecordFilterMapper;
@@ -22,8 +31,10 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.util.LinkedMultiValueMap;
@@ -31,18 +42,25 @@ import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/records")
 public class RecordController extends BaseController {
 
+
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
     private final RecordService recordService;
 
     private final ApplicationEventPublisher eventPublisher;
@@ -120,33 +138,120 @@ public class RecordController extends BaseController {
         };
     }
 
-    protected ResponseEntity<List<Record>> exportRecordsAsJson(
+    /**
+     * Exports records as JSON.
+     * <p>
+     * The {@link Constants#FETCH_PLAN_PARAM} parameter allows clients which do not need the question and answer trees
+     * to request only header or shallow records.
+     * <p>
+     * When no page is requested, all the matching records are retrieved in chunks of {@link #EXPORT_CHUNK_SIZE} and
+     * written into the response one by one, so that the whole result is never held in memory. The records are sorted as
+     * requested by the {@link Constants#SORT_PARAM} parameter, only sorting by date is supported.
+     */
+    protected ResponseEntity<?> exportRecordsAsJson(
             MultiValueMap<String, String> params,
             UriComponentsBuilder uriBuilder, HttpServletResponse response){
-        final Page<Record> result = recordService.findAllFull(RecordFilterMapper.constructRecordFilter(params),
-                RestUtils.resolvePaging(params));
+        final RecordFilterParams filterParams = RecordFilterMapper.constructRecordFilter(params);
+        final Optional<RecordFetchPlan> fetchPlan = resolveFetchPlan(params);
+        final Pageable pageSpec = RestUtils.resolvePaging(params);
+        if (pageSpec.isUnpaged()) {
+            // Validated before streaming starts, so that an unsupported sort is rejected with a proper error response
+            final Sort sort = RecordSort.requireSupported(RestUtils.resolveSort(params));
+            final Pageable chunkSpec = PageRequest.of(0, EXPORT_CHUNK_SIZE,
+                                                      sort.isSorted() ? sort : RecordSort.defaultSort());
+            final StreamingResponseBody body = out -> writeJson(
+                    cursor -> findAllFull(filterParams.withCursor(cursor), chunkSpec, fetchPlan), out);
+            return ResponseEntity.ok()
+                                 .contentType(MediaType.APPLICATION_JSON)
+                                 .body(body);
+        }
+        final Page<Record> result = findAllFull(filterParams, pageSpec, fetchPlan);
         eventPublisher.publishEvent(new PaginatedResultRetrievedEvent(this, uriBuilder, response, result));
         return ResponseEntity.ok()
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(result.getContent());
     }
 
-    public ResponseEntity<InputStreamResource> exportRecordsExcel(MultiValueMap<String, String> params,
-                                                                  UriComponentsBuilder uriBuilder, HttpServletResponse response){
+    private Page<Record> findAllFull(RecordFilterParams filterParams, Pageable pageSpec,
+                                     Optional<RecordFetchPlan> fetchPlan) {
+        return fetchPlan.isPresent() ? recordService.findAllFull(filterParams, pageSpec, fetchPlan.get()) :
+               recordService.findAllFull(filterParams, pageSpec);
+    }
+
+    /**
+     * Writes records into the specified output stream as a JSON array.
+     * <p>
+     * Chunks are requested as long as the loader returns a {@link CursorPage} with a next cursor. The output is flushed
+     * after each chunk.
+     *
+     * @param chunkLoader Retrieves chunk of records following the specified cursor
+     * @param out         Stream to write into, it is not closed by this method
+     */
+    private void writeJson(Function<RecordCursor, Page<Record>> chunkLoader, OutputStream out) throws IOException {
+        final ObjectWriter writer = objectMapper.writerFor(Record.class)
+                                                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (final JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            RecordCursor cursor = RecordCursor.initial();
+            while (cursor != null) {
+                final Page<Record> chunk = chunkLoader.apply(cursor);
+                for (Record record : chunk) {
+                    writer.writeValue(generator, record);
+                }
+                generator.flush();
+                cursor = chunk instanceof CursorPage<Record> cursorPage ? cursorPage.getNextCursor().orElse(null) :
+                         null;
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private static Optional<RecordFetchPlan> resolveFetchPlan(MultiValueMap<String, String> params) {
+        final String value = params != null ? params.getFirst(Constants.FETCH_PLAN_PARAM) : null;
+        if (value == null || value.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(RecordFetchPlan.valueOf(value.trim().toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported record fetch plan '" + value + "'.");
+        }
+    }
+
+    /**
+     * Exports records into an Excel workbook.
+     * <p>
+     * When no page is requested, all the matching records are retrieved in chunks of {@link #EXPORT_CHUNK_SIZE} while
+     * the workbook is being streamed to the client.
+     */
+    public ResponseEntity<StreamingResponseBody> exportRecordsExcel(MultiValueMap<String, String> params,
+                                                                    UriComponentsBuilder uriBuilder,
+                                                                    HttpServletResponse response){
         RecordFilterParams filterParams = new RecordFilterParams();
         filterParams.setMinModifiedDate(null);
         filterParams.setMaxModifiedDate(null);
         RecordFilterMapper.constructRecordFilter(filterParams, params);
 
-        Page<RawRecord> result = recordService.exportRecords(filterParams, RestUtils.resolvePaging(params));
-
-        InputStream stream = excelRecordConverter.convert(result.getContent());
-        eventPublisher.publishEvent(new PaginatedResultRetrievedEvent(this, uriBuilder, response, result));
+        final Pageable pageSpec = RestUtils.resolvePaging(params);
+        final StreamingResponseBody body;
+        if (pageSpec.isPaged()) {
+            Page<RawRecord> result = recordService.exportRecords(filterParams, pageSpec);
+            eventPublisher.publishEvent(new PaginatedResultRetrievedEvent(this, uriBuilder, response, result));
+            body = out -> excelRecordConverter.convert(result.getContent(), out);
+        } else {
+            // Validated before streaming starts, so that an unsupported sort is rejected with a proper error response
+            final Sort sort = RecordSort.requireSupported(RestUtils.resolveSort(params));
+            final Pageable chunkSpec = PageRequest.of(0, EXPORT_CHUNK_SIZE,
+                                                      sort.isSorted() ? sort : RecordSort.defaultSort());
+            body = out -> excelRecordConverter.convert(
+                    cursor -> recordService.exportRecords(filterParams.withCursor(cursor), chunkSpec), out);
+        }
         ContentDisposition contentDisposition = ContentDisposition.attachment().filename("export.xlsx").build();
         return ResponseEntity.ok()
                 .contentType(MediaType.parseMediaType(Constants.MEDIA_TYPE_EXCEL))
                 .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.toString())
-                .body(new InputStreamResource(stream));
+                .body(body);
     }
 
     @PreAuthorize("hasAuthority('" + SecurityConstants.readAllRecords + "') " +
@@ -181,33 +286,91 @@ public class RecordController extends BaseController {
         return new ResponseEntity<>(headers, HttpStatus.CREATED);
     }
 
+    /**
+     * Starts publishing completed records in the background.
+     * <p>
+     * Progress of the publishing can be watched using the job referenced by the returned {@code Location} header.
+     */
     @PreAuthorize("hasAuthority('" + SecurityConstants.publishRecords + "') or @securityUtils.isMemberOfInstitution(#institutionKey)")
     @PostMapping(value = "/publish", produces = {MediaType.APPLICATION_JSON_VALUE})
-    public RecordImportResult publishRecords(
+    public ResponseEntity<PublishJob> publishRecords(
         @RequestParam(name = "institution", required = false) String institutionKey,
         @RequestParam(required = false) MultiValueMap<String, String> params,
         HttpServletRequest request) {
 
         RecordFilterParams filterParameters = RecordFilterMapper.constructRecordFilter(params);
-        RecordImportResult importResult = publishRecordsService.publishRecords(filterParameters, RestUtils.resolvePaging(params));
-        return importResult;
+        final PublishJob job = publishRecordsService.startPublishing(filterParameters, RestUtils.resolvePaging(params));
+        final HttpHeaders headers = RestUtils.createLocationHeaderFromCurrentUri("/{jobId}", job.getId());
+        return new ResponseEntity<>(job, headers, HttpStatus.ACCEPTED);
     }
 
+    @PreAuthorize("hasAuthority('" + SecurityConstants.publishRecords + "') or @publishRecordsService.isStartedByCurrentUser(#jobId)")
+    @GetMapping(value = "/publish/{jobId}", produces = {MediaType.APPLICATION_JSON_VALUE})
+    public PublishJob getPublishJob(@PathVariable("jobId") String jobId) {
+        return publishRecordsService.findJob(jobId);
+    }
+
+    /**
+     * Imports records from the uploaded JSON array.
+     * <p>
+     * The array is read one record at a time as the service imports them in batches, so that the whole upload never
+     * has to be held in memory. Batches imported before a failure remain stored.
+     */
     @PreAuthorize("permitAll()")
     @PostMapping(value = "/import/json", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public RecordImportResult importRecordsJson(@RequestPart("file") MultipartFile file,
                                             @RequestParam(name = "phase", required = false) String phase) {
 
-        List<Record> records;
-
         if(file.isEmpty())
             throw new IllegalArgumentException("Cannot import records, missing input file");
-        try {
-            records =  objectMapper.readValue(file.getBytes(), new TypeReference<List<Record>>(){});
-        } catch (IOException e) {
+        final RecordPhase targetPhase = phase != null ? RecordPhase.fromIriOrName(phase) : null;
+        final RecordImportResult importResult;
+        try (final InputStream in = file.getInputStream();
+             final JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BadRequestException("Cannot import records, input file does not contain a JSON array.");
+            }
+            importResult = recordService.importRecords(readRecords(parser), targetPhase);
+        } catch (IOException | UncheckedIOException e) {
             throw new RuntimeException("Failed to parse JSON content", e);
         }
-        return importRecords(records, phase);
+        LOG.trace("Records imported with result: {}.", importResult);
+        return importResult;
+    }
+
+    /**
+     * Reads records of a JSON array lazily, the parser is expected to be positioned at the start of the array.
+     */
+    private Iterator<Record> readRecords(JsonParser parser) throws IOException {
+        return new Iterator<>() {
+            private JsonToken next = parser.nextToken();
+
+            @Override
+            public boolean hasNext() {
+                if (next == JsonToken.START_OBJECT) {
+                    return true;
+                }
+                if (next != JsonToken.END_ARRAY) {
+                    throw new BadRequestException(
+                            "Cannot import records, input file contains an unexpected JSON value.");
+                }
+                return false;
+            }
+
+            @Override
+            public Record next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    final Record record = objectMapper.readValue(parser, Record.class);
+                    this.next = parser.nextToken();
+                    return record;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
     }
 
     @PostMapping(value = "/import/excel", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -290,17 +453,17 @@ public class RecordController extends BaseController {
     }
 
     public RecordImportResult importRecords(List<Record> records, String phase) {
-        final RecordImportResult importResult;
-        if (phase != null) {
-            final RecordPhase targetPhase = RecordPhase.fromIriOrName(phase);
-            importResult = recordService.importRecords(records, targetPhase);
-        } else {
-            importResult = recordService.importRecords(records);
-        }
+        final RecordImportResult importResult =
+                importWithOptionalPhase(records, phase != null ? RecordPhase.fromIriOrName(phase) : null);
         LOG.trace("Records imported with result: {}.", importResult);
         return importResult;
     }
 
+    private RecordImportResult importWithOptionalPhase(List<Record> records, RecordPhase targetPhase) {
+        return targetPhase != null ? recordService.importRecords(records, targetPhase) :
+               recordService.importRecords(records);
+    }
+
 
     @PutMapping(value = "/{key}", consumes = MediaType.APPLICATION_JSON_VALUE)
     @ResponseStatus(HttpStatus.NO_CONTENT)
@@ -1,5 +1,7 @@
 package cz.cvut.kbss.study.rest.handler;
 
+import cz.cvut.kbss.study.persistence.dao.util.CursorPage;
+import cz.cvut.kbss.study.persistence.dao.util.RecordCursor;
 import cz.cvut.kbss.study.rest.event.PaginatedResultRetrievedEvent;
 import cz.cvut.kbss.study.rest.util.HttpPaginationLink;
 import cz.cvut.kbss.study.util.Constants;
@@ -19,22 +21,48 @@ public class HateoasPagingListener implements ApplicationListener<PaginatedResul
     public void onApplicationEvent(PaginatedResultRetrievedEvent event) {
         final Page<?> page = event.getPage();
         final LinkHeader header = new LinkHeader();
+        if (page instanceof CursorPage<?> cursorPage) {
+            addKeysetLinks(cursorPage, event.getUriBuilder(), header);
+        } else {
+            addOffsetLinks(page, event.getUriBuilder(), header);
+        }
+        if (header.hasLinks()) {
+            event.getResponse().addHeader(HttpHeaders.LINK, header.toString());
+        }
+        event.getResponse().addHeader(Constants.X_TOTAL_COUNT_HEADER, Long.toString(page.getTotalElements()));
+    }
+
+    private void addOffsetLinks(Page<?> page, UriComponentsBuilder uriBuilder, LinkHeader header) {
         if (!page.isEmpty() || page.getTotalPages() > 0) {
             // Always add first and last links, even when there is just one page. This allows clients to know where the limits
             // are
-            header.addLink(generateFirstPageLink(page, event.getUriBuilder()), HttpPaginationLink.FIRST);
-            header.addLink(generateLastPageLink(page, event.getUriBuilder()), HttpPaginationLink.LAST);
+            header.addLink(generateFirstPageLink(page, uriBuilder), HttpPaginationLink.FIRST);
+            header.addLink(generateLastPageLink(page, uriBuilder), HttpPaginationLink.LAST);
         }
         if (page.hasNext()) {
-            header.addLink(generateNextPageLink(page, event.getUriBuilder()), HttpPaginationLink.NEXT);
+            header.addLink(generateNextPageLink(page, uriBuilder), HttpPaginationLink.NEXT);
         }
         if (page.hasPrevious()) {
-            header.addLink(generatePreviousPageLink(page, event.getUriBuilder()), HttpPaginationLink.PREVIOUS);
+            header.addLink(generatePreviousPageLink(page, uriBuilder), HttpPaginationLink.PREVIOUS);
         }
-        if (header.hasLinks()) {
-            event.getResponse().addHeader(HttpHeaders.LINK, header.toString());
+    }
+
+    /**
+     * Keyset pages can be traversed only forward, so just the first and next links are generated.
+     */
+    private void addKeysetLinks(CursorPage<?> page, UriComponentsBuilder uriBuilder, LinkHeader header) {
+        if (!page.isEmpty()) {
+            header.addLink(generateCursorLink(RecordCursor.initial(), page, uriBuilder), HttpPaginationLink.FIRST);
         }
-        event.getResponse().addHeader(Constants.X_TOTAL_COUNT_HEADER, Long.toString(page.getTotalElements()));
+        page.getNextCursor().ifPresent(
+                cursor -> header.addLink(generateCursorLink(cursor, page, uriBuilder), HttpPaginationLink.NEXT));
+    }
+
+    private String generateCursorLink(RecordCursor cursor, Page<?> page, UriComponentsBuilder uriBuilder) {
+        return uriBuilder.replaceQueryParam(Constants.PAGE_PARAM)
+                         .replaceQueryParam(Constants.CURSOR_PARAM, cursor.encode())
+                         .replaceQueryParam(Constants.PAGE_SIZE_PARAM, page.getSize())
+                         .build().encode().toUriString();
     }
 
     private String generateNextPageLink(Page<?> page, UriComponentsBuilder uriBuilder) {
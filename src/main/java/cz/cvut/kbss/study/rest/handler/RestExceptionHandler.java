@@ -15,6 +15,8 @@ import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * Exception handlers for REST controllers.
  * <p>
@@ -95,6 +97,15 @@ public class RestExceptionHandler {
         return new ResponseEntity<>(errorInfo(request, e), HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorInfo> rejectedExecutionException(HttpServletRequest request,
+                                                                RejectedExecutionException e) {
+        logException(request, e);
+        return new ResponseEntity<>(ErrorInfo.createWithMessage("Server is busy, try again later.",
+                                                                request.getRequestURI()),
+                                    HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     void logException(HttpServletRequest request, RuntimeException e) {
         LOG.debug("Request to '{}' failed due to error: {}", request.getRequestURI(), e.getMessage());
     }
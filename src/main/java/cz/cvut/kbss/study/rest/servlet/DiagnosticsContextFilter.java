@@ -17,24 +17,72 @@
  */
 package cz.cvut.kbss.study.rest.servlet;
 
+import cz.cvut.kbss.study.util.RequestTimings;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.web.filter.GenericFilterBean;
 
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.security.Principal;
+import java.util.Map;
 
 /**
  * Stores user info into the Mapped Diagnostic Context for the logging framework.
+ * <p>
+ * If enabled (for all requests, or, if allowed, for a single request by the {@link #TIMING_REQUEST_HEADER} header), the
+ * filter also collects {@link RequestTimings} of the request. The breakdown is sent to the client in the {@link
+ * #SERVER_TIMING_HEADER} header and logged on DEBUG level when the request has been processed, with the individual
+ * timings in MDC. Since headers cannot be changed once the response body is being written, the header contains timings
+ * collected until then, the log contains all of them.
+ * <p>
+ * Timings are collected only on the thread processing the request, work done asynchronously after the request has been
+ * processed (e.g., writing a {@link org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody}) is
+ * not included.
  */
 public class DiagnosticsContextFilter extends GenericFilterBean {
 
+    private static final Logger LOG = LoggerFactory.getLogger(DiagnosticsContextFilter.class);
+
     static final String MDC_KEY = "username";
 
+    static final String TIMING_MDC_KEY_PREFIX = "timing.";
+
+    /**
+     * Request header enabling collection of timings for the request.
+     */
+    public static final String TIMING_REQUEST_HEADER = "X-Server-Timing";
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    static final String REQUEST_START_ATTRIBUTE = DiagnosticsContextFilter.class.getName() + ".start";
+
+    private final boolean timingEnabled;
+
+    private final boolean timingHeaderEnabled;
+
+    public DiagnosticsContextFilter() {
+        this(false, false);
+    }
+
+    /**
+     * @param timingEnabled       Whether to collect timings of all requests
+     * @param timingHeaderEnabled Whether to collect timings of requests with the {@link #TIMING_REQUEST_HEADER} header
+     */
+    public DiagnosticsContextFilter(boolean timingEnabled, boolean timingHeaderEnabled) {
+        this.timingEnabled = timingEnabled;
+        this.timingHeaderEnabled = timingHeaderEnabled;
+    }
+
     @Override
     public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain)
             throws IOException, ServletException {
@@ -48,11 +96,130 @@ public class DiagnosticsContextFilter extends GenericFilterBean {
         }
 
         try {
-            filterChain.doFilter(servletRequest, servletResponse);
+            if (isTimingRequested(req)) {
+                doFilterWithTimings(req, (HttpServletResponse) servletResponse, filterChain);
+            } else {
+                filterChain.doFilter(servletRequest, servletResponse);
+            }
         } finally {
             if (mdcSet) {
                 MDC.remove(MDC_KEY);
             }
         }
     }
+
+    private boolean isTimingRequested(HttpServletRequest req) {
+        return timingEnabled || (timingHeaderEnabled && req.getHeader(TIMING_REQUEST_HEADER) != null);
+    }
+
+    private static void doFilterWithTimings(HttpServletRequest req, HttpServletResponse resp, FilterChain filterChain)
+            throws IOException, ServletException {
+        final long now = System.nanoTime();
+        final RequestTimings timings;
+        if (req.getAttribute(REQUEST_START_ATTRIBUTE) instanceof Long start) {
+            timings = RequestTimings.start(start);
+            // Time spent in the preceding filters, mainly in the security filter chain
+            RequestTimings.record(RequestTimings.SECURITY, now - start);
+        } else {
+            timings = RequestTimings.start(now);
+        }
+        final ServerTimingResponseWrapper response = new ServerTimingResponseWrapper(resp, timings);
+        try {
+            filterChain.doFilter(req, response);
+        } finally {
+            response.addServerTimingHeader();
+            logTimings(req, resp, timings);
+            RequestTimings.stop();
+        }
+    }
+
+    private static void logTimings(HttpServletRequest req, HttpServletResponse resp, RequestTimings timings) {
+        if (!LOG.isDebugEnabled()) {
+            return;
+        }
+        final Map<String, String> values = timings.toMap();
+        values.forEach((name, value) -> MDC.put(TIMING_MDC_KEY_PREFIX + name, value));
+        try {
+            LOG.debug("{} {} completed with status {}, timings: {}", req.getMethod(), req.getRequestURI(),
+                      resp.getStatus(), values);
+        } finally {
+            values.keySet().forEach(name -> MDC.remove(TIMING_MDC_KEY_PREFIX + name));
+        }
+    }
+
+    /**
+     * Adds the {@code Server-Timing} header before the response gets committed.
+     */
+    private static class ServerTimingResponseWrapper extends HttpServletResponseWrapper {
+
+        private final RequestTimings timings;
+
+        private boolean headerAdded;
+
+        private ServerTimingResponseWrapper(HttpServletResponse response, RequestTimings timings) {
+            super(response);
+            this.timings = timings;
+        }
+
+        private void addServerTimingHeader() {
+            if (!headerAdded && !isCommitted()) {
+                setHeader(SERVER_TIMING_HEADER, timings.toServerTiming());
+            }
+            this.headerAdded = true;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addServerTimingHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addServerTimingHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addServerTimingHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addServerTimingHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addServerTimingHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addServerTimingHeader();
+            super.sendRedirect(location);
+        }
+    }
+
+    /**
+     * Marks the start of request processing, so that {@link DiagnosticsContextFilter} can include the time spent in
+     * filters preceding it (e.g., security) in the request timings.
+     * <p>
+     * It should be registered before any other filter.
+     */
+    public static class RequestStartFilter extends GenericFilterBean {
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+                throws IOException, ServletException {
+            if (request.getAttribute(REQUEST_START_ATTRIBUTE) == null) {
+                request.setAttribute(REQUEST_START_ATTRIBUTE, System.nanoTime());
+            }
+            chain.doFilter(request, response);
+        }
+    }
 }
@@ -1,8 +1,10 @@
 package cz.cvut.kbss.study.rest.util;
 
 import cz.cvut.kbss.study.model.RecordPhase;
+import cz.cvut.kbss.study.persistence.dao.util.RecordCursor;
 import cz.cvut.kbss.study.persistence.dao.util.RecordFilterParams;
 import cz.cvut.kbss.study.rest.exception.BadRequestException;
+import cz.cvut.kbss.study.util.Constants;
 import java.util.HashSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -79,6 +81,13 @@ public class RecordFilterMapper {
         result.setFormTemplateIds(
             new HashSet<>(params.getOrDefault(FORM_TEMPLATE_ID_PARAM, Collections.emptyList()))
         );
+        getSingleValue(Constants.CURSOR_PARAM, params).ifPresent(s -> {
+            try {
+                result.setCursor(RecordCursor.decode(s));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Value '" + s + "' is not a valid record cursor.");
+            }
+        });
         return result;
     }
 
@@ -127,7 +127,8 @@ public class RestUtils {
     /**
      * Resolves paging and sorting configuration from the specified request parameters.
      * <p>
-     * If no paging and filtering info is specified, an {@link Pageable#unpaged()} object is returned.
+     * If no paging and filtering info is specified, an {@link Pageable#unpaged()} object is returned. A keyset
+     * pagination cursor without page number is treated as a request for the first page.
      * <p>
      * Note that for sorting, {@literal +} should be used before sorting property name to specify ascending order,
      * {@literal -} for descending order, for example, {@literal -date} indicates sorting by date in descending order.
@@ -136,23 +137,34 @@ public class RestUtils {
      * @return {@code Pageable} containing values resolved from the params or defaults
      */
     public static Pageable resolvePaging(MultiValueMap<String, String> params) {
-        if (params.getFirst(Constants.PAGE_PARAM) == null) {
+        if (params.getFirst(Constants.PAGE_PARAM) == null && !params.containsKey(Constants.CURSOR_PARAM)) {
             return Pageable.unpaged();
         }
-        final int page = Integer.parseInt(params.getFirst(Constants.PAGE_PARAM));
+        final int page = Optional.ofNullable(params.getFirst(Constants.PAGE_PARAM)).map(Integer::parseInt).orElse(0);
         final int size = Optional.ofNullable(params.getFirst(Constants.PAGE_SIZE_PARAM)).map(Integer::parseInt)
                                  .orElse(Constants.DEFAULT_PAGE_SIZE);
-        if (params.containsKey(Constants.SORT_PARAM)) {
-            final Sort sort = Sort.by(params.get(Constants.SORT_PARAM).stream().map(sp -> {
-                if (sp.charAt(0) == SORT_ASC || sp.charAt(0) == SORT_DESC) {
-                    final String property = sp.substring(1);
-                    return sp.charAt(0) == SORT_DESC ? Sort.Order.desc(property) : Sort.Order.asc(property);
-                }
-                return Sort.Order.asc(sp);
-            }).collect(Collectors.toList()));
-            return PageRequest.of(page, size, sort);
+        return PageRequest.of(page, size, resolveSort(params));
+    }
+
+    /**
+     * Resolves sorting specified by the {@link Constants#SORT_PARAM} query parameter.
+     * <p>
+     * Unlike {@link #resolvePaging(MultiValueMap)}, sorting is resolved also when no page is requested.
+     *
+     * @param params Request parameters
+     * @return Resolved sort, {@link Sort#unsorted()} if none is specified
+     */
+    public static Sort resolveSort(MultiValueMap<String, String> params) {
+        if (!params.containsKey(Constants.SORT_PARAM)) {
+            return Sort.unsorted();
         }
-        return PageRequest.of(page, size);
+        return Sort.by(params.get(Constants.SORT_PARAM).stream().map(sp -> {
+            if (sp.charAt(0) == SORT_ASC || sp.charAt(0) == SORT_DESC) {
+                final String property = sp.substring(1);
+                return sp.charAt(0) == SORT_DESC ? Sort.Order.desc(property) : Sort.Order.asc(property);
+            }
+            return Sort.Order.asc(sp);
+        }).collect(Collectors.toList()));
     }
 
     public static boolean isSupportedExportType(MediaType mt){
@@ -22,6 +22,11 @@ public class SecurityConstants {
 
     public static final String COOKIE_URI = "/";
 
+    /**
+     * Metrics in the Prometheus format, available only to users allowed to read statistics.
+     */
+    public static final String METRICS_URI = "/actuator/prometheus";
+
     /**
      * Session timeout in seconds.
      */
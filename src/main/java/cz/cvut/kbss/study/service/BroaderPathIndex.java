@@ -0,0 +1,130 @@
+package cz.cvut.kbss.study.service;
+
+import cz.cvut.kbss.study.model.export.Path;
+import cz.cvut.kbss.study.persistence.dao.CodeListValuesDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * In-memory index of paths of broader concepts in the form generator vocabulary.
+ * <p>
+ * The index is built from all {@code skos:broader} relations using a single query, instead of evaluating transitive
+ * property paths for each concept. Each concept is mapped to its ancestors, starting from the top-level concept, of
+ * which at most five (L1 to L5) are kept.
+ * <p>
+ * Only one path is kept for each concept, because the record export has a single set of path columns. When a concept
+ * has several broader concepts, the one with the lexicographically smallest identifier is followed. This makes the
+ * exported path stable across index rebuilds, whereas the original per-concept query returned one of the paths
+ * arbitrarily.
+ * <p>
+ * The index is built lazily and rebuilt when it is older than the configured maximum age or after it has been
+ * invalidated.
+ */
+public class BroaderPathIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BroaderPathIndex.class);
+
+    private final CodeListValuesDao codeListValuesDao;
+
+    private final Duration maxAge;
+
+    private volatile Snapshot snapshot;
+
+    public BroaderPathIndex(CodeListValuesDao codeListValuesDao, Duration maxAge) {
+        this.codeListValuesDao = codeListValuesDao;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Gets paths of broader concepts of the specified concepts.
+     *
+     * @param concepts Concept identifiers
+     * @return Map of concept identifiers to their paths (one for each concept, see the class documentation), concepts
+     * without broader concepts are not present
+     */
+    public Map<URI, Path> getPaths(Collection<URI> concepts) {
+        final Map<URI, Path> index = current().paths;
+        final Map<URI, Path> result = new HashMap<>();
+        concepts.forEach(c -> {
+            final Path path = index.get(c);
+            if (path != null) {
+                result.put(c, path);
+            }
+        });
+        return result;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired(maxAge)) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || current.isExpired(maxAge)) {
+                current = new Snapshot(buildIndex(codeListValuesDao.findBroaderPairs()), Instant.now());
+                LOG.debug("Built broader path index of {} concepts.", current.paths.size());
+                this.snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Discards the index, so that it is rebuilt on next access.
+     * <p>
+     * Waits for any running build to finish, so that it cannot store data read before the invalidation.
+     */
+    public synchronized void invalidate() {
+        this.snapshot = null;
+    }
+
+    static Map<URI, Path> buildIndex(List<URI[]> broaderPairs) {
+        final Map<URI, URI> broader = new HashMap<>();
+        broaderPairs.forEach(pair -> broader.merge(pair[0], pair[1],
+                                                   (a, b) -> a.toString().compareTo(b.toString()) <= 0 ? a : b));
+        final Map<URI, Path> paths = new HashMap<>(broader.size());
+        broader.keySet().forEach(concept -> paths.put(concept, toPath(concept, resolveAncestors(concept, broader))));
+        return Collections.unmodifiableMap(paths);
+    }
+
+    /**
+     * Resolves ancestors of the specified concept, starting with the top-level one.
+     */
+    private static List<URI> resolveAncestors(URI concept, Map<URI, URI> broader) {
+        final LinkedList<URI> ancestors = new LinkedList<>();
+        final Set<URI> visited = new HashSet<>();
+        visited.add(concept);
+        URI current = broader.get(concept);
+        // Guard against cycles in the vocabulary
+        while (current != null && visited.add(current)) {
+            ancestors.addFirst(current);
+            current = broader.get(current);
+        }
+        return ancestors;
+    }
+
+    private static Path toPath(URI concept, List<URI> ancestors) {
+        final Path path = new Path();
+        path.setUri(concept);
+        final Iterator<URI> it = ancestors.iterator();
+        path.setL1(it.hasNext() ? it.next() : null);
+        path.setL2(it.hasNext() ? it.next() : null);
+        path.setL3(it.hasNext() ? it.next() : null);
+        path.setL4(it.hasNext() ? it.next() : null);
+        path.setL5(it.hasNext() ? it.next() : null);
+        return path;
+    }
+
+    private record Snapshot(Map<URI, Path> paths, Instant created) {
+
+        boolean isExpired(Duration maxAge) {
+            return created.plus(maxAge).isBefore(Instant.now());
+        }
+    }
+}
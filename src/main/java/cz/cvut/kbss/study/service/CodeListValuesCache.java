@@ -0,0 +1,154 @@
+package cz.cvut.kbss.study.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import cz.cvut.kbss.study.model.export.NamedItem;
+import cz.cvut.kbss.study.model.export.Path;
+import cz.cvut.kbss.study.persistence.dao.CodeListValuesDao;
+import cz.cvut.kbss.study.service.event.CodeListValuesChangedEvent;
+import cz.cvut.kbss.study.util.ConfigParam;
+import cz.cvut.kbss.study.util.Configuration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Caches code list values read from the form generator repository by {@link CodeListValuesDao}.
+ * <p>
+ * Code lists change rarely, so their values are cached for a configurable time, separately for each code list. Labels
+ * of code list items are cached per item, so that only items not seen before are looked up. Items without a label are
+ * cached as well. Paths of broader concepts are resolved using a {@link BroaderPathIndex}.
+ * <p>
+ * The whole cache is invalidated when a {@link CodeListValuesChangedEvent} is published.
+ */
+@Service
+public class CodeListValuesCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CodeListValuesCache.class);
+
+    /**
+     * Key of caches holding a complete code list.
+     */
+    private static final String ALL = "all";
+
+    private final CodeListValuesDao codeListValuesDao;
+
+    private final Cache<URI, Optional<String>> itemLabels;
+
+    private final BroaderPathIndex pathIndex;
+
+    private final Cache<String, Map<URI, String>> aircraftLabels;
+
+    private final Cache<String, Map<URI, String>> institutionLabels;
+
+    public CodeListValuesCache(CodeListValuesDao codeListValuesDao, ConfigReader configReader,
+                               ObjectProvider<MeterRegistry> meterRegistry) {
+        this.codeListValuesDao = codeListValuesDao;
+        final int maxSize = configReader.getIntConfig(ConfigParam.CODE_LISTS_CACHE_MAX_SIZE,
+                                                      Configuration.CodeLists.Cache.DEFAULT_MAX_SIZE);
+        final Duration defaultTtl = Configuration.CodeLists.Cache.DEFAULT_TTL;
+        this.itemLabels = createCache(maxSize,
+                                      configReader.getDurationConfig(ConfigParam.CODE_LISTS_CACHE_ITEMS_TTL,
+                                                                     defaultTtl));
+        this.pathIndex = new BroaderPathIndex(codeListValuesDao,
+                                              configReader.getDurationConfig(ConfigParam.CODE_LISTS_CACHE_PATHS_TTL,
+                                                                             defaultTtl));
+        this.aircraftLabels = createCache(1, configReader.getDurationConfig(ConfigParam.CODE_LISTS_CACHE_AIRCRAFT_TTL,
+                                                                            defaultTtl));
+        this.institutionLabels = createCache(1, configReader.getDurationConfig(
+                ConfigParam.CODE_LISTS_CACHE_INSTITUTIONS_TTL, Configuration.CodeLists.Cache.DEFAULT_INSTITUTIONS_TTL));
+        meterRegistry.ifAvailable(registry -> {
+            CaffeineCacheMetrics.monitor(registry, itemLabels, "codeLists.items");
+            CaffeineCacheMetrics.monitor(registry, aircraftLabels, "codeLists.aircraft");
+            CaffeineCacheMetrics.monitor(registry, institutionLabels, "codeLists.institutions");
+        });
+    }
+
+    private static <K, V> Cache<K, V> createCache(int maxSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                       .maximumSize(maxSize)
+                       .expireAfterWrite(ttl)
+                       .recordStats()
+                       .build();
+    }
+
+    /**
+     * Gets labels of the specified code list items.
+     *
+     * @param items Code list item identifiers
+     * @return Map of item identifiers to labels, items without a label are not present
+     */
+    public Map<URI, String> findItemLabels(Collection<URI> items) {
+        final Map<URI, String> result = new HashMap<>();
+        itemLabels.getAll(items, this::loadItemLabels)
+                  .forEach((uri, label) -> label.ifPresent(l -> result.put(uri, l)));
+        return result;
+    }
+
+    private Map<URI, Optional<String>> loadItemLabels(Set<? extends URI> items) {
+        final Map<URI, Optional<String>> result = new HashMap<>();
+        items.forEach(u -> result.put(u, Optional.empty()));
+        codeListValuesDao.findItems(new HashSet<>(items))
+                         .forEach(i -> result.put(i.getUri(), Optional.ofNullable(i.getName())));
+        return result;
+    }
+
+    /**
+     * Gets paths of broader concepts of the specified concepts.
+     *
+     * @param elements Concept identifiers
+     * @return Map of concept identifiers to their broader concept paths, concepts without broader concepts are not
+     * present
+     */
+    public Map<URI, Path> getBroaderPaths(Collection<URI> elements) {
+        return pathIndex.getPaths(elements);
+    }
+
+    /**
+     * Gets labels of aircraft types.
+     *
+     * @return Map of aircraft type identifiers to labels
+     */
+    public Map<URI, String> findAircraftLabels() {
+        return aircraftLabels.get(ALL, k -> toLabels(codeListValuesDao.findAircraft()));
+    }
+
+    /**
+     * Gets labels of institutions.
+     *
+     * @return Map of institution identifiers to labels
+     */
+    public Map<URI, String> findInstitutionLabels() {
+        return institutionLabels.get(ALL, k -> toLabels(codeListValuesDao.findInstitutions()));
+    }
+
+    private static Map<URI, String> toLabels(List<NamedItem> items) {
+        final Map<URI, String> labels = new HashMap<>();
+        items.forEach(i -> labels.put(i.getUri(), i.getName()));
+        return Collections.unmodifiableMap(labels);
+    }
+
+    /**
+     * Discards all cached values.
+     */
+    public void invalidate() {
+        LOG.debug("Invalidating code list values cache.");
+        itemLabels.invalidateAll();
+        pathIndex.invalidate();
+        aircraftLabels.invalidateAll();
+        institutionLabels.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCodeListValuesChanged(CodeListValuesChangedEvent event) {
+        invalidate();
+    }
+}
@@ -1,15 +1,22 @@
 package cz.cvut.kbss.study.service;
 
 import cz.cvut.kbss.study.util.ConfigParam;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.Map;
+import java.util.function.Function;
 
 @Component
 public class ConfigReader {
 
+    private static final Logger LOG = LoggerFactory.getLogger(ConfigReader.class);
+
     private final Environment environment;
 
     public ConfigReader(Environment environment) {
@@ -33,6 +40,57 @@ public class ConfigReader {
         return defaultValue;
     }
 
+    /**
+     * Gets value of the specified configuration parameter as a positive integer.
+     *
+     * @param param        Configuration parameter
+     * @param defaultValue Value to use when the parameter is not set or its value is not a positive integer
+     * @return Configuration parameter value
+     */
+    public int getIntConfig(ConfigParam param, int defaultValue) {
+        final int value = parse(param, defaultValue, Integer::parseInt);
+        if (value < 1) {
+            LOG.warn("Invalid value '{}' of {}, using default {}.", value, param, defaultValue);
+            return defaultValue;
+        }
+        return value;
+    }
+
+    /**
+     * Gets value of the specified configuration parameter as a number.
+     *
+     * @param param        Configuration parameter
+     * @param defaultValue Value to use when the parameter is not set or its value is not a number
+     * @return Configuration parameter value
+     */
+    public double getDoubleConfig(ConfigParam param, double defaultValue) {
+        return parse(param, defaultValue, Double::parseDouble);
+    }
+
+    /**
+     * Gets value of the specified configuration parameter as a duration (e.g., {@code 24h}, {@code 500ms}, or ISO-8601).
+     *
+     * @param param        Configuration parameter
+     * @param defaultValue Value to use when the parameter is not set or its value is not a duration
+     * @return Configuration parameter value
+     */
+    public Duration getDurationConfig(ConfigParam param, Duration defaultValue) {
+        return parse(param, defaultValue, DurationStyle::detectAndParse);
+    }
+
+    private <T> T parse(ConfigParam param, T defaultValue, Function<String, T> parser) {
+        final String value = getConfig(param);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return parser.apply(value.trim());
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Invalid value '{}' of {}, using default {}.", value, param, defaultValue);
+            return defaultValue;
+        }
+    }
+
     public String getConfigWithParams(ConfigParam param, Map<String, String> params) {
         String str = environment.getProperty(param.toString());
         for ( String key : params.keySet() ) {
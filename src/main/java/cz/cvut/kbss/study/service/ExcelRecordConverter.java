@@ -1,52 +1,179 @@
 package cz.cvut.kbss.study.service;
 
- import cz.cvut.kbss.study.model.RecordPhase;
+import cz.cvut.kbss.study.model.RecordPhase;
 import cz.cvut.kbss.study.model.export.ExportRecord;
 import cz.cvut.kbss.study.model.export.Path;
 import cz.cvut.kbss.study.model.export.RawRecord;
-import cz.cvut.kbss.study.persistence.dao.CodeListValuesDao;
+import cz.cvut.kbss.study.persistence.dao.util.CursorPage;
+import cz.cvut.kbss.study.persistence.dao.util.RecordCursor;
 import cz.cvut.kbss.study.util.Utils;
-import org.apache.poi.xssf.usermodel.XSSFRow;
+import jakarta.annotation.PreDestroy;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Service
 public class ExcelRecordConverter {
 
-    private final CodeListValuesDao codeListValuesDao;
+    /**
+     * Number of rows kept in memory by the streaming workbook, older rows are flushed to a temporary file.
+     */
+    private static final int ROW_ACCESS_WINDOW_SIZE = 100;
 
-    public ExcelRecordConverter(CodeListValuesDao codeListValuesDao) {
-        this.codeListValuesDao = codeListValuesDao;
+    /**
+     * Maximum number of code list lookups running concurrently.
+     */
+    private static final int LOOKUP_THREAD_COUNT = 4;
+
+    /**
+     * Index of the sheet into which records are written.
+     */
+    private static final int DATA_SHEET_INDEX = 1;
+
+    /**
+     * Path of an aircraft component without broader components, written as empty path cells.
+     */
+    private static final List<String> EMPTY_PATH = Arrays.asList(null, null, null, null, null);
+
+    private final CodeListValuesCache codeListValuesCache;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Code list lookups are independent federated queries, so they are run concurrently. When all the threads are
+     * busy and the queue is full, lookups are run by the exporting thread.
+     */
+    private final ExecutorService lookupExecutor = new ThreadPoolExecutor(
+            LOOKUP_THREAD_COUNT, LOOKUP_THREAD_COUNT, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(LOOKUP_THREAD_COUNT * 16), createThreadFactory(),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
+    public ExcelRecordConverter(CodeListValuesCache codeListValuesCache,
+                                PlatformTransactionManager transactionManager) {
+        this.codeListValuesCache = codeListValuesCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+    }
+
+    private static ThreadFactory createThreadFactory() {
+        final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("export-lookup-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        lookupExecutor.shutdownNow();
     }
 
-    public InputStream convert(List<RawRecord> rawRecords){
+    /**
+     * Writes an Excel export of the specified records into the specified output stream.
+     *
+     * @param rawRecords Records to export
+     * @param output     Stream to write the workbook to
+     */
+    public void convert(List<RawRecord> rawRecords, OutputStream output) throws IOException {
+        convert(cursor -> new PageImpl<>(rawRecords), output);
+    }
+
+    /**
+     * Writes an Excel export of records retrieved chunk by chunk into the specified output stream.
+     * <p>
+     * Chunks are requested as long as the loader returns a {@link CursorPage} with a next cursor. Rows are written
+     * using a streaming workbook and code list labels are resolved for each chunk separately, so memory use does not
+     * depend on the number of exported records.
+     *
+     * @param chunkLoader Retrieves chunk of records following the specified cursor
+     * @param output      Stream to write the workbook to
+     */
+    public void convert(Function<RecordCursor, Page<RawRecord>> chunkLoader, OutputStream output)
+            throws IOException {
+        final SXSSFWorkbook workbook;
+        // The streaming sheet can only append rows following those already present in the template
+        final int firstRowIndex;
+        try (final InputStream template = Utils.class.getClassLoader()
+                                                  .getResourceAsStream("templates/record-export-template.xlsx")) {
+            final XSSFWorkbook templateWorkbook = new XSSFWorkbook(template);
+            final XSSFSheet templateSheet = templateWorkbook.getSheetAt(DATA_SHEET_INDEX);
+            firstRowIndex = templateSheet.getLastRowNum() + 1;
+            workbook = new SXSSFWorkbook(templateWorkbook, ROW_ACCESS_WINDOW_SIZE);
+        }
         try {
-            XSSFWorkbook workbook = new XSSFWorkbook(Utils.class.getClassLoader().getResourceAsStream("templates/record-export-template.xlsx"));
-            List<ExportRecord> exportRecords = findExportRecordsData(rawRecords);
-            addDataToExcel(workbook, exportRecords);
-            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final Sheet sheet = workbook.getSheetAt(DATA_SHEET_INDEX);
+            final CompletableFuture<Map<URI, String>> commonLabels = findCommonLabels();
+            int rowIndex = firstRowIndex;
+            RecordCursor cursor = RecordCursor.initial();
+            while (cursor != null) {
+                final Page<RawRecord> chunk = chunkLoader.apply(cursor);
+                rowIndex = addDataToExcel(sheet, rowIndex, findExportRecordsData(chunk.getContent(), commonLabels));
+                cursor = chunk instanceof CursorPage<RawRecord> cursorPage ? cursorPage.getNextCursor().orElse(null) :
+                         null;
+            }
             workbook.write(output);
-            return new ByteArrayInputStream(output.toByteArray());
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        } finally {
+            workbook.dispose();
+            workbook.close();
         }
     }
 
-    private List<ExportRecord> findExportRecordsData(List<RawRecord> rawRecords){
+    /**
+     * Labels of code list items which are not specific to the exported records.
+     */
+    private CompletableFuture<Map<URI, String>> findCommonLabels() {
+        final CompletableFuture<Map<URI, String>> aircraft = lookup(codeListValuesCache::findAircraftLabels);
+        final CompletableFuture<Map<URI, String>> institutions = lookup(codeListValuesCache::findInstitutionLabels);
+        return aircraft.thenCombine(institutions, (a, i) -> {
+            final Map<URI, String> labels = new HashMap<>(a);
+            labels.putAll(i);
+            return labels;
+        });
+    }
+
+    /**
+     * Runs the specified code list lookup asynchronously, in its own read-only transaction.
+     */
+    private <T> CompletableFuture<T> lookup(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> query.get()), lookupExecutor);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+    }
+
+    private List<ExportRecord> findExportRecordsData(List<RawRecord> rawRecords,
+                                                     CompletableFuture<Map<URI, String>> commonLabels){
         Map<URI, String> translatorMap = new HashMap<>();
-        List<Path> paths = codeListValuesDao.getBroaderPath(rawRecords.stream().map(r -> r.getAc_comp())
+        final Set<URI> acComps = rawRecords.stream().map(r -> r.getAc_comp())
                 .filter(u -> u != null)
-                .collect(Collectors.toSet()));
+                .collect(Collectors.toSet());
+        final CompletableFuture<Map<URI, Path>> pathsFuture =
+                lookup(() -> codeListValuesCache.getBroaderPaths(acComps));
         Set<URI> uris = rawRecords.stream().flatMap(r -> Stream.of(
                         r.getClassificationOfOccurrence(), r.getConsequence(), r.getFailureAscertainmentCircumstances(),
                         r.getFailureCause(), r.getAc_comp(), r.getFhaEvent(), r.getMission(), r.getRepair(),
@@ -54,16 +181,21 @@ public class ExcelRecordConverter {
                 .distinct()
                 .filter(u -> u != null)
                 .collect(Collectors.toSet());
+        final CompletableFuture<Map<URI, String>> itemsFuture = lookup(() -> codeListValuesCache.findItemLabels(uris));
+        // Labels of path levels can be looked up only once the paths are known
+        final CompletableFuture<Map<URI, String>> pathItemsFuture = pathsFuture.thenCompose(paths -> {
+            final Set<URI> pathUris = paths.values().stream()
+                    .flatMap(p -> Stream.of(p.getL1(), p.getL2(), p.getL3(), p.getL4(), p.getL5()))
+                    .filter(u -> u != null && !uris.contains(u))
+                    .collect(Collectors.toSet());
+            return pathUris.isEmpty() ? CompletableFuture.<Map<URI, String>>completedFuture(Map.of()) :
+                   lookup(() -> codeListValuesCache.findItemLabels(pathUris));
+        });
 
-        uris.addAll(paths.stream()
-                .flatMap(p -> Stream.of(p.getL1(), p.getL2(), p.getL3(), p.getL4(), p.getL5()))
-                .filter(u -> u != null).collect(Collectors.toSet())
-        );
-
-
-        codeListValuesDao.findItems(uris).forEach(i -> translatorMap.put(i.getUri(), i.getName()));
-        codeListValuesDao.findAircraft().forEach(i -> translatorMap.put(i.getUri(), i.getName()));
-        codeListValuesDao.findInstitutions().forEach(i -> translatorMap.put(i.getUri(), i.getName()));
+        Map<URI, Path> paths = join(pathsFuture);
+        translatorMap.putAll(join(itemsFuture));
+        translatorMap.putAll(join(pathItemsFuture));
+        translatorMap.putAll(join(commonLabels));
         rawRecords.stream().map(r -> r.getPhase()).filter(p -> p != null)
                 .forEach(pUri ->
                         Optional.of(RecordPhase.fromIri(pUri.toString()))
@@ -71,7 +203,7 @@ public class ExcelRecordConverter {
                 );
 
         Map<URI, List<String>> pathMap = new HashMap<>();
-        paths.forEach(p -> pathMap.put(p.getUri(), Arrays.asList(
+        paths.forEach((uri, p) -> pathMap.put(uri, Arrays.asList(
                 translatorMap.get(p.getL1()),
                 translatorMap.get(p.getL2()),
                 translatorMap.get(p.getL3()),
@@ -85,7 +217,9 @@ public class ExcelRecordConverter {
             ExportRecord er = new ExportRecord();
             exportRecords.add(er);
             er.setPhase(translatorMap.get(r.getPhase()));
-            er.setPath(pathMap.get(r.getAc_comp()));
+            if (r.getAc_comp() != null) {
+                er.setPath(pathMap.getOrDefault(r.getAc_comp(), EMPTY_PATH));
+            }
             er.setInstitution(translatorMap.get(r.getInstitution()));
             er.setAircraftType(translatorMap.get(r.getAircraftType()));
             er.setAc_compName(translatorMap.get(r.getAc_comp()));
@@ -118,12 +252,9 @@ public class ExcelRecordConverter {
     }
 
 
-    private void addDataToExcel(XSSFWorkbook workbook, List<ExportRecord> data) throws IOException {
-        XSSFSheet s = workbook.getSheetAt(1);
-
-        int rowIndex = 1;
+    private int addDataToExcel(Sheet s, int rowIndex, List<ExportRecord> data) {
         for(ExportRecord rec : data) {
-            XSSFRow r = s.createRow(rowIndex++);
+            Row r = s.createRow(rowIndex++);
             r.createCell(0).setCellValue(rowIndex);
             r.createCell(1).setCellValue(rec.getPhase());
             r.createCell(2).setCellValue(rec.getCreated());
@@ -165,6 +296,7 @@ public class ExcelRecordConverter {
             r.createCell(34).setCellValue(rec.getNotes());
             r.createCell(35).setCellValue(rec.getFhaEvent());
         }
+        return rowIndex;
     }
 
 }
@@ -1,105 +1,303 @@
 package cz.cvut.kbss.study.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import cz.cvut.kbss.study.config.WebAppConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import cz.cvut.kbss.study.dto.PublishJob;
 import cz.cvut.kbss.study.dto.RecordImportResult;
+import cz.cvut.kbss.study.exception.NotFoundException;
 import cz.cvut.kbss.study.model.Record;
 import cz.cvut.kbss.study.model.RecordPhase;
+import cz.cvut.kbss.study.persistence.dao.util.CursorPage;
+import cz.cvut.kbss.study.persistence.dao.util.RecordCursor;
 import cz.cvut.kbss.study.persistence.dao.util.RecordFilterParams;
+import cz.cvut.kbss.study.persistence.dao.util.RecordSort;
 import cz.cvut.kbss.study.service.security.SecurityUtils;
 import cz.cvut.kbss.study.util.ConfigParam;
+import cz.cvut.kbss.study.util.Configuration;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
 import org.springframework.stereotype.Service;
-import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class PublishRecordsService {
 
     private static final Logger LOG = LoggerFactory.getLogger(PublishRecordsService.class);
 
+    private static final String PUBLISH_SERVICE_NOT_CONFIGURED =
+            "Cannot publish completed records. Publish server not configured.";
+
+    /**
+     * Maximum number of publish jobs running concurrently.
+     */
+    private static final int PUBLISH_THREAD_COUNT = 2;
+
+    /**
+     * Maximum number of publish jobs waiting for a free thread.
+     */
+    private static final int PUBLISH_QUEUE_CAPACITY = 16;
+
+    /**
+     * How long information about a publish job is kept after it was started.
+     */
+    private static final Duration JOB_RETENTION = Duration.ofHours(24);
+
     private final RecordService recordService;
-    private final ObjectMapper objectMapper;
     private final SecurityUtils securityUtils;
     private final RestTemplate restTemplate;
     private final ConfigReader configReader;
 
+    /**
+     * Publish jobs run in the background. When all the threads are busy and the queue is full, new jobs are rejected.
+     */
+    private final ExecutorService publishExecutor = new ThreadPoolExecutor(
+            PUBLISH_THREAD_COUNT, PUBLISH_THREAD_COUNT, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(PUBLISH_QUEUE_CAPACITY), createThreadFactory(),
+            new ThreadPoolExecutor.AbortPolicy());
+
+    private final Cache<String, PublishJob> jobs = Caffeine.newBuilder()
+                                                           .expireAfterWrite(JOB_RETENTION)
+                                                           .maximumSize(1000)
+                                                           .build();
+
     public PublishRecordsService(RecordService recordService, SecurityUtils securityUtils, RestTemplate restTemplate, ConfigReader configReader) {
         this.recordService = recordService;
-        this.objectMapper = WebAppConfig.createJsonObjectMapper();
         this.securityUtils = securityUtils;
         this.restTemplate = restTemplate;
         this.configReader = configReader;
     }
 
+    private static ThreadFactory createThreadFactory() {
+        final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("record-publish-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        publishExecutor.shutdownNow();
+    }
+
+    /**
+     * Publishes completed records matching the specified filter.
+     * <p>
+     * When no page is requested, all the matching records are published in chunks of configured size. Each chunk is
+     * sent in a separate request and its records are marked as published as soon as the publish service confirms their
+     * import. Publishing stops at the first chunk which fails, records of the preceding chunks remain published. When
+     * the publish service rejects the publish token (e.g., because it expired during a long run), the token is
+     * exchanged again and the chunk is resent once.
+     *
+     * @param filters  Record filtering criteria
+     * @param pageSpec Specification of page to publish, unpaged to publish all matching records
+     * @return Merged results of importing the records into the publish service
+     */
     public RecordImportResult publishRecords(RecordFilterParams filters, Pageable pageSpec){
         String onPublishRecordsServiceUrl = configReader.getConfig(ConfigParam.ON_PUBLISH_RECORDS_SERVICE_URL);
         if(onPublishRecordsServiceUrl == null || onPublishRecordsServiceUrl.isBlank()) {
             LOG.warn("No publish service url configured, noop.");
             RecordImportResult result = new RecordImportResult(0);
-            result.addError("Cannot publish completed records. Publish server not configured.");
+            result.addError(PUBLISH_SERVICE_NOT_CONFIGURED);
             return result;
         }
+        final PublishJob job = new PublishJob(null);
+        publish(job, new PublishTarget(onPublishRecordsServiceUrl, resolvePublishToken()), filters, pageSpec);
+        return job.getResult();
+    }
+
+    /**
+     * Starts publishing completed records matching the specified filter in the background.
+     * <p>
+     * The records are published the same way as by {@link #publishRecords(RecordFilterParams, Pageable)}. Progress of
+     * publishing can be watched using the returned job.
+     *
+     * @param filters  Record filtering criteria
+     * @param pageSpec Specification of page to publish, unpaged to publish all matching records
+     * @return The publish job
+     * @throws RejectedExecutionException When too many publish jobs are already running or waiting
+     */
+    public PublishJob startPublishing(RecordFilterParams filters, Pageable pageSpec) {
+        final PublishJob job = new PublishJob(securityUtils.getCurrentUserUsername());
+        String onPublishRecordsServiceUrl = configReader.getConfig(ConfigParam.ON_PUBLISH_RECORDS_SERVICE_URL);
+        if(onPublishRecordsServiceUrl == null || onPublishRecordsServiceUrl.isBlank()) {
+            LOG.warn("No publish service url configured, noop.");
+            job.fail(PUBLISH_SERVICE_NOT_CONFIGURED);
+            jobs.put(job.getId(), job);
+            return job;
+        }
+        // Token exchange requires the current request's authentication, the background thread gets its security context
+        // for exchanging the token again
+        final PublishTarget target = new PublishTarget(onPublishRecordsServiceUrl, resolvePublishToken());
+        publishExecutor.execute(new DelegatingSecurityContextRunnable(() -> {
+            try {
+                publish(job, target, filters, pageSpec);
+            } catch (RuntimeException e) {
+                LOG.error("Record publish job {} failed.", job.getId(), e);
+                job.fail("Publishing failed: " + e.getMessage());
+            }
+        }));
+        jobs.put(job.getId(), job);
+        LOG.debug("Started record publish job {}.", job.getId());
+        return job;
+    }
+
+    /**
+     * Gets publish job with the specified identifier.
+     * <p>
+     * Finished jobs are kept only for a limited time.
+     *
+     * @param jobId Job identifier
+     * @return Matching job
+     * @throws NotFoundException If no such job exists
+     */
+    public PublishJob findJob(String jobId) {
+        final PublishJob job = jobs.getIfPresent(jobId);
+        if (job == null) {
+            throw NotFoundException.create("Publish job", jobId);
+        }
+        return job;
+    }
+
+    /**
+     * Checks whether the publish job with the specified identifier was started by the current user.
+     *
+     * @param jobId Job identifier
+     * @return {@code true} if the job exists and was started by the current user
+     */
+    public boolean isStartedByCurrentUser(String jobId) {
+        final PublishJob job = jobs.getIfPresent(jobId);
+        return job != null && Objects.equals(job.getStartedBy(), securityUtils.getCurrentUserUsername());
+    }
 
-        filters.setPhaseIds(new HashSet<>());
-        filters.getPhaseIds().add(RecordPhase.completed.getIri());
+    private void publish(PublishJob job, PublishTarget target, RecordFilterParams filters, Pageable pageSpec) {
+        job.start();
+        // Copy the filters, so that the caller's instance is not modified
+        final RecordFilterParams completed = filters.withCursor(filters.getCursor().orElse(null));
+        completed.setPhaseIds(new HashSet<>(Set.of(RecordPhase.completed.getIri())));
 
-        final Page<Record> result = recordService.findAllFull(filters, pageSpec);
-        List<Record> records = result.getContent();
+        if (pageSpec.isPaged()) {
+            publishChunk(target, recordService.findAllFull(completed, pageSpec).getContent(), job);
+        } else {
+            final int chunkSize = configReader.getIntConfig(ConfigParam.RECORDS_PUBLISH_CHUNK_SIZE,
+                                                            Configuration.Records.DEFAULT_PUBLISH_CHUNK_SIZE);
+            final Pageable chunkSpec = PageRequest.of(0, chunkSize, RecordSort.defaultSort());
+            RecordCursor cursor = RecordCursor.initial();
+            while (cursor != null) {
+                final Page<Record> chunk = recordService.findAllFull(completed.withCursor(cursor), chunkSpec);
+                if (!publishChunk(target, chunk.getContent(), job)) {
+                    break;
+                }
+                cursor = chunk instanceof CursorPage<Record> cursorPage ? cursorPage.getNextCursor().orElse(null) :
+                         null;
+            }
+        }
+        job.complete();
+    }
+
+    private String resolvePublishToken() {
+        final String authHeader = securityUtils.getPublishToken();
+        if (authHeader == null || authHeader.isBlank()) {
+            throw new SecurityException("Could not retrieve publish token.");
+        }
+        return authHeader;
+    }
 
-        ResponseEntity<RecordImportResult> responseEntity = executePublishRequest(onPublishRecordsServiceUrl, records);
+    /**
+     * Sends the specified records to the publish service and marks the records imported by it as published.
+     *
+     * @return {@code true} if the chunk was processed by the publish service, {@code false} if the request failed
+     */
+    private boolean publishChunk(PublishTarget target, List<Record> records, PublishJob job) {
+        if (records.isEmpty()) {
+            return true;
+        }
+        final ResponseEntity<RecordImportResult> responseEntity;
+        try {
+            responseEntity = sendChunk(target, records);
+        } catch (RestClientException | SecurityException e) {
+            LOG.error("Failed to publish chunk of {} records.", records.size(), e);
+            job.chunkFailed(records.size(), "Failed to publish " + records.size() + " records: " + e.getMessage());
+            return false;
+        }
 
         LOG.debug("Publish server response: {}", responseEntity.getBody());
-        RecordImportResult importResult = responseEntity.getBody();
-        if(importResult != null && importResult.getImportedRecords() != null)
-            recordService.setPhase(importResult.getImportedRecords(), RecordPhase.published);
-        return importResult;
+        final RecordImportResult chunkResult = responseEntity.getBody();
+        if (chunkResult != null && chunkResult.getImportedRecords() != null) {
+            recordService.setPhase(chunkResult.getImportedRecords(), RecordPhase.published);
+        }
+        job.chunkPublished(records.size(), chunkResult);
+        return true;
     }
 
-    protected ResponseEntity<RecordImportResult> executePublishRequest(String onPublishRecordsServiceUrl, List<Record> records){
-        String recordsJson;
+    private ResponseEntity<RecordImportResult> sendChunk(PublishTarget target, List<Record> records) {
         try {
-            recordsJson = objectMapper.writeValueAsString(records);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Failed to convert records to JSON", e);
+            return executePublishRequest(target.url, target.token, records);
+        } catch (HttpClientErrorException.Unauthorized e) {
+            LOG.debug("Publish token rejected by the publish service, exchanging it again.");
+            target.token = resolvePublishToken();
+            return executePublishRequest(target.url, target.token, records);
         }
+    }
 
-        // Create a MultiValueMap to hold the file part
-        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-        body.add("file", new ByteArrayResource(recordsJson.getBytes()) {
-            @Override
-            public String getFilename() {
-                return "records.json";
-            }
-        });
+    /**
+     * Posts the specified records to the publish service.
+     * <p>
+     * The records are sent as a multipart JSON file, which is serialized directly into the request body.
+     */
+    protected ResponseEntity<RecordImportResult> executePublishRequest(String onPublishRecordsServiceUrl,
+                                                                       String publishToken, List<Record> records) {
+        final MultipartBodyBuilder bodyBuilder = new MultipartBodyBuilder();
+        bodyBuilder.part("file", records, MediaType.APPLICATION_JSON).filename("records.json");
+        final MultiValueMap<String, HttpEntity<?>> body = bodyBuilder.build();
 
-        // Create HttpEntity
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.MULTIPART_FORM_DATA);
-        String authHeader = securityUtils.getPublishToken();
-        if (authHeader != null && !authHeader.isBlank()) {
-            headers.setBearerAuth(authHeader);
-        } else {
-            throw new SecurityException("Could not retrieve publish token.");
-        }
-        HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
+        headers.setBearerAuth(publishToken);
+        HttpEntity<MultiValueMap<String, HttpEntity<?>>> requestEntity = new HttpEntity<>(body, headers);
 
         // Call the import endpoint
-        LOG.debug("Publishing records.");
+        LOG.debug("Publishing {} records.", records.size());
         return restTemplate.postForEntity(
                 onPublishRecordsServiceUrl, requestEntity, RecordImportResult.class);
     }
+
+    /**
+     * Publish service URL and the publish token, which is replaced when it expires.
+     */
+    private static class PublishTarget {
+
+        private final String url;
+
+        private volatile String token;
+
+        private PublishTarget(String url, String token) {
+            this.url = url;
+            this.token = token;
+        }
+    }
 }
@@ -5,10 +5,12 @@ import cz.cvut.kbss.study.dto.RecordImportResult;
 import cz.cvut.kbss.study.model.Record;
 import cz.cvut.kbss.study.model.RecordPhase;
 import cz.cvut.kbss.study.model.export.RawRecord;
+import cz.cvut.kbss.study.persistence.dao.util.RecordFetchPlan;
 import cz.cvut.kbss.study.persistence.dao.util.RecordFilterParams;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
@@ -42,6 +44,18 @@ public interface RecordService extends BaseService<Record> {
      */
     Page<Record> findAllFull(RecordFilterParams filters, Pageable pageSpec);
 
+    /**
+     * Gets records corresponding to the specified filtering, paging, and sorting criteria, loading only the parts of
+     * the records given by the fetch plan.
+     *
+     * @param filters   Record filtering criteria
+     * @param pageSpec  Specification of page and sorting to retrieve
+     * @param fetchPlan Specifies which parts of the records to load
+     * @return List of matching records
+     * @see #findAllFull(RecordFilterParams, Pageable)
+     */
+    Page<Record> findAllFull(RecordFilterParams filters, Pageable pageSpec, RecordFetchPlan fetchPlan);
+
     /**
      * Imports the specified records.
      * <p>
@@ -54,6 +68,9 @@ public interface RecordService extends BaseService<Record> {
      * If the current user is an admin, the import procedure retains provenance data of the record. Otherwise, the
      * current user is set as the record's author. Also, if the current user is not an admin, the phase of all the
      * imported records is set to {@link RecordPhase#open}, for admin, the phase of the records is retained.
+     * <p>
+     * Records are persisted in batches, each committed separately. If the import fails, batches imported before the
+     * failure remain stored.
      *
      * @param records Records to import
      * @return Instance representing the import result
@@ -81,6 +98,22 @@ public interface RecordService extends BaseService<Record> {
      */
     RecordImportResult importRecords(List<Record> records, RecordPhase targetPhase);
 
+    /**
+     * Imports records supplied by the specified iterator.
+     * <p>
+     * Works like {@link #importRecords(List, RecordPhase)}, or like {@link #importRecords(List)} if the target phase
+     * is not specified, but records are pulled from the iterator one batch at a time, so that a large import does not
+     * have to be held in memory.
+     *
+     * @param records     Records to import
+     * @param targetPhase Phase to be set to all imported records, {@code null} to keep their phase
+     * @return Instance representing the import result
+     * @throws cz.cvut.kbss.study.exception.RecordAuthorNotFoundException Thrown when importing a record whose author
+     *                                                                    does not exist in this application instance's
+     *                                                                    repository
+     */
+    RecordImportResult importRecords(Iterator<Record> records, RecordPhase targetPhase);
+
     /**
      *
      * @param filters Record filtering criteria
@@ -0,0 +1,14 @@
+package cz.cvut.kbss.study.service.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Fired when values of code lists (e.g., labels of code list items or institutions) may have changed, so that any data
+ * derived from them can be discarded.
+ */
+public class CodeListValuesChangedEvent extends ApplicationEvent {
+
+    public CodeListValuesChangedEvent(Object source) {
+        super(source);
+    }
+}
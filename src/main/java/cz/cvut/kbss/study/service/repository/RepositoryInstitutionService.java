@@ -7,10 +7,15 @@ import cz.cvut.kbss.study.persistence.dao.OwlKeySupportingDao;
 import cz.cvut.kbss.study.persistence.dao.RecordDao;
 import cz.cvut.kbss.study.persistence.dao.UserDao;
 import cz.cvut.kbss.study.service.InstitutionService;
+import cz.cvut.kbss.study.service.event.CodeListValuesChangedEvent;
+import cz.cvut.kbss.study.service.security.SecurityUtils;
 import cz.cvut.kbss.study.util.Validator;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+
 @Service
 public class RepositoryInstitutionService extends KeySupportingRepositoryService<Institution> implements InstitutionService {
 
@@ -20,12 +25,20 @@ public class RepositoryInstitutionService extends KeySupportingRepositoryService
 
     private final RecordDao recordDao;
 
+    private final SecurityUtils securityUtils;
+
+    private final ApplicationEventPublisher eventPublisher;
+
     public RepositoryInstitutionService(InstitutionDao institutionDao,
                                         UserDao userDao,
-                                        RecordDao recordDao) {
+                                        RecordDao recordDao,
+                                        SecurityUtils securityUtils,
+                                        ApplicationEventPublisher eventPublisher) {
         this.institutionDao = institutionDao;
         this.userDao = userDao;
         this.recordDao = recordDao;
+        this.securityUtils = securityUtils;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -39,6 +52,51 @@ public class RepositoryInstitutionService extends KeySupportingRepositoryService
         return institutionDao.findByName(name);
     }
 
+    /**
+     * Institution names are used as code list values, so their change is announced.
+     */
+    @Transactional
+    @Override
+    public void persist(Institution instance) {
+        super.persist(instance);
+        eventPublisher.publishEvent(new CodeListValuesChangedEvent(this));
+    }
+
+    @Transactional
+    @Override
+    public void persist(Collection<Institution> instances) {
+        super.persist(instances);
+        eventPublisher.publishEvent(new CodeListValuesChangedEvent(this));
+    }
+
+    @Transactional
+    @Override
+    public void update(Institution instance) {
+        super.update(instance);
+        // Record summaries contain institution keys, users are cached together with their institution
+        recordDao.invalidateSummaries();
+        securityUtils.evictAllUsers();
+        eventPublisher.publishEvent(new CodeListValuesChangedEvent(this));
+    }
+
+    @Transactional
+    @Override
+    public void remove(Institution instance) {
+        super.remove(instance);
+        recordDao.invalidateSummaries();
+        securityUtils.evictAllUsers();
+        eventPublisher.publishEvent(new CodeListValuesChangedEvent(this));
+    }
+
+    @Transactional
+    @Override
+    public void remove(Collection<Institution> instances) {
+        super.remove(instances);
+        recordDao.invalidateSummaries();
+        securityUtils.evictAllUsers();
+        eventPublisher.publishEvent(new CodeListValuesChangedEvent(this));
+    }
+
     @Override
     protected void preRemove(Institution instance) {
         if (!userDao.findByInstitution(instance).isEmpty() || !recordDao.findByInstitution(instance).isEmpty()) {
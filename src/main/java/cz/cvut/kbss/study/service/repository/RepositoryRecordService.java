@@ -10,21 +10,30 @@ import cz.cvut.kbss.study.model.User;
 import cz.cvut.kbss.study.model.export.RawRecord;
 import cz.cvut.kbss.study.persistence.dao.OwlKeySupportingDao;
 import cz.cvut.kbss.study.persistence.dao.RecordDao;
+import cz.cvut.kbss.study.persistence.dao.util.RecordFetchPlan;
 import cz.cvut.kbss.study.persistence.dao.util.RecordFilterParams;
 import cz.cvut.kbss.study.security.SecurityConstants;
+import cz.cvut.kbss.study.service.ConfigReader;
 import cz.cvut.kbss.study.service.RecordService;
 import cz.cvut.kbss.study.service.UserService;
 import cz.cvut.kbss.study.service.security.SecurityUtils;
+import cz.cvut.kbss.study.util.ConfigParam;
+import cz.cvut.kbss.study.util.Configuration;
 import cz.cvut.kbss.study.util.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.net.URI;
 import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 public class RepositoryRecordService extends KeySupportingRepositoryService<Record>
@@ -38,11 +47,18 @@ public class RepositoryRecordService extends KeySupportingRepositoryService<Reco
 
     private final UserService userService;
 
+    private final ConfigReader configReader;
+
+    private final TransactionTemplate transactionTemplate;
+
     public RepositoryRecordService(RecordDao recordDao, SecurityUtils securityUtils,
-                                   UserService userService) {
+                                   UserService userService, ConfigReader configReader,
+                                   PlatformTransactionManager transactionManager) {
         this.recordDao = recordDao;
         this.securityUtils = securityUtils;
         this.userService = userService;
+        this.configReader = configReader;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
@@ -50,6 +66,19 @@ public class RepositoryRecordService extends KeySupportingRepositoryService<Reco
         return recordDao;
     }
 
+    /**
+     * Loads the in-memory record summaries and indexes used to filter record lists when the application starts.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadRecordSummaries() {
+        try {
+            recordDao.loadSummaries();
+        } catch (RuntimeException e) {
+            LOG.warn("Unable to load record summaries at startup, they will be loaded on first use.", e);
+        }
+    }
+
     @Transactional(readOnly = true)
     @Override
     public Page<RecordDto> findAll(RecordFilterParams filters, Pageable pageSpec) {
@@ -69,6 +98,12 @@ public class RepositoryRecordService extends KeySupportingRepositoryService<Reco
         return recordDao.findAllRecordsFull(filters, pageSpec);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public Page<Record> findAllFull(RecordFilterParams filters, Pageable pageSpec, RecordFetchPlan fetchPlan) {
+        return recordDao.findAllRecordsFull(filters, pageSpec, fetchPlan);
+    }
+
     @Override
     protected void prePersist(Record instance) {
         final User author = securityUtils.getCurrentUser();
@@ -88,31 +123,60 @@ public class RepositoryRecordService extends KeySupportingRepositoryService<Reco
         recordDao.requireUniqueNonEmptyLocalName(instance);
     }
 
-    @Transactional
+    // Not transactional, records are imported in batches, each in a separate transaction
     @Override
     public RecordImportResult importRecords(List<Record> records) {
         Objects.requireNonNull(records);
         LOG.debug("Importing records.");
-        return importRecordsImpl(records, Optional.empty());
+        return importRecordsImpl(records.iterator(), Optional.empty());
     }
 
-    private RecordImportResult importRecordsImpl(List<Record> records, Optional<RecordPhase> targetPhase) {
+    /**
+     * Imports the specified records in batches of configured size.
+     * <p>
+     * Each batch is persisted and committed in a separate transaction, so batches imported before a failure remain
+     * stored. Existence of records of a batch is checked using a single query. Records are pulled from the iterator
+     * batch by batch, so only one batch has to be held in memory.
+     */
+    private RecordImportResult importRecordsImpl(Iterator<Record> records, Optional<RecordPhase> targetPhase) {
         final User author = securityUtils.getCurrentUser();
         final Date created = new Date();
-        final RecordImportResult result = new RecordImportResult(records.size());
-        records.forEach(r -> {
+        final RecordImportResult result = new RecordImportResult();
+        final Set<URI> importedUris = new HashSet<>();
+        final int batchSize = configReader.getIntConfig(ConfigParam.RECORDS_IMPORT_BATCH_SIZE,
+                                                        Configuration.Records.DEFAULT_IMPORT_BATCH_SIZE);
+        final List<Record> batch = new ArrayList<>(batchSize);
+        while (records.hasNext()) {
+            batch.add(records.next());
+            if (batch.size() == batchSize || !records.hasNext()) {
+                result.setTotalCount(result.getTotalCount() + batch.size());
+                transactionTemplate.executeWithoutResult(
+                        status -> importBatch(batch, author, created, targetPhase, importedUris, result));
+                batch.clear();
+            }
+        }
+        return result;
+    }
+
+    private void importBatch(List<Record> batch, User author, Date created, Optional<RecordPhase> targetPhase,
+                             Set<URI> importedUris, RecordImportResult result) {
+        final Set<URI> existing = recordDao.findExistingUris(
+                batch.stream().map(Record::getUri).filter(Objects::nonNull).toList());
+        batch.forEach(r -> {
             setImportedRecordProvenance(author, created, targetPhase, r);
-            if (recordDao.exists(r.getUri())) {
+            // Records repeated in the imported data are treated as already existing
+            if (r.getUri() != null && (existing.contains(r.getUri()) || importedUris.contains(r.getUri()))) {
                 LOG.warn("Record {} already exists. Skipping it.", Utils.uriToString(r.getUri()));
                 result.addError("Record " + Utils.uriToString(r.getUri()) + " already exists.");
             } else {
                 recordDao.persist(r);
+                importedUris.add(r.getUri());
                 result.addImportedRecord(r.getUri().toString());
             }
         });
-        return result;
     }
 
+
     // TODO reconsider the logic for new roles
     private void setImportedRecordProvenance(User currentUser, Date now, Optional<RecordPhase> targetPhase,
                                              Record record) {
@@ -134,16 +198,22 @@ public class RepositoryRecordService extends KeySupportingRepositoryService<Reco
     @Transactional
     @Override
     public void setPhase(Set<String> recordUris, RecordPhase targetPhase){
-        for(String uri : recordUris){
-            recordDao.updateStatus(URI.create(uri), targetPhase);
-        }
+        recordDao.updateStatus(recordUris.stream().map(URI::create).collect(Collectors.toList()), targetPhase);
     }
 
-    @Transactional
+    // Not transactional, records are imported in batches, each in a separate transaction
     @Override
     public RecordImportResult importRecords(List<Record> records, RecordPhase targetPhase) {
         Objects.requireNonNull(records);
         LOG.debug("Importing records to target phase '{}'.", targetPhase);
+        return importRecordsImpl(records.iterator(), Optional.ofNullable(targetPhase));
+    }
+
+    // Not transactional, records are imported in batches, each in a separate transaction
+    @Override
+    public RecordImportResult importRecords(Iterator<Record> records, RecordPhase targetPhase) {
+        Objects.requireNonNull(records);
+        LOG.debug("Importing records{}.", targetPhase != null ? " to target phase '" + targetPhase + "'" : "");
         return importRecordsImpl(records, Optional.ofNullable(targetPhase));
     }
 
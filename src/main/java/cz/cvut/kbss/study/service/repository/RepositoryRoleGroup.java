@@ -8,7 +8,9 @@ import cz.cvut.kbss.study.persistence.dao.RoleGroupDao;
 import cz.cvut.kbss.study.service.RoleGroupService;
 import cz.cvut.kbss.study.service.security.SecurityUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -38,6 +40,30 @@ public class RepositoryRoleGroup extends BaseRepositoryService<RoleGroup> implem
                 : List.of();
     }
 
+    /**
+     * Users are cached together with their role group, so they are evicted when a role group changes.
+     */
+    @Transactional
+    @Override
+    public void update(RoleGroup instance) {
+        super.update(instance);
+        securityUtils.evictAllUsers();
+    }
+
+    @Transactional
+    @Override
+    public void remove(RoleGroup instance) {
+        super.remove(instance);
+        securityUtils.evictAllUsers();
+    }
+
+    @Transactional
+    @Override
+    public void remove(Collection<RoleGroup> instances) {
+        super.remove(instances);
+        securityUtils.evictAllUsers();
+    }
+
     @Override
     protected GenericDao<RoleGroup> getPrimaryDao() {
         return roleGroupDao;
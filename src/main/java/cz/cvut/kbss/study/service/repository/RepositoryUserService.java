@@ -10,6 +10,7 @@ import cz.cvut.kbss.study.model.User;
 import cz.cvut.kbss.study.persistence.dao.GenericDao;
 import cz.cvut.kbss.study.persistence.dao.RecordDao;
 import cz.cvut.kbss.study.persistence.dao.UserDao;
+import cz.cvut.kbss.study.persistence.dao.util.RecordFetchPlan;
 import cz.cvut.kbss.study.service.ConfigReader;
 import cz.cvut.kbss.study.service.EmailService;
 import cz.cvut.kbss.study.service.UserService;
@@ -77,6 +78,23 @@ public class RepositoryUserService extends BaseRepositoryService<User> implement
         return securityUtils.getCurrentUser();
     }
 
+    @Transactional
+    @Override
+    public void update(User instance) {
+        super.update(instance);
+        securityUtils.evictUser(instance.getUsername());
+        // Record summaries contain usernames of authors
+        recordDao.invalidateSummaries();
+    }
+
+    @Transactional
+    @Override
+    public void remove(User instance) {
+        super.remove(instance);
+        securityUtils.evictUser(instance.getUsername());
+        recordDao.invalidateSummaries();
+    }
+
     @Transactional(readOnly = true)
     @Override
     public User findCurrentUser() {
@@ -162,6 +180,7 @@ public class RepositoryUserService extends BaseRepositoryService<User> implement
         user.encodePassword(passwordEncoder);
         user.setToken(null);
         userDao.update(user);
+        securityUtils.evictUser(user.getUsername());
     }
 
     @Transactional
@@ -172,6 +191,7 @@ public class RepositoryUserService extends BaseRepositoryService<User> implement
         BaseEmailTemplate emailTemplate = new PasswordReset(config, user);
         email.sendEmail(emailTemplate, recipientEmail, null, false);
         userDao.update(user);
+        securityUtils.evictUser(user.getUsername());
     }
 
     @Transactional
@@ -184,6 +204,7 @@ public class RepositoryUserService extends BaseRepositoryService<User> implement
         BaseEmailTemplate emailTemplate = new UserInvite(config, user);
         email.sendEmail(emailTemplate, user.getEmailAddress(), currentUser.getEmailAddress(), true);
         userDao.update(user);
+        securityUtils.evictUser(user.getUsername());
     }
 
     @Override
@@ -267,7 +288,7 @@ public class RepositoryUserService extends BaseRepositoryService<User> implement
 
     @Override
     protected void preRemove(User instance) {
-        if (!recordDao.findByAuthor(instance).isEmpty()) {
+        if (!recordDao.findByAuthor(instance, RecordFetchPlan.HEADER).isEmpty()) {
             throw new ValidationException("User with records cannot be deleted.");
         }
     }
@@ -1,5 +1,7 @@
 package cz.cvut.kbss.study.service.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import cz.cvut.kbss.study.exception.NotFoundException;
 import cz.cvut.kbss.study.model.*;
 import cz.cvut.kbss.study.model.Record;
@@ -25,16 +27,42 @@ import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.web.authentication.switchuser.SwitchUserFilter;
 import org.springframework.security.web.server.authentication.SwitchUserWebFilter;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 public class SecurityUtils {
 
+    /**
+     * How long users are cached across requests.
+     */
+    private static final Duration USER_CACHE_TTL = Duration.ofSeconds(30);
+
+    private static final int USER_CACHE_MAX_SIZE = 1000;
+
+    /**
+     * Prefix of names of request attributes holding users resolved during the request.
+     */
+    private static final String USER_ATTRIBUTE_PREFIX = SecurityUtils.class.getName() + ".user.";
+
+    /**
+     * Users are read on (almost) every request, so they are cached for a short time. Cached instances are never
+     * returned directly, callers get copies.
+     */
+    private final Cache<String, User> userCache = Caffeine.newBuilder()
+                                                          .maximumSize(USER_CACHE_MAX_SIZE)
+                                                          .expireAfterWrite(USER_CACHE_TTL)
+                                                          .build();
+
     private final UserDao userDao;
 
     private final RecordDao recordDao;
@@ -84,7 +112,7 @@ public class SecurityUtils {
             return resolveAccountFromOAuthPrincipal((Jwt) principal);
         } else {
             final String username = context.getAuthentication().getName();
-            final User user = userDao.findByUsername(username).copy();
+            final User user = findUser(username);
             user.setImpersonated(context.getAuthentication().getAuthorities().stream()
                     .anyMatch(a -> a.getAuthority().equals(SwitchUserWebFilter.ROLE_PREVIOUS_ADMINISTRATOR)));
             return user;
@@ -95,11 +123,7 @@ public class SecurityUtils {
     private User resolveAccountFromOAuthPrincipal(Jwt principal) {
         final OidcUserInfo userInfo = new OidcUserInfo(principal.getClaims());
         final List<String> roles = new OidcGrantedAuthoritiesExtractor(config).extractRoles(principal);
-        final User user = userDao.findByUsername(userInfo.getPreferredUsername()).copy();
-        if (user == null) {
-            throw new NotFoundException(
-                    "User with username '" + userInfo.getPreferredUsername() + "' not found in repository.");
-        }
+        final User user = findUser(userInfo.getPreferredUsername());
 
         RoleGroup roleGroup = createRoleGroupFromPrincipal(principal);
         user.setRoleGroup(roleGroup);
@@ -107,6 +131,97 @@ public class SecurityUtils {
         return user;
     }
 
+    /**
+     * Finds user with the specified username.
+     * <p>
+     * The user is retrieved from the repository at most once per request and is cached for a short time across
+     * requests.
+     *
+     * @param username Username
+     * @return Copy of the user
+     * @throws NotFoundException If no such user exists
+     */
+    private User findUser(String username) {
+        final RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        final String attributeName = USER_ATTRIBUTE_PREFIX + username;
+        if (requestAttributes != null &&
+                requestAttributes.getAttribute(attributeName, RequestAttributes.SCOPE_REQUEST) instanceof User memo) {
+            return memo.copy();
+        }
+        final User user = userCache.get(username, u -> {
+            final User result = userDao.findByUsername(u);
+            return result != null ? result.copy() : null;
+        });
+        if (user == null) {
+            throw new NotFoundException("User with username '" + username + "' not found in repository.");
+        }
+        if (requestAttributes != null) {
+            requestAttributes.setAttribute(attributeName, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user.copy();
+    }
+
+    /**
+     * Discards cached instance of the user with the specified username.
+     * <p>
+     * Should be called whenever the user is modified. If there is an active transaction, the user is evicted again after
+     * it finishes, so that the cache cannot hold data read before the change is committed.
+     *
+     * @param username Username of the modified user
+     */
+    public void evictUser(String username) {
+        if (username == null) {
+            return;
+        }
+        evictUserNow(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictUserNow(username);
+                }
+            });
+        }
+    }
+
+    /**
+     * Discards all cached users.
+     * <p>
+     * Should be called when data shared by users (e.g., their role groups) are modified. If there is an active
+     * transaction, the users are evicted again after it finishes.
+     */
+    public void evictAllUsers() {
+        evictAllUsersNow();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictAllUsersNow();
+                }
+            });
+        }
+    }
+
+    private void evictAllUsersNow() {
+        userCache.invalidateAll();
+        final RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null) {
+            for (String name : requestAttributes.getAttributeNames(RequestAttributes.SCOPE_REQUEST)) {
+                if (name.startsWith(USER_ATTRIBUTE_PREFIX)) {
+                    requestAttributes.removeAttribute(name, RequestAttributes.SCOPE_REQUEST);
+                }
+            }
+        }
+    }
+
+    private void evictUserNow(String username) {
+        userCache.invalidate(username);
+        final RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null) {
+            requestAttributes.removeAttribute(USER_ATTRIBUTE_PREFIX + username, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
     private RoleGroup createRoleGroupFromPrincipal(Jwt principal) {
         RoleGroup roleGroup = new RoleGroup();
         List<String> roles = new OidcGrantedAuthoritiesExtractor(config).extractRoles(principal);
@@ -139,7 +254,7 @@ public class SecurityUtils {
 
     private String resolveAccountUsernameFromOAuthPrincipal(Jwt principal) {
         final OidcUserInfo userInfo = new OidcUserInfo(principal.getClaims());
-        return userDao.findByUsername(userInfo.getPreferredUsername()).getUsername();
+        return findUser(userInfo.getPreferredUsername()).getUsername();
     }
 
     /**
@@ -45,7 +45,22 @@ public enum ConfigParam {
 
     CORS_ALLOWED_ORIGINS("security.cors.allowedOrigins"),
 
-    RECORDS_ALLOWED_REJECT_REASON("records.allowedRejectReason");
+    RECORDS_ALLOWED_REJECT_REASON("records.allowedRejectReason"),
+    RECORDS_IMPORT_BATCH_SIZE("records.importBatchSize"),
+    RECORDS_PUBLISH_CHUNK_SIZE("records.publishChunkSize"),
+    RECORDS_CACHE_MAX_AGE("records.cacheMaxAge"),
+
+    CODE_LISTS_CACHE_MAX_SIZE("codeLists.cache.maxSize"),
+    CODE_LISTS_CACHE_ITEMS_TTL("codeLists.cache.itemsTtl"),
+    CODE_LISTS_CACHE_PATHS_TTL("codeLists.cache.pathsTtl"),
+    CODE_LISTS_CACHE_AIRCRAFT_TTL("codeLists.cache.aircraftTtl"),
+    CODE_LISTS_CACHE_INSTITUTIONS_TTL("codeLists.cache.institutionsTtl"),
+
+    QUERIES_SLOW_THRESHOLD("queries.slowThreshold"),
+    QUERIES_SLOW_LOG_SAMPLE_RATE("queries.slowLogSampleRate"),
+
+    DIAGNOSTICS_SERVER_TIMING("diagnostics.serverTiming"),
+    DIAGNOSTICS_SERVER_TIMING_HEADER("diagnostics.serverTimingHeader");
 
     private final String name;
 
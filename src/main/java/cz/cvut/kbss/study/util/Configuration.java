@@ -2,6 +2,8 @@ package cz.cvut.kbss.study.util;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 @ConfigurationProperties(prefix = "")
 public class Configuration {
 
@@ -34,6 +36,9 @@ public class Configuration {
     Email email = new Email();
     Security security = new Security();
     Records records = new Records();
+    CodeLists codeLists = new CodeLists();
+    Queries queries = new Queries();
+    Diagnostics diagnostics = new Diagnostics();
 
     public String getAppContext() {
         return appContext;
@@ -107,6 +112,30 @@ public class Configuration {
         this.records = records;
     }
 
+    public CodeLists getCodeLists() {
+        return codeLists;
+    }
+
+    public void setCodeLists(CodeLists codeLists) {
+        this.codeLists = codeLists;
+    }
+
+    public Queries getQueries() {
+        return queries;
+    }
+
+    public void setQueries(Queries queries) {
+        this.queries = queries;
+    }
+
+    public Diagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
+    public void setDiagnostics(Diagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+    }
+
 
     public static class Smtp {
         /**
@@ -417,11 +446,33 @@ public class Configuration {
 
     public static class Records {
 
+        public static final int DEFAULT_IMPORT_BATCH_SIZE = 500;
+
+        public static final int DEFAULT_PUBLISH_CHUNK_SIZE = 100;
+
+        public static final Duration DEFAULT_CACHE_MAX_AGE = Duration.ofMinutes(10);
+
         /**
          *  it indicates functionality allowing users to specify a reason for rejection is enabled.
          */
         boolean allowedRejectReason;
 
+        /**
+         * Number of records persisted in one transaction when importing records.
+         */
+        int importBatchSize = DEFAULT_IMPORT_BATCH_SIZE;
+
+        /**
+         * Number of records sent to the publish service in one request.
+         */
+        int publishChunkSize = DEFAULT_PUBLISH_CHUNK_SIZE;
+
+        /**
+         * Maximum age of cached record summaries and counts (e.g. 10m, 1h). Changes not made through this application
+         * instance become visible in record lists after this time at the latest.
+         */
+        Duration cacheMaxAge = DEFAULT_CACHE_MAX_AGE;
+
         public boolean isAllowedRejectReason() {
             return allowedRejectReason;
         }
@@ -429,5 +480,179 @@ public class Configuration {
         public void setAllowedRejectReason(boolean allowedRejectReason) {
             this.allowedRejectReason = allowedRejectReason;
         }
+
+        public int getImportBatchSize() {
+            return importBatchSize;
+        }
+
+        public void setImportBatchSize(int importBatchSize) {
+            this.importBatchSize = importBatchSize;
+        }
+
+        public int getPublishChunkSize() {
+            return publishChunkSize;
+        }
+
+        public void setPublishChunkSize(int publishChunkSize) {
+            this.publishChunkSize = publishChunkSize;
+        }
+
+        public Duration getCacheMaxAge() {
+            return cacheMaxAge;
+        }
+
+        public void setCacheMaxAge(Duration cacheMaxAge) {
+            this.cacheMaxAge = cacheMaxAge;
+        }
+    }
+
+    public static class CodeLists {
+
+        private Cache cache = new Cache();
+
+        public Cache getCache() {
+            return cache;
+        }
+
+        public void setCache(Cache cache) {
+            this.cache = cache;
+        }
+
+        public static class Cache {
+
+            public static final int DEFAULT_MAX_SIZE = 10000;
+
+            public static final Duration DEFAULT_TTL = Duration.ofHours(24);
+
+            public static final Duration DEFAULT_INSTITUTIONS_TTL = Duration.ofMinutes(10);
+
+            /**
+             * Maximum number of cached code list item labels.
+             */
+            int maxSize = DEFAULT_MAX_SIZE;
+
+            /**
+             * How long labels of code list items are cached (e.g. 24h, 30m).
+             */
+            Duration itemsTtl = DEFAULT_TTL;
+
+            /**
+             * How long the index of broader concept paths of aircraft components is used before it is rebuilt (e.g. 24h, 30m).
+             */
+            Duration pathsTtl = DEFAULT_TTL;
+
+            /**
+             * How long labels of aircraft types (form templates) are cached (e.g. 24h, 30m).
+             */
+            Duration aircraftTtl = DEFAULT_TTL;
+
+            /**
+             * How long labels of institutions are cached (e.g. 24h, 30m).
+             */
+            Duration institutionsTtl = DEFAULT_INSTITUTIONS_TTL;
+
+            public int getMaxSize() {
+                return maxSize;
+            }
+
+            public void setMaxSize(int maxSize) {
+                this.maxSize = maxSize;
+            }
+
+            public Duration getItemsTtl() {
+                return itemsTtl;
+            }
+
+            public void setItemsTtl(Duration itemsTtl) {
+                this.itemsTtl = itemsTtl;
+            }
+
+            public Duration getPathsTtl() {
+                return pathsTtl;
+            }
+
+            public void setPathsTtl(Duration pathsTtl) {
+                this.pathsTtl = pathsTtl;
+            }
+
+            public Duration getAircraftTtl() {
+                return aircraftTtl;
+            }
+
+            public void setAircraftTtl(Duration aircraftTtl) {
+                this.aircraftTtl = aircraftTtl;
+            }
+
+            public Duration getInstitutionsTtl() {
+                return institutionsTtl;
+            }
+
+            public void setInstitutionsTtl(Duration institutionsTtl) {
+                this.institutionsTtl = institutionsTtl;
+            }
+        }
+    }
+
+    public static class Queries {
+
+        public static final Duration DEFAULT_SLOW_THRESHOLD = Duration.ofSeconds(1);
+
+        public static final double DEFAULT_SLOW_LOG_SAMPLE_RATE = 1.0;
+
+        /**
+         * SPARQL queries running at least this long are logged as slow (e.g. 1s, 500ms).
+         */
+        Duration slowThreshold = DEFAULT_SLOW_THRESHOLD;
+
+        /**
+         * Fraction (between 0 and 1) of slow queries which are logged.
+         */
+        double slowLogSampleRate = DEFAULT_SLOW_LOG_SAMPLE_RATE;
+
+        public Duration getSlowThreshold() {
+            return slowThreshold;
+        }
+
+        public void setSlowThreshold(Duration slowThreshold) {
+            this.slowThreshold = slowThreshold;
+        }
+
+        public double getSlowLogSampleRate() {
+            return slowLogSampleRate;
+        }
+
+        public void setSlowLogSampleRate(double slowLogSampleRate) {
+            this.slowLogSampleRate = slowLogSampleRate;
+        }
+    }
+
+    public static class Diagnostics {
+
+        /**
+         * Whether to collect timings of all requests and send them in the Server-Timing response header.
+         */
+        boolean serverTiming = false;
+
+        /**
+         * Whether clients may request timings of individual requests by the X-Server-Timing header. Since timings
+         * disclose details about the backend, the header should be allowed only in trusted environments.
+         */
+        boolean serverTimingHeader = false;
+
+        public boolean isServerTiming() {
+            return serverTiming;
+        }
+
+        public void setServerTiming(boolean serverTiming) {
+            this.serverTiming = serverTiming;
+        }
+
+        public boolean isServerTimingHeader() {
+            return serverTimingHeader;
+        }
+
+        public void setServerTimingHeader(boolean serverTimingHeader) {
+            this.serverTimingHeader = serverTimingHeader;
+        }
     }
 }
@@ -48,6 +48,11 @@ public final class Constants {
      */
     public static final String PAGE_SIZE_PARAM = "size";
 
+    /**
+     * Name of the request parameter specifying cursor for keyset pagination.
+     */
+    public static final String CURSOR_PARAM = "after";
+
     /**
      * Name of the request parameter specifying sorting.
      */
@@ -58,6 +63,11 @@ public final class Constants {
      */
     public static final String EXPORT_TYPE_PARAM  = "exportType";
 
+    /**
+     * Name of the request parameter specifying which parts of records to load (header, shallow, full).
+     */
+    public static final String FETCH_PLAN_PARAM = "fetch";
+
     /**
      * Represents the X-Total-Count HTTP header used to convey the total number of items in paged or otherwise
      * restricted response.
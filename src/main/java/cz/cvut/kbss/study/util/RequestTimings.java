@@ -0,0 +1,145 @@
+package cz.cvut.kbss.study.util;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects durations of operations (repository queries, outbound HTTP calls etc.) performed while processing the
+ * current request.
+ * <p>
+ * Timings are collected only for requests for which collection has been started by {@link #start(long)}, recording
+ * is a no-op otherwise. Operations executed on other threads than the one processing the request are not collected.
+ */
+public final class RequestTimings {
+
+    /**
+     * SPARQL queries.
+     */
+    public static final String DATABASE = "db";
+
+    /**
+     * Outbound HTTP requests.
+     */
+    public static final String HTTP_CLIENT = "http";
+
+    /**
+     * Security filter chain.
+     */
+    public static final String SECURITY = "sec";
+
+    /**
+     * Serialization of response body.
+     */
+    public static final String SERIALIZATION = "ser";
+
+    /**
+     * Total request processing time.
+     */
+    public static final String TOTAL = "total";
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final long start;
+
+    private final Map<String, Span> spans = new LinkedHashMap<>();
+
+    private RequestTimings(long start) {
+        this.start = start;
+    }
+
+    /**
+     * Starts collecting timings for the current thread.
+     *
+     * @param start Start of the request processing, as given by {@link System#nanoTime()}
+     * @return The new collector
+     */
+    public static RequestTimings start(long start) {
+        final RequestTimings timings = new RequestTimings(start);
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    /**
+     * Stops collecting timings for the current thread.
+     */
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Gets timings collected for the current thread.
+     *
+     * @return Current collector, empty if timings are not being collected
+     */
+    public static Optional<RequestTimings> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Records a single operation of the specified kind, if timings are being collected for the current thread.
+     *
+     * @param name  Operation kind, e.g., {@link #DATABASE}
+     * @param nanos Duration of the operation in nanoseconds
+     */
+    public static void record(String name, long nanos) {
+        final RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.add(name, nanos);
+        }
+    }
+
+    private void add(String name, long nanos) {
+        final Span span = spans.computeIfAbsent(name, k -> new Span());
+        span.count++;
+        span.nanos += nanos;
+    }
+
+    /**
+     * Gets time elapsed since the start of the request processing.
+     *
+     * @return Elapsed time in nanoseconds
+     */
+    public long elapsedNanos() {
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Formats the collected timings as a {@code Server-Timing} HTTP header value.
+     * <p>
+     * Each operation kind is reported as a metric with its total duration and the number of operations as
+     * description, the total processing time so far is reported as the {@link #TOTAL} metric.
+     *
+     * @return Header value
+     */
+    public String toServerTiming() {
+        final StringBuilder sb = new StringBuilder();
+        spans.forEach((name, span) -> sb.append(name).append(";dur=").append(toMillis(span.nanos))
+                                        .append(";desc=\"").append(span.count).append("\", "));
+        return sb.append(TOTAL).append(";dur=").append(toMillis(elapsedNanos())).toString();
+    }
+
+    /**
+     * Gets the collected timings as a map of operation kinds to their total duration and count (e.g.,
+     * {@code 12.345ms/3}), the total processing time so far is mapped from {@link #TOTAL}.
+     *
+     * @return Map of formatted timings
+     */
+    public Map<String, String> toMap() {
+        final Map<String, String> result = new LinkedHashMap<>();
+        spans.forEach((name, span) -> result.put(name, toMillis(span.nanos) + "ms/" + span.count));
+        result.put(TOTAL, toMillis(elapsedNanos()) + "ms");
+        return result;
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private static final class Span {
+        private int count;
+        private long nanos;
+    }
+}
@@ -0,0 +1,86 @@
+package cz.cvut.kbss.study.util;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.Objects;
+
+/**
+ * Request factory recording execution of outbound HTTP requests into {@link RequestTimings} of the current request.
+ * <p>
+ * Unlike a {@link org.springframework.http.client.ClientHttpRequestInterceptor}, wrapping the request factory does not
+ * buffer request bodies, so bodies written by a {@link StreamingHttpOutputMessage.Body} are still streamed.
+ */
+public class TimedClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final ClientHttpRequestFactory delegate;
+
+    public TimedClientHttpRequestFactory(ClientHttpRequestFactory delegate) {
+        this.delegate = Objects.requireNonNull(delegate);
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        return new TimedRequest(delegate.createRequest(uri, httpMethod));
+    }
+
+    private static class TimedRequest implements ClientHttpRequest, StreamingHttpOutputMessage {
+
+        private final ClientHttpRequest request;
+
+        private TimedRequest(ClientHttpRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            final long start = System.nanoTime();
+            try {
+                return request.execute();
+            } finally {
+                RequestTimings.record(RequestTimings.HTTP_CLIENT, System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public void setBody(Body body) {
+            if (request instanceof StreamingHttpOutputMessage streaming) {
+                streaming.setBody(body);
+            } else {
+                try {
+                    body.writeTo(request.getBody());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return request.getBody();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return request.getHeaders();
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return request.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return request.getURI();
+        }
+    }
+}
@@ -4,9 +4,11 @@ import cz.cvut.kbss.study.config.PersistenceConfig;
 import cz.cvut.kbss.study.persistence.TestFormGenPersistenceFactory;
 import cz.cvut.kbss.study.persistence.TestPersistenceFactory;
 import cz.cvut.kbss.study.persistence.data.RemoteDataLoader;
+import cz.cvut.kbss.study.service.ConfigReader;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
 import org.springframework.context.annotation.Import;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.springframework.web.client.RestTemplate;
@@ -15,6 +17,8 @@ import static org.mockito.Mockito.mock;
 
 @TestConfiguration
 @ComponentScan(basePackages = {"cz.cvut.kbss.study.persistence.dao"})
+@ComponentScan(basePackageClasses = ConfigReader.class, useDefaultFilters = false,
+               includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ConfigReader.class))
 @Import({PersistenceConfig.class, TestPersistenceFactory.class, TestFormGenPersistenceFactory.class})
 @EnableTransactionManagement
 public class TestPersistenceConfig {
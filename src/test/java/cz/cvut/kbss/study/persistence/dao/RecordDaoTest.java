@@ -7,11 +7,16 @@ import cz.cvut.kbss.jopa.model.metamodel.EntityType;
 import cz.cvut.kbss.study.dto.RecordDto;
 import cz.cvut.kbss.study.environment.generator.Generator;
 import cz.cvut.kbss.study.environment.util.Environment;
+import cz.cvut.kbss.study.exception.ValidationException;
 import cz.cvut.kbss.study.model.*;
 import cz.cvut.kbss.study.model.Record;
 import cz.cvut.kbss.study.model.qam.Answer;
+import cz.cvut.kbss.study.model.qam.Question;
 import cz.cvut.kbss.study.persistence.BaseDaoTestRunner;
+import cz.cvut.kbss.study.persistence.dao.util.CursorPage;
 import cz.cvut.kbss.study.persistence.dao.util.QuestionSaver;
+import cz.cvut.kbss.study.persistence.dao.util.RecordCursor;
+import cz.cvut.kbss.study.persistence.dao.util.RecordFetchPlan;
 import cz.cvut.kbss.study.persistence.dao.util.RecordFilterParams;
 import cz.cvut.kbss.study.persistence.dao.util.RecordSort;
 import cz.cvut.kbss.study.util.IdentificationUtils;
@@ -30,17 +35,24 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static cz.cvut.kbss.study.environment.util.ContainsSameEntities.containsSameEntities;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class RecordDaoTest extends BaseDaoTestRunner {
 
@@ -182,6 +194,117 @@ public class RecordDaoTest extends BaseDaoTestRunner {
         assertNotNull(result);
     }
 
+    @Test
+    void persistSavesWholeQuestionAnswerTreeIntoRecordContext() {
+        final User author = generateAuthorWithInstitution();
+        final Record record = Generator.generateRecord(author);
+        record.setKey(IdentificationUtils.generateKey());
+        record.setUri(RecordDao.generateRecordUriFromKey(record.getKey()));
+        final Question root = Generator.generateQuestionAnswerTree();
+        record.setQuestion(root);
+        Question parent = root.getSubQuestions().iterator().next();
+        // Deep chain of questions
+        for (int i = 0; i < 100; i++) {
+            final Question child = new Question();
+            child.setOrigin(Generator.generateUri());
+            parent.getSubQuestions().add(child);
+            parent = child;
+        }
+
+        transactional(() -> sut.persist(record));
+
+        final Descriptor descriptor = getDescriptor(record);
+        final Question result = em.find(Question.class, root.getUri(), descriptor);
+        assertNotNull(result);
+        assertEquals(root.getSubQuestions().size(), result.getSubQuestions().size());
+        assertNotNull(em.find(Question.class, parent.getUri(), descriptor));
+        for (Question q : root.getSubQuestions()) {
+            for (Answer a : q.getAnswers()) {
+                final Answer resultAnswer = em.find(Answer.class, a.getUri(), descriptor);
+                assertNotNull(resultAnswer);
+                assertEquals(a.getTextValue(), resultAnswer.getTextValue());
+                assertEquals(a.getCodeValue(), resultAnswer.getCodeValue());
+            }
+        }
+    }
+
+    @Test
+    void persistSavesVeryDeepQuestionTree() {
+        final User author = generateAuthorWithInstitution();
+        final Record record = Generator.generateRecord(author);
+        record.setUri(null);
+        final Question root = Generator.generateQuestionAnswerTree();
+        record.setQuestion(root);
+        final List<Question> chain = new ArrayList<>();
+        Question parent = root;
+        // Deep enough to overflow the stack if the tree were traversed recursively
+        for (int i = 0; i < 5000; i++) {
+            final Question child = new Question();
+            child.setOrigin(Generator.generateUri());
+            parent.getSubQuestions().add(child);
+            chain.add(child);
+            parent = child;
+        }
+
+        transactional(() -> sut.persist(record));
+
+        // Links are checked directly, loading the chain by the entity manager would traverse all of it
+        for (int i = 0; i < chain.size() - 1; i += 500) {
+            assertTrue(em.createNativeQuery("ASK { GRAPH ?g { ?parent ?hasRelatedQuestion ?child . } }",
+                                            Boolean.class)
+                         .setParameter("g", record.getUri())
+                         .setParameter("parent", chain.get(i).getUri())
+                         .setParameter("hasRelatedQuestion", URI.create(Vocabulary.s_p_has_related_question))
+                         .setParameter("child", chain.get(i + 1).getUri()).getSingleResult());
+        }
+        assertNotNull(em.find(Question.class, parent.getUri(), getDescriptor(record)));
+    }
+
+    @Test
+    void persistSavesLargeQuestionTreeInsertedByMultipleUpdates() {
+        final User author = generateAuthorWithInstitution();
+        final Record record = Generator.generateRecord(author);
+        record.setUri(null);
+        final Question root = new Question();
+        root.setOrigin(Generator.generateUri());
+        // Each question has at least four statements, so the tree does not fit into a single update
+        for (int i = 0; i < 3000; i++) {
+            final Question child = new Question();
+            child.setOrigin(Generator.generateUri());
+            final Answer answer = new Answer();
+            answer.setTextValue("Answer " + i);
+            child.setAnswers(new HashSet<>(Set.of(answer)));
+            root.getSubQuestions().add(child);
+        }
+        record.setQuestion(root);
+
+        transactional(() -> sut.persist(record));
+
+        final Descriptor descriptor = getDescriptor(record);
+        final Record result = em.find(Record.class, record.getUri(), descriptor);
+        assertNotNull(result);
+        assertEquals(root.getUri(), result.getQuestion().getUri());
+        assertEquals(root.getSubQuestions().size(), result.getQuestion().getSubQuestions().size());
+    }
+
+    @Test
+    void persistSavesAnswerTextsWithCharactersRequiringEscaping() {
+        final User author = generateAuthorWithInstitution();
+        final Record record = Generator.generateRecord(author);
+        record.setUri(null);
+        final Question root = new Question();
+        final Answer answer = new Answer();
+        answer.setTextValue("Quote \" backslash \\ newline \n tab \t bell \u0007 unicode \u017e");
+        root.setAnswers(new HashSet<>(Set.of(answer)));
+        record.setQuestion(root);
+
+        transactional(() -> sut.persist(record));
+
+        final Answer result = em.find(Answer.class, answer.getUri(), getDescriptor(record));
+        assertNotNull(result);
+        assertEquals(answer.getTextValue(), result.getTextValue());
+    }
+
     private User generateAuthorWithInstitution() {
         final Institution institution = Generator.generateInstitution();
         institution.setKey(IdentificationUtils.generateKey());
@@ -246,6 +369,131 @@ public class RecordDaoTest extends BaseDaoTestRunner {
         assertEquals(updatedAnswer, resultAnswer.getTextValue());
     }
 
+    @Test
+    void updateAddsNewAndRemovesMissingSubQuestionsAndKeepsUnchangedOnes() {
+        final User author = generateAuthorWithInstitution();
+        final Record record = Generator.generateRecord(author);
+        record.setKey(IdentificationUtils.generateKey());
+        record.setUri(RecordDao.generateRecordUriFromKey(record.getKey()));
+        record.setQuestion(Generator.generateQuestionAnswerTree());
+        final Descriptor descriptor = getDescriptor(record);
+        transactional(() -> {
+            em.persist(record, descriptor);
+            new QuestionSaver(descriptor).persistIfNecessary(record.getQuestion(), em);
+        });
+
+        final Iterator<Question> it = record.getQuestion().getSubQuestions().iterator();
+        final Question kept = it.next();
+        final Question removed = it.next();
+        final Question added = new Question();
+        added.setOrigin(Generator.generateUri());
+        record.getQuestion().setSubQuestions(new HashSet<>(Set.of(kept, added)));
+
+        transactional(() -> sut.update(record));
+
+        final Question result = em.find(Question.class, record.getQuestion().getUri(), descriptor);
+        assertEquals(Set.of(kept.getUri(), added.getUri()),
+                     result.getSubQuestions().stream().map(Question::getUri).collect(Collectors.toSet()));
+        assertNull(em.find(Question.class, removed.getUri(), descriptor));
+        final Answer keptAnswer = kept.getAnswers().iterator().next();
+        assertNotNull(em.find(Answer.class, keptAnswer.getUri(), descriptor));
+    }
+
+    @Test
+    void updateKeepsSubQuestionMovedToAnotherParent() {
+        final User author = generateAuthorWithInstitution();
+        final Record record = Generator.generateRecord(author);
+        record.setKey(IdentificationUtils.generateKey());
+        record.setUri(RecordDao.generateRecordUriFromKey(record.getKey()));
+        record.setQuestion(Generator.generateQuestionAnswerTree());
+        final Descriptor descriptor = getDescriptor(record);
+        transactional(() -> {
+            em.persist(record, descriptor);
+            new QuestionSaver(descriptor).persistIfNecessary(record.getQuestion(), em);
+        });
+
+        final Iterator<Question> it = record.getQuestion().getSubQuestions().iterator();
+        final Question parent = it.next();
+        final Question moved = it.next();
+        record.getQuestion().setSubQuestions(new HashSet<>(Set.of(parent)));
+        parent.setSubQuestions(new HashSet<>(Set.of(moved)));
+
+        transactional(() -> sut.update(record));
+
+        final Question root = em.find(Question.class, record.getQuestion().getUri(), descriptor);
+        assertEquals(Set.of(parent.getUri()),
+                     root.getSubQuestions().stream().map(Question::getUri).collect(Collectors.toSet()));
+        final Question parentResult = em.find(Question.class, parent.getUri(), descriptor);
+        assertEquals(Set.of(moved.getUri()),
+                     parentResult.getSubQuestions().stream().map(Question::getUri).collect(Collectors.toSet()));
+        final Question movedResult = em.find(Question.class, moved.getUri(), descriptor);
+        assertNotNull(movedResult);
+        final Answer movedAnswer = moved.getAnswers().iterator().next();
+        assertNotNull(em.find(Answer.class, movedAnswer.getUri(), descriptor));
+    }
+
+    @Test
+    void updateKeepsSubQuestionSharedWithRemovedParent() {
+        final User author = generateAuthorWithInstitution();
+        final Record record = Generator.generateRecord(author);
+        record.setKey(IdentificationUtils.generateKey());
+        record.setUri(RecordDao.generateRecordUriFromKey(record.getKey()));
+        record.setQuestion(Generator.generateQuestionAnswerTree());
+        final Iterator<Question> it = record.getQuestion().getSubQuestions().iterator();
+        final Question kept = it.next();
+        final Question removed = it.next();
+        final Question shared = new Question();
+        shared.setUri(Generator.generateUri());
+        shared.setOrigin(Generator.generateUri());
+        kept.setSubQuestions(new HashSet<>(Set.of(shared)));
+        removed.setSubQuestions(new HashSet<>(Set.of(shared)));
+        final Descriptor descriptor = getDescriptor(record);
+        transactional(() -> {
+            em.persist(record, descriptor);
+            new QuestionSaver(descriptor).persistIfNecessary(record.getQuestion(), em);
+        });
+
+        record.getQuestion().setSubQuestions(new HashSet<>(Set.of(kept)));
+
+        transactional(() -> sut.update(record));
+
+        assertNull(em.find(Question.class, removed.getUri(), descriptor));
+        final Question keptResult = em.find(Question.class, kept.getUri(), descriptor);
+        assertEquals(Set.of(shared.getUri()),
+                     keptResult.getSubQuestions().stream().map(Question::getUri).collect(Collectors.toSet()));
+        assertNotNull(em.find(Question.class, shared.getUri(), descriptor));
+    }
+
+    @Test
+    void requireUniqueNonEmptyLocalNameThrowsValidationExceptionWhenRecordWithSameLocalNameAndFormTemplateExists() {
+        final User author = generateAuthorWithInstitution();
+        final Record existing = Generator.generateRecord(author);
+        existing.setFormTemplate(Generator.generateUri().toString());
+        transactional(() -> persistRecordWithIdentification(existing));
+
+        final Record record = Generator.generateRecord(author);
+        record.setUri(null);
+        record.setLocalName(existing.getLocalName());
+        record.setFormTemplate(existing.getFormTemplate());
+
+        assertThrows(ValidationException.class, () -> sut.requireUniqueNonEmptyLocalName(record));
+    }
+
+    @Test
+    void requireUniqueNonEmptyLocalNameAcceptsRecordItselfAndRecordsWithDifferentFormTemplate() {
+        final User author = generateAuthorWithInstitution();
+        final Record existing = Generator.generateRecord(author);
+        existing.setFormTemplate(Generator.generateUri().toString());
+        transactional(() -> persistRecordWithIdentification(existing));
+
+        sut.requireUniqueNonEmptyLocalName(existing);
+        final Record record = Generator.generateRecord(author);
+        record.setUri(null);
+        record.setLocalName(existing.getLocalName());
+        record.setFormTemplate(Generator.generateUri().toString());
+        sut.requireUniqueNonEmptyLocalName(record);
+    }
+
     @Test
     void findByKeyLoadsRecordByKey() {
         final User author = generateAuthorWithInstitution();
@@ -264,12 +512,88 @@ public class RecordDaoTest extends BaseDaoTestRunner {
         assertNotNull(result.getQuestion());
     }
 
+    @Test
+    void findByKeyLoadsWholeQuestionAnswerTreeFromRecordGraph() {
+        final User author = generateAuthorWithInstitution();
+        final Record record = Generator.generateRecord(author);
+        record.setKey(IdentificationUtils.generateKey());
+        record.setFormTemplate(Generator.generateUri().toString());
+        record.setDateCreated(new Date());
+        record.setQuestion(Generator.generateQuestionAnswerTree());
+        final Descriptor descriptor = getDescriptor(record);
+        transactional(() -> {
+            em.persist(record, descriptor);
+            new QuestionSaver(descriptor).persistIfNecessary(record.getQuestion(), em);
+        });
+
+        final Record result = sut.findByKey(record.getKey());
+        assertEquals(record.getUri(), result.getUri());
+        assertEquals(record.getLocalName(), result.getLocalName());
+        assertEquals(record.getFormTemplate(), result.getFormTemplate());
+        assertEquals(record.getDateCreated(), result.getDateCreated());
+        assertEquals(record.getPhase(), result.getPhase());
+        assertEquals(author.getUri(), result.getAuthor().getUri());
+        assertEquals(author.getInstitution().getUri(), result.getInstitution().getUri());
+        assertEquals(record.getQuestion().getUri(), result.getQuestion().getUri());
+        assertEquals(record.getQuestion().getOrigin(), result.getQuestion().getOrigin());
+        assertThat(result.getQuestion().getSubQuestions(),
+                   containsSameEntities(record.getQuestion().getSubQuestions()));
+        for (Question expected : record.getQuestion().getSubQuestions()) {
+            final Question actual = result.getQuestion().getSubQuestions().stream()
+                                          .filter(q -> q.getUri().equals(expected.getUri())).findFirst()
+                                          .orElseThrow();
+            assertEquals(expected.getOrigin(), actual.getOrigin());
+            assertEquals(1, actual.getAnswers().size());
+            final Answer expectedAnswer = expected.getAnswers().iterator().next();
+            final Answer actualAnswer = actual.getAnswers().iterator().next();
+            assertEquals(expectedAnswer.getUri(), actualAnswer.getUri());
+            assertEquals(expectedAnswer.getTextValue(), actualAnswer.getTextValue());
+            assertEquals(expectedAnswer.getCodeValue(), actualAnswer.getCodeValue());
+        }
+    }
+
+    @Test
+    void removeRemovesRecordLoadedByKey() {
+        final User author = generateAuthorWithInstitution();
+        final Record record = Generator.generateRecord(author);
+        record.setKey(IdentificationUtils.generateKey());
+        record.setQuestion(Generator.generateQuestionAnswerTree());
+        final Descriptor descriptor = getDescriptor(record);
+        transactional(() -> {
+            em.persist(record, descriptor);
+            new QuestionSaver(descriptor).persistIfNecessary(record.getQuestion(), em);
+        });
+        final Record toRemove = sut.findByKey(record.getKey());
+        assertNotNull(toRemove);
+
+        transactional(() -> sut.remove(toRemove));
+        assertFalse(sut.exists(record.getUri()));
+        assertNull(sut.findByKey(record.getKey()));
+    }
+
     private void persistRecordWithIdentification(Record record) {
         record.setKey(IdentificationUtils.generateKey());
         record.setUri(RecordDao.generateRecordUriFromKey(record.getKey()));
         em.persist(record, getDescriptor(record));
     }
 
+    @Test
+    void updateStatusSetsPhaseOfAllSpecifiedRecords() {
+        final User author = generateAuthorWithInstitution();
+        final List<Record> records = generateRecordsForAuthor(author, 3);
+        records.forEach(r -> r.setPhase(RecordPhase.completed));
+        transactional(() -> records.forEach(this::persistRecordWithIdentification));
+        // Load the records into cache
+        records.forEach(r -> assertEquals(RecordPhase.completed, sut.find(r.getUri()).getPhase()));
+
+        final List<URI> toPublish = List.of(records.get(0).getUri(), records.get(1).getUri());
+        transactional(() -> sut.updateStatus(toPublish, RecordPhase.published));
+
+        assertEquals(RecordPhase.published, sut.find(records.get(0).getUri()).getPhase());
+        assertEquals(RecordPhase.published, sut.find(records.get(1).getUri()).getPhase());
+        assertEquals(RecordPhase.completed, sut.find(records.get(2).getUri()).getPhase());
+    }
+
     @Test
     void findAllFullReturnsRecordsMatchingSpecifiedDatePeriod() {
         final User author = generateAuthorWithInstitution();
@@ -293,6 +617,42 @@ public class RecordDaoTest extends BaseDaoTestRunner {
         assertThat(result.getContent(), containsSameEntities(expected));
     }
 
+    @Test
+    void findAllFullWithShallowFetchPlanReturnsRecordsWithoutQuestionTree() {
+        final User author = generateAuthorWithInstitution();
+        final List<Record> allRecords = generateRecordsForAuthor(author, 3);
+        transactional(() -> allRecords.forEach(r -> {
+            r.setQuestion(Generator.generateQuestionAnswerTree());
+            persistRecordWithIdentification(r);
+            new QuestionSaver(getDescriptor(r)).persistIfNecessary(r.getQuestion(), em);
+        }));
+
+        final Page<Record> result = sut.findAllRecordsFull(new RecordFilterParams(), Pageable.unpaged(),
+                                                           RecordFetchPlan.SHALLOW);
+        assertThat(result.getContent(), containsSameEntities(allRecords));
+        result.getContent().forEach(r -> {
+            assertNull(r.getQuestion());
+            assertNotNull(r.getKey());
+            assertEquals(author.getUri(), r.getAuthor().getUri());
+            assertEquals(author.getInstitution().getUri(), r.getInstitution().getUri());
+        });
+    }
+
+    @Test
+    void findByAuthorWithHeaderFetchPlanReturnsRecordsWithoutReferences() {
+        final User author = generateAuthorWithInstitution();
+        final List<Record> allRecords = generateRecordsForAuthor(author, 2);
+        transactional(() -> allRecords.forEach(this::persistRecordWithIdentification));
+
+        final List<Record> result = sut.findByAuthor(author, RecordFetchPlan.HEADER);
+        assertThat(result, containsSameEntities(allRecords));
+        result.forEach(r -> {
+            assertNotNull(r.getLocalName());
+            assertNull(r.getAuthor());
+            assertNull(r.getQuestion());
+        });
+    }
+
     private List<Record> generateRecordsForAuthor(User author, int count) {
         return IntStream.range(0, count).mapToObj(i -> {
                             final Record r = Generator.generateRecord(author);
@@ -449,6 +809,95 @@ public class RecordDaoTest extends BaseDaoTestRunner {
         }
     }
 
+    @Test
+    void findAllRecordsWithCursorTraversesAllMatchingRecordsPageByPage() {
+        final User author = generateAuthorWithInstitution();
+        final List<Record> allRecords = generateRecordsForAuthor(author, 7);
+        transactional(() -> allRecords.forEach(this::persistRecordWithIdentification));
+        final int pageSize = 3;
+
+        final List<URI> traversed = new ArrayList<>();
+        RecordFilterParams filters = new RecordFilterParams().withCursor(RecordCursor.initial());
+        while (true) {
+            final Page<RecordDto> result = sut.findAllRecords(filters, PageRequest.of(0, pageSize));
+            assertInstanceOf(CursorPage.class, result);
+            assertEquals(allRecords.size(), result.getTotalElements());
+            result.forEach(r -> traversed.add(r.getUri()));
+            final Optional<RecordCursor> next = ((CursorPage<RecordDto>) result).getNextCursor();
+            if (next.isEmpty()) {
+                break;
+            }
+            filters = filters.withCursor(next.get());
+        }
+        assertEquals(allRecords.stream().map(Record::getUri).toList(), traversed);
+    }
+
+    @Test
+    void findAllRecordsWithCursorReturnsRecordsFollowingCursorInAscendingOrder() {
+        final User author = generateAuthorWithInstitution();
+        final List<Record> allRecords = new ArrayList<>(generateRecordsForAuthor(author, 6));
+        Collections.reverse(allRecords);
+        transactional(() -> allRecords.forEach(this::persistRecordWithIdentification));
+        final Record cursorRecord = allRecords.get(2);
+        final Date cursorDate = cursorRecord.getLastModified() != null ? cursorRecord.getLastModified() :
+                                cursorRecord.getDateCreated();
+        final RecordFilterParams filters =
+                new RecordFilterParams().withCursor(RecordCursor.of(cursorDate.toInstant(), cursorRecord.getUri()));
+
+        final Page<RecordDto> result = sut.findAllRecords(filters, PageRequest.of(0, allRecords.size(),
+                                                                                  Sort.Direction.ASC,
+                                                                                  RecordSort.SORT_DATE_PROPERTY));
+        assertEquals(allRecords.subList(3, allRecords.size()).stream().map(Record::getUri).toList(),
+                     result.getContent().stream().map(RecordDto::getUri).toList());
+        assertFalse(result.hasNext());
+    }
+
+    @Test
+    void findAllRecordsReturnsExactTotalCountAfterRecordIsPersisted() {
+        final User author = generateAuthorWithInstitution();
+        final List<Record> allRecords = generateRecordsForAuthor(author, 5);
+        transactional(() -> allRecords.forEach(this::persistRecordWithIdentification));
+        final Page<RecordDto> before = sut.findAllRecords(new RecordFilterParams(), PageRequest.of(0, 2));
+        assertEquals(allRecords.size(), before.getTotalElements());
+
+        final Record added = Generator.generateRecord(author);
+        added.setDateCreated(new Date());
+        transactional(() -> sut.persist(added));
+
+        final Page<RecordDto> after = sut.findAllRecords(new RecordFilterParams(), PageRequest.of(1, 2));
+        assertEquals(allRecords.size() + 1, after.getTotalElements());
+    }
+
+    @Test
+    void findAllRecordsReflectsPhaseChangeMadeAfterRecordsWereListed() {
+        final User author = generateAuthorWithInstitution();
+        final List<Record> allRecords = generateRecordsForAuthor(author, 4);
+        allRecords.forEach(r -> r.setPhase(RecordPhase.open));
+        transactional(() -> allRecords.forEach(this::persistRecordWithIdentification));
+        final RecordFilterParams filters = new RecordFilterParams();
+        filters.setPhaseIds(Set.of(RecordPhase.completed.getIri()));
+        assertTrue(sut.findAllRecords(filters, Pageable.unpaged()).isEmpty());
+
+        final URI completed = allRecords.get(1).getUri();
+        transactional(() -> sut.updateStatus(completed, RecordPhase.completed));
+
+        final Page<RecordDto> result = sut.findAllRecords(filters, Pageable.unpaged());
+        assertEquals(List.of(completed), result.getContent().stream().map(RecordDto::getUri).toList());
+        assertEquals(1, result.getTotalElements());
+    }
+
+    @Test
+    void findExistingUrisReturnsIdentifiersOfExistingRecordsOnly() {
+        final User author = generateAuthorWithInstitution();
+        final List<Record> allRecords = generateRecordsForAuthor(author, 3);
+        transactional(() -> allRecords.forEach(this::persistRecordWithIdentification));
+        final List<URI> toCheck = new ArrayList<>(allRecords.stream().map(Record::getUri).toList());
+        toCheck.add(Generator.generateUri());
+
+        final Set<URI> result = sut.findExistingUris(toCheck);
+        assertEquals(Set.copyOf(allRecords.stream().map(Record::getUri).toList()), result);
+    }
+
     @Test
     void persistDoesNotGenerateIdentificationWhenRecordAlreadyHasIt() {
         final User author = generateAuthorWithInstitution();
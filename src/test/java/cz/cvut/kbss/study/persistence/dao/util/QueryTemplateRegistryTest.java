@@ -0,0 +1,54 @@
+package cz.cvut.kbss.study.persistence.dao.util;
+
+import cz.cvut.kbss.study.exception.RecordManagerException;
+import cz.cvut.kbss.study.persistence.dao.RecordDao;
+import cz.cvut.kbss.study.util.Utils;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QueryTemplateRegistryTest {
+
+    private final QueryTemplateRegistry sut = new QueryTemplateRegistry();
+
+    @Test
+    void getReturnsTemplateOfQueryLoadedFromQueryDirectory() {
+        final QueryTemplate result = sut.get(RecordDao.FIND_ALL_RAW_RECORDS);
+        assertEquals(Utils.loadQuery(RecordDao.FIND_ALL_RAW_RECORDS), result.getText());
+    }
+
+    @Test
+    void getThrowsRecordManagerExceptionForUnknownQuery() {
+        assertThrows(RecordManagerException.class, () -> sut.get("unknown.rq"));
+    }
+
+    @Test
+    void fillReplacesPlaceholderWithValue() {
+        final String clause = "{ ?r a ?type . }";
+        final String expected = Utils.loadQuery(RecordDao.FIND_ALL_RAW_RECORDS)
+                                     .replace(RecordDao.RECORDS_CLAUSE_TEMPLATE_VAR, clause);
+
+        assertEquals(expected, sut.get(RecordDao.FIND_ALL_RAW_RECORDS)
+                                  .fill(RecordDao.RECORDS_CLAUSE_TEMPLATE_VAR, clause));
+    }
+
+    @Test
+    void fillThrowsIllegalArgumentExceptionWhenPlaceholderValueIsMissing() {
+        final QueryTemplate template = QueryTemplate.parse("test", "SELECT * WHERE ###CLAUSE###");
+        assertThrows(IllegalArgumentException.class, () -> template.fill("###OTHER###", "{}"));
+    }
+
+    @Test
+    void assembleCachesAssembledQueryByKey() {
+        final AtomicInteger calls = new AtomicInteger();
+        final String first = sut.assemble("test:1", () -> "SELECT ?r WHERE { ?r a ?type . }" + calls.incrementAndGet());
+        final String second = sut.assemble("test:1", () -> "SELECT ?r WHERE { ?r a ?type . }" + calls.incrementAndGet());
+
+        assertSame(first, second);
+        assertEquals(1, calls.get());
+    }
+}
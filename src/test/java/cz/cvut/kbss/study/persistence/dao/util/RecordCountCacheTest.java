@@ -0,0 +1,50 @@
+package cz.cvut.kbss.study.persistence.dao.util;
+
+import cz.cvut.kbss.study.environment.util.MutableClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RecordCountCacheTest {
+
+    private final MutableClock clock = new MutableClock();
+
+    private final RecordCountCache sut = new RecordCountCache(Duration.ofMinutes(1), clock);
+
+    private final AtomicInteger count = new AtomicInteger(5);
+
+    @Test
+    void getOrComputeReturnsCachedCountForSameFiltersRegardlessOfCursor() {
+        assertEquals(5, sut.getOrCompute("records", new RecordFilterParams(), count::get));
+        count.set(6);
+
+        final RecordFilterParams next = new RecordFilterParams().withCursor(RecordCursor.initial());
+        assertEquals(5, sut.getOrCompute("records", next, count::get));
+        assertEquals(6, sut.getOrCompute("records", new RecordFilterParams(Set.of("inst-1")), count::get));
+    }
+
+    @Test
+    void getOrComputeComputesCountAgainAfterInvalidation() {
+        assertEquals(5, sut.getOrCompute("records", new RecordFilterParams(), count::get));
+        count.set(6);
+
+        sut.invalidate();
+        assertEquals(6, sut.getOrCompute("records", new RecordFilterParams(), count::get));
+    }
+
+    @Test
+    void getOrComputeComputesCountAgainWhenMaxAgeIsExceeded() {
+        assertEquals(5, sut.getOrCompute("records", new RecordFilterParams(), count::get));
+        // Change not tracked by the cache, e.g., made by another application instance
+        count.set(6);
+        clock.advance(Duration.ofSeconds(30));
+        assertEquals(5, sut.getOrCompute("records", new RecordFilterParams(), count::get));
+
+        clock.advance(Duration.ofMinutes(1));
+        assertEquals(6, sut.getOrCompute("records", new RecordFilterParams(), count::get));
+    }
+}
@@ -0,0 +1,110 @@
+package cz.cvut.kbss.study.persistence.dao.util;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.study.environment.generator.Generator;
+import cz.cvut.kbss.study.model.Institution;
+import cz.cvut.kbss.study.model.Record;
+import cz.cvut.kbss.study.model.User;
+import cz.cvut.kbss.study.model.qam.Question;
+import cz.cvut.kbss.study.persistence.BaseDaoTestRunner;
+import cz.cvut.kbss.study.persistence.dao.InstitutionDao;
+import cz.cvut.kbss.study.persistence.dao.RecordDao;
+import cz.cvut.kbss.study.persistence.dao.RoleGroupDao;
+import cz.cvut.kbss.study.persistence.dao.UserDao;
+import cz.cvut.kbss.study.persistence.monitoring.QueryMonitor;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecordGraphLoaderTest extends BaseDaoTestRunner {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private RecordDao recordDao;
+
+    @Autowired
+    private UserDao userDao;
+
+    @Autowired
+    private InstitutionDao institutionDao;
+
+    @Autowired
+    private RoleGroupDao roleGroupDao;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RecordGraphLoader sut;
+
+    @BeforeEach
+    void setUp() {
+        this.sut = new RecordGraphLoader(em, new QueryMonitor(meterRegistry, Duration.ofMinutes(1), 1));
+    }
+
+    @Test
+    void loadAssemblesRecordWithQuestionTreeFromRecordGraph() {
+        final Record record = persistRecord();
+
+        final Optional<Record> result = sut.load(record.getUri());
+        assertTrue(result.isPresent());
+        assertEquals(record.getUri(), result.get().getUri());
+        assertEquals(record.getKey(), result.get().getKey());
+        assertEquals(record.getLocalName(), result.get().getLocalName());
+        assertEquals(record.getAuthor(), result.get().getAuthor());
+        final Question question = result.get().getQuestion();
+        assertNotNull(question);
+        assertEquals(record.getQuestion().getUri(), question.getUri());
+        assertEquals(record.getQuestion().getSubQuestions().size(), question.getSubQuestions().size());
+    }
+
+    private Record persistRecord() {
+        final Institution institution = Generator.generateInstitution();
+        final User author = Generator.generateUser(institution, Generator.generateAdminRoleGroup());
+        final Record record = Generator.generateRecord(author);
+        record.setUri(null);
+        record.setQuestion(Generator.generateQuestionAnswerTree());
+        transactional(() -> {
+            roleGroupDao.persist(author.getRoleGroup());
+            institutionDao.persist(institution);
+            userDao.persist(author);
+            recordDao.persist(record);
+        });
+        return record;
+    }
+
+    @Test
+    void loadReturnsEmptyOptionalForGraphWithoutRecord() {
+        assertTrue(sut.load(Generator.generateUri()).isEmpty());
+    }
+
+    @Test
+    void loadReportsStatementRetrievalToQueryMonitor() {
+        final Record record = persistRecord();
+
+        sut.load(record.getUri());
+        final Timer timer = meterRegistry.find("recordmanager.sparql.query")
+                                         .tag("query", RecordGraphLoader.QUERY_NAME)
+                                         .tag("outcome", "success")
+                                         .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void loadThrowsIllegalStateExceptionWhenCalledInReadWriteTransaction() {
+        final Record record = persistRecord();
+
+        transactional(() -> assertThrows(IllegalStateException.class, () -> sut.load(record.getUri())));
+    }
+}
@@ -0,0 +1,29 @@
+package cz.cvut.kbss.study.persistence.dao.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RecordSortTest {
+
+    @Test
+    void normalizeKeepsOnlyFirstOrderOfEachProperty() {
+        final Sort sort = Sort.by(Sort.Order.asc(RecordSort.SORT_DATE_PROPERTY).ignoreCase(),
+                                  Sort.Order.desc(RecordSort.SORT_DATE_PROPERTY),
+                                  Sort.Order.asc(RecordSort.SORT_DATE_PROPERTY));
+
+        assertEquals(Sort.by(Sort.Order.asc(RecordSort.SORT_DATE_PROPERTY)), RecordSort.normalize(sort));
+    }
+
+    @Test
+    void normalizeReturnsUnsortedForUnsortedSort() {
+        assertEquals(Sort.unsorted(), RecordSort.normalize(Sort.unsorted()));
+    }
+
+    @Test
+    void normalizeThrowsIllegalArgumentExceptionForUnsupportedProperty() {
+        assertThrows(IllegalArgumentException.class, () -> RecordSort.normalize(Sort.by("label")));
+    }
+}
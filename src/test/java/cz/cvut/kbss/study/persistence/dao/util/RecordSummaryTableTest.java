@@ -0,0 +1,197 @@
+package cz.cvut.kbss.study.persistence.dao.util;
+
+import cz.cvut.kbss.study.dto.RecordSummary;
+import cz.cvut.kbss.study.environment.generator.Generator;
+import cz.cvut.kbss.study.environment.util.MutableClock;
+import cz.cvut.kbss.study.model.RecordPhase;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecordSummaryTableTest {
+
+    private final List<RecordSummary> repository = new ArrayList<>();
+
+    private final List<Collection<URI>> loaderCalls = new ArrayList<>();
+
+    private final Function<Collection<URI>, List<RecordSummary>> loader = uris -> {
+        loaderCalls.add(uris);
+        return repository.stream().filter(r -> uris == null || uris.contains(r.getUri())).toList();
+    };
+
+    private final RecordSummaryTable sut = new RecordSummaryTable();
+
+    @Test
+    void findMatchingReturnsRecordsMatchingIndexedAttributesSortedByDate() {
+        final RecordSummary first = summary("inst-1", RecordPhase.completed, LocalDate.now().minusDays(2));
+        final RecordSummary second = summary("inst-1", RecordPhase.completed, LocalDate.now().minusDays(1));
+        summary("inst-1", RecordPhase.open, LocalDate.now());
+        summary("inst-2", RecordPhase.completed, LocalDate.now());
+        final RecordFilterParams filters = new RecordFilterParams(Set.of("inst-1"));
+        filters.setPhaseIds(Set.of(RecordPhase.completed.getIri()));
+
+        assertEquals(List.of(second, first), findAll(filters, false));
+        assertEquals(List.of(first, second), findAll(filters, true));
+    }
+
+    @Test
+    void findMatchingReturnsRecordsInDateRange() {
+        summary("inst-1", RecordPhase.open, LocalDate.now().minusDays(5));
+        final RecordSummary inRange = summary("inst-1", RecordPhase.open, LocalDate.now().minusDays(3));
+        summary("inst-1", RecordPhase.open, LocalDate.now());
+        final RecordFilterParams filters = new RecordFilterParams();
+        filters.setMinModifiedDate(LocalDate.now().minusDays(4));
+        filters.setMaxModifiedDate(LocalDate.now().minusDays(1));
+
+        assertEquals(List.of(inRange), findAll(filters, false));
+    }
+
+    @Test
+    void findMatchingReloadsOnlyStaleRecords() {
+        final RecordSummary record = summary("inst-1", RecordPhase.open, LocalDate.now());
+        final RecordFilterParams filters = new RecordFilterParams();
+        filters.setPhaseIds(Set.of(RecordPhase.published.getIri()));
+        assertTrue(findAll(filters, false).isEmpty());
+
+        final RecordSummary updated = summary("inst-1", RecordPhase.published, LocalDate.now());
+        updated.setUri(record.getUri());
+        repository.remove(record);
+        sut.markStale(Set.of(record.getUri()));
+
+        assertEquals(List.of(updated), findAll(filters, false));
+        assertTrue(findAll(new RecordFilterParams(Set.of("inst-2")), false).isEmpty());
+        assertEquals(List.of(Set.of(record.getUri())), loaderCalls.subList(1, loaderCalls.size()));
+    }
+
+    @Test
+    void findMatchingDropsRemovedRecordsMarkedAsStale() {
+        final RecordSummary record = summary("inst-1", RecordPhase.open, LocalDate.now());
+        assertEquals(List.of(record), findAll(new RecordFilterParams(), false));
+
+        repository.remove(record);
+        sut.markStale(Set.of(record.getUri()));
+
+        assertTrue(findAll(new RecordFilterParams(Set.of("inst-1")), false).isEmpty());
+    }
+
+    @Test
+    void findMatchingReturnsRecordsAfterCursor() {
+        final RecordSummary first = summary("inst-1", RecordPhase.open, LocalDate.now().minusDays(2));
+        final RecordSummary second = summary("inst-1", RecordPhase.open, LocalDate.now().minusDays(1));
+        final RecordSummary third = summary("inst-1", RecordPhase.open, LocalDate.now());
+        final RecordCursor cursor = RecordCursor.of(first.getDate().toInstant(), first.getUri());
+
+        final RecordSummaryTable.Window result = sut.findMatching(new RecordFilterParams().withCursor(cursor), true, 0,
+                                                                  Integer.MAX_VALUE, loader);
+        assertEquals(List.of(second, third), result.rows());
+        assertEquals(3, result.total());
+        final RecordFilterParams filters = new RecordFilterParams(Set.of("inst-1")).withCursor(cursor);
+        assertEquals(List.of(second, third), sut.findMatching(filters, true, 0, Integer.MAX_VALUE, loader).rows());
+    }
+
+    @Test
+    void findMatchingReturnsRecordsAfterCursorInDescendingOrder() {
+        final RecordSummary first = summary("inst-1", RecordPhase.open, LocalDate.now().minusDays(2));
+        final RecordSummary second = summary("inst-1", RecordPhase.open, LocalDate.now().minusDays(1));
+        final RecordSummary third = summary("inst-1", RecordPhase.open, LocalDate.now());
+        final RecordCursor cursor = RecordCursor.of(third.getDate().toInstant(), third.getUri());
+
+        assertEquals(List.of(second, first), findAll(new RecordFilterParams().withCursor(cursor), false));
+        assertEquals(List.of(second, first),
+                     findAll(new RecordFilterParams(Set.of("inst-1")).withCursor(cursor), false));
+    }
+
+    @Test
+    void findMatchingCountsRecordsInDateRangeAddedAfterPreviousCount() {
+        summary("inst-1", RecordPhase.open, LocalDate.now().minusDays(3));
+        final RecordFilterParams filters = new RecordFilterParams();
+        filters.setMinModifiedDate(LocalDate.now().minusDays(4));
+        assertEquals(1, sut.findMatching(filters, true, 0, 10, loader).total());
+
+        final RecordSummary added = summary("inst-1", RecordPhase.open, LocalDate.now().minusDays(2));
+        sut.markStale(Set.of(added.getUri()));
+
+        assertEquals(2, sut.findMatching(filters, true, 0, 10, loader).total());
+    }
+
+    @Test
+    void findMatchingReturnsOnlyRequestedWindowWithTotalCount() {
+        final List<RecordSummary> records = new ArrayList<>();
+        for (int i = 10; i > 0; i--) {
+            records.add(summary("inst-" + (i % 2), RecordPhase.open, LocalDate.now().minusDays(i)));
+        }
+
+        final RecordSummaryTable.Window result = sut.findMatching(new RecordFilterParams(), true, 4, 3, loader);
+        assertEquals(records.subList(4, 7), result.rows());
+        assertEquals(records.size(), result.total());
+        final RecordSummaryTable.Window indexed = sut.findMatching(new RecordFilterParams(Set.of("inst-0")), true, 1,
+                                                                   2, loader);
+        assertEquals(List.of(records.get(2), records.get(4)), indexed.rows());
+        assertEquals(5, indexed.total());
+    }
+
+    @Test
+    void findMatchingReloadsWholeTableWhenMaxAgeIsExceeded() {
+        final MutableClock clock = new MutableClock();
+        final RecordSummaryTable sut = new RecordSummaryTable(Duration.ofMinutes(1), clock);
+        final RecordSummary record = summary("inst-1", RecordPhase.open, LocalDate.now());
+        assertEquals(List.of(record), sut.findMatching(new RecordFilterParams(), true, 0, 10, loader).rows());
+        // Change not tracked by the table
+        moveToInstitution(record, "inst-2");
+        clock.advance(Duration.ofSeconds(30));
+        assertEquals(1, sut.findMatching(new RecordFilterParams(Set.of("inst-1")), true, 0, 10, loader).total());
+
+        clock.advance(Duration.ofMinutes(1));
+
+        assertEquals(1, sut.findMatching(new RecordFilterParams(Set.of("inst-2")), true, 0, 10, loader).total());
+        assertEquals(2, loaderCalls.stream().filter(Objects::isNull).count());
+    }
+
+    @Test
+    void findMatchingReloadsWholeTableAfterInvalidation() {
+        final RecordSummary record = summary("inst-1", RecordPhase.open, LocalDate.now());
+        assertEquals(List.of(record), findAll(new RecordFilterParams(Set.of("inst-1")), true));
+        final RecordSummary moved = moveToInstitution(record, "inst-2");
+
+        sut.invalidate();
+
+        assertEquals(List.of(moved), findAll(new RecordFilterParams(Set.of("inst-2")), true));
+        assertTrue(findAll(new RecordFilterParams(Set.of("inst-1")), true).isEmpty());
+    }
+
+    private RecordSummary moveToInstitution(RecordSummary record, String institutionKey) {
+        final RecordSummary moved = summary(institutionKey, RecordPhase.open, LocalDate.now());
+        moved.setUri(record.getUri());
+        moved.setDate(record.getDate());
+        repository.remove(record);
+        return moved;
+    }
+
+    private List<RecordSummary> findAll(RecordFilterParams filters, boolean ascending) {
+        return sut.findMatching(filters, ascending, 0, Integer.MAX_VALUE, loader).rows();
+    }
+
+    private RecordSummary summary(String institutionKey, RecordPhase phase, LocalDate date) {
+        final RecordSummary summary = new RecordSummary();
+        summary.setUri(Generator.generateUri());
+        summary.setInstitutionKey(institutionKey);
+        summary.setPhase(URI.create(phase.getIri()));
+        summary.setDate(Date.from(date.atTime(12, 0).toInstant(ZoneOffset.UTC)));
+        summary.setCreated(summary.getDate());
+        repository.add(summary);
+        return summary;
+    }
+}
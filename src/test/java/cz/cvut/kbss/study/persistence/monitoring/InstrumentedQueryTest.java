@@ -0,0 +1,92 @@
+package cz.cvut.kbss.study.persistence.monitoring;
+
+import cz.cvut.kbss.jopa.exceptions.NoResultException;
+import cz.cvut.kbss.jopa.model.query.TypedQuery;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InstrumentedQueryTest {
+
+    private static final String NAME = "RecordDao.findRecords";
+
+    @Mock
+    private TypedQuery<String> queryMock;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final QueryMonitor monitor = new QueryMonitor(meterRegistry, Duration.ofMinutes(1), 1);
+
+    @Test
+    void getResultListRecordsExecutionTimeAndNumberOfRows() {
+        when(queryMock.getResultList()).thenReturn(List.of("a", "b", "c"));
+        final TypedQuery<String> sut = InstrumentedQuery.wrap(queryMock, NAME, monitor);
+
+        assertEquals(List.of("a", "b", "c"), sut.getResultList());
+        final Timer timer = meterRegistry.find(QueryMonitor.QUERY_TIMER).tag("query", NAME)
+                                         .tag("outcome", "success").timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+        final DistributionSummary rows = meterRegistry.find(QueryMonitor.QUERY_ROWS).tag("query", NAME).summary();
+        assertNotNull(rows);
+        assertEquals(3, rows.totalAmount());
+    }
+
+    @Test
+    void chainedCallsReturnInstrumentedQuery() {
+        when(queryMock.setParameter("type", "value")).thenReturn(queryMock);
+        when(queryMock.setMaxResults(10)).thenReturn(queryMock);
+        final TypedQuery<String> sut = InstrumentedQuery.wrap(queryMock, NAME, monitor);
+
+        assertSame(sut, sut.setParameter("type", "value").setMaxResults(10));
+        verify(queryMock).setMaxResults(10);
+    }
+
+    @Test
+    void failedExecutionIsRecordedWithErrorOutcomeAndExceptionIsRethrown() {
+        when(queryMock.getSingleResult()).thenThrow(new NoResultException("No result"));
+        final TypedQuery<String> sut = InstrumentedQuery.wrap(queryMock, NAME, monitor);
+
+        assertThrows(NoResultException.class, sut::getSingleResult);
+        final Timer timer = meterRegistry.find(QueryMonitor.QUERY_TIMER).tag("query", NAME)
+                                         .tag("outcome", "error").timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+        assertNull(meterRegistry.find(QueryMonitor.QUERY_ROWS).summary());
+    }
+
+    @Test
+    void repeatedExecutionsAreRecordedBySameMeters() {
+        when(queryMock.getResultList()).thenReturn(List.of("a"));
+        final TypedQuery<String> sut = InstrumentedQuery.wrap(queryMock, NAME, monitor);
+
+        sut.getResultList();
+        sut.getResultList();
+        final Timer timer = meterRegistry.find(QueryMonitor.QUERY_TIMER).tag("query", NAME).timer();
+        assertNotNull(timer);
+        assertEquals(2, timer.count());
+        assertEquals(1, meterRegistry.find(QueryMonitor.QUERY_TIMER).timers().size());
+        assertEquals(2, meterRegistry.find(QueryMonitor.QUERY_ROWS).tag("query", NAME).summary().count());
+    }
+
+    @Test
+    void resolveQueryNameReturnsUnknownWhenQueryIsNotCreatedByDao() {
+        assertEquals(InstrumentedEntityManager.UNKNOWN_QUERY, InstrumentedEntityManager.resolveQueryName());
+    }
+}
@@ -2,6 +2,7 @@ package cz.cvut.kbss.study.rest;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.cvut.kbss.study.dto.PublishJob;
 import cz.cvut.kbss.study.dto.RecordDto;
 import cz.cvut.kbss.study.dto.RecordImportResult;
 import cz.cvut.kbss.study.environment.generator.Generator;
@@ -9,11 +10,15 @@ import cz.cvut.kbss.study.environment.util.Environment;
 import cz.cvut.kbss.study.exception.RecordAuthorNotFoundException;
 import cz.cvut.kbss.study.model.*;
 import cz.cvut.kbss.study.model.Record;
+import cz.cvut.kbss.study.persistence.dao.util.CursorPage;
+import cz.cvut.kbss.study.persistence.dao.util.RecordCursor;
+import cz.cvut.kbss.study.persistence.dao.util.RecordFetchPlan;
 import cz.cvut.kbss.study.persistence.dao.util.RecordFilterParams;
 import cz.cvut.kbss.study.persistence.dao.util.RecordSort;
 import cz.cvut.kbss.study.rest.event.PaginatedResultRetrievedEvent;
 import cz.cvut.kbss.study.rest.util.RestUtils;
 import cz.cvut.kbss.study.service.ConfigReader;
+import cz.cvut.kbss.study.service.PublishRecordsService;
 import cz.cvut.kbss.study.service.RecordService;
 import cz.cvut.kbss.study.service.UserService;
 import cz.cvut.kbss.study.util.ConfigParam;
@@ -27,6 +32,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -37,7 +43,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -49,16 +57,21 @@ import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 public class RecordControllerTest extends BaseControllerTestRunner {
 
+    private static final Pageable EXPORT_CHUNK_SPEC = PageRequest.of(0, 500, RecordSort.defaultSort());
+
     @Mock
     private RecordService recordServiceMock;
 
@@ -71,6 +84,9 @@ public class RecordControllerTest extends BaseControllerTestRunner {
     @Mock
     private UserService userService;
 
+    @Mock
+    private PublishRecordsService publishRecordsServiceMock;
+
     @Spy
     private ObjectMapper objectMapper = Environment.getObjectMapper();
 
@@ -298,15 +314,15 @@ public class RecordControllerTest extends BaseControllerTestRunner {
         when(recordServiceMock.findAllFull(any(RecordFilterParams.class), any(
                 Pageable.class))).thenReturn(new PageImpl<>(records));
 
-        final MvcResult mvcResult = mockMvc.perform(get("/records/export")
+        final MvcResult mvcResult = performStreaming(get("/records/export")
                                                             .param("minDate", minDate.toString())
-                                                            .param("maxDate", maxDate.toString()))
-                                           .andReturn();
+                                                            .param("maxDate", maxDate.toString()));
         final List<Record> result = readValue(mvcResult, new TypeReference<>() {
         });
         assertThat(result, containsSameEntities(records));
         verify(recordServiceMock).findAllFull(
-                new RecordFilterParams(null,Set.of(), minDate, maxDate, Collections.emptySet(), Collections.emptySet()), Pageable.unpaged());
+                new RecordFilterParams(null,Set.of(), minDate, maxDate, Collections.emptySet(), Collections.emptySet()).withCursor(RecordCursor.initial()),
+                EXPORT_CHUNK_SPEC);
     }
 
     @Test
@@ -316,11 +332,34 @@ public class RecordControllerTest extends BaseControllerTestRunner {
         when(recordServiceMock.findAllFull(any(RecordFilterParams.class), any(
                 Pageable.class))).thenReturn(new PageImpl<>(records));
 
-        final MvcResult mvcResult = mockMvc.perform(get("/records/export")).andReturn();
+        final MvcResult mvcResult = performStreaming(get("/records/export"));
+        final List<Record> result = readValue(mvcResult, new TypeReference<>() {
+        });
+        assertThat(result, containsSameEntities(records));
+        verify(recordServiceMock).findAllFull(new RecordFilterParams().withCursor(RecordCursor.initial()),
+                                              EXPORT_CHUNK_SPEC);
+    }
+
+    @Test
+    void exportRecordsLoadsRecordsUsingSpecifiedFetchPlan() throws Exception {
+        final List<Record> records =
+                List.of(Generator.generateRecord(user), Generator.generateRecord(user));
+        when(recordServiceMock.findAllFull(any(RecordFilterParams.class), any(Pageable.class),
+                                           any(RecordFetchPlan.class))).thenReturn(new PageImpl<>(records));
+
+        final MvcResult mvcResult = performStreaming(get("/records/export").param(Constants.FETCH_PLAN_PARAM, "shallow"));
         final List<Record> result = readValue(mvcResult, new TypeReference<>() {
         });
         assertThat(result, containsSameEntities(records));
-        verify(recordServiceMock).findAllFull(new RecordFilterParams(), Pageable.unpaged());
+        verify(recordServiceMock).findAllFull(new RecordFilterParams().withCursor(RecordCursor.initial()),
+                                              EXPORT_CHUNK_SPEC, RecordFetchPlan.SHALLOW);
+    }
+
+    @Test
+    void exportRecordsReturnsBadRequestForUnknownFetchPlan() throws Exception {
+        mockMvc.perform(get("/records/export").param(Constants.FETCH_PLAN_PARAM, "unknown"))
+               .andExpect(status().isBadRequest());
+        verify(recordServiceMock, never()).findAllFull(any(RecordFilterParams.class), any(Pageable.class));
     }
 
     @Test
@@ -332,17 +371,60 @@ public class RecordControllerTest extends BaseControllerTestRunner {
         when(recordServiceMock.findAllFull(any(RecordFilterParams.class), any(
                 Pageable.class))).thenReturn(new PageImpl<>(records));
 
-        final MvcResult mvcResult = mockMvc.perform(get("/records/export")
+        final MvcResult mvcResult = performStreaming(get("/records/export")
                                                             .param("minDate", minDate.toString())
                                                             .param("maxDate", maxDate.toString())
-                                                            .param("institution", user.getInstitution().getKey()))
-                                           .andReturn();
+                                                            .param("institution", user.getInstitution().getKey()));
         final List<Record> result = readValue(mvcResult, new TypeReference<>() {
         });
         assertThat(result, containsSameEntities(records));
         verify(recordServiceMock).findAllFull(
-                new RecordFilterParams(null, Set.of(user.getInstitution().getKey()), minDate, maxDate, Collections.emptySet(), Collections.emptySet()),
-                Pageable.unpaged());
+                new RecordFilterParams(null, Set.of(user.getInstitution().getKey()), minDate, maxDate, Collections.emptySet(), Collections.emptySet()).withCursor(RecordCursor.initial()),
+                EXPORT_CHUNK_SPEC);
+    }
+
+    @Test
+    void exportRecordsWithoutPagingWritesAllChunksFollowingCursors() throws Exception {
+        final List<Record> firstChunk =
+                List.of(Generator.generateRecord(user), Generator.generateRecord(user));
+        final List<Record> secondChunk = List.of(Generator.generateRecord(user));
+        final RecordCursor next = RecordCursor.of(Instant.now(), Generator.generateUri());
+        when(recordServiceMock.findAllFull(new RecordFilterParams().withCursor(RecordCursor.initial()),
+                                           EXPORT_CHUNK_SPEC))
+                .thenReturn(new CursorPage<>(firstChunk, EXPORT_CHUNK_SPEC, 3, next));
+        when(recordServiceMock.findAllFull(new RecordFilterParams().withCursor(next), EXPORT_CHUNK_SPEC))
+                .thenReturn(new CursorPage<>(secondChunk, EXPORT_CHUNK_SPEC, 3, null));
+
+        final MvcResult mvcResult = performStreaming(get("/records/export"));
+        final List<Record> result = readValue(mvcResult, new TypeReference<>() {
+        });
+        final List<Record> expected = new ArrayList<>(firstChunk);
+        expected.addAll(secondChunk);
+        assertThat(result, containsSameEntities(expected));
+        verify(recordServiceMock, times(2)).findAllFull(any(RecordFilterParams.class), any(Pageable.class));
+    }
+
+    @Test
+    void exportRecordsWithoutPagingPassesRequestedSortToService() throws Exception {
+        final Pageable chunkSpec = PageRequest.of(0, 500, Sort.by(Sort.Order.asc(RecordSort.SORT_DATE_PROPERTY)));
+        when(recordServiceMock.findAllFull(any(RecordFilterParams.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(Generator.generateRecord(user))));
+
+        performStreaming(get("/records/export").param(Constants.SORT_PARAM,
+                                                      RestUtils.SORT_ASC + RecordSort.SORT_DATE_PROPERTY));
+        verify(recordServiceMock).findAllFull(new RecordFilterParams().withCursor(RecordCursor.initial()), chunkSpec);
+    }
+
+    @Test
+    void exportRecordsWithoutPagingReturnsBadRequestForUnsupportedSort() throws Exception {
+        mockMvc.perform(get("/records/export").param(Constants.SORT_PARAM, "name"))
+               .andExpect(status().isBadRequest());
+        verify(recordServiceMock, never()).findAllFull(any(RecordFilterParams.class), any(Pageable.class));
+    }
+
+    private MvcResult performStreaming(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        final MvcResult mvcResult = mockMvc.perform(requestBuilder).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(mvcResult)).andExpect(status().isOk()).andReturn();
     }
 
 
@@ -350,10 +432,8 @@ public class RecordControllerTest extends BaseControllerTestRunner {
     void importRecordsJsonImportsSpecifiedRecordsAndReturnsImportResult() throws Exception {
         final List<Record> records =
                 List.of(Generator.generateRecord(user), Generator.generateRecord(user));
-        final RecordImportResult importResult = new RecordImportResult(records.size());
-        importResult.setImportedCount(records.size());
-
-        when(recordServiceMock.importRecords(anyList())).thenReturn(importResult);
+        final List<Record> imported = new ArrayList<>();
+        when(recordServiceMock.importRecords(anyIterator(), isNull())).thenAnswer(importInto(imported));
 
         MockMultipartFile file = new MockMultipartFile("file", "records.json",
                 MediaType.MULTIPART_FORM_DATA_VALUE, toJson(records).getBytes());
@@ -365,25 +445,37 @@ public class RecordControllerTest extends BaseControllerTestRunner {
         ).andReturn();
 
         final RecordImportResult result = readValue(mvcResult, RecordImportResult.class);
-        assertEquals(importResult.getTotalCount(), result.getTotalCount());
-        assertEquals(importResult.getImportedCount(), result.getImportedCount());
-        assertThat(importResult.getErrors(), anyOf(nullValue(), empty()));
+        assertEquals(records.size(), result.getTotalCount());
+        assertEquals(records.size(), result.getImportedCount());
+        assertThat(result.getErrors(), anyOf(nullValue(), empty()));
+        assertEquals(records.stream().map(Record::getUri).toList(), imported.stream().map(Record::getUri).toList());
+    }
 
-        @SuppressWarnings("unchecked")
-        final ArgumentCaptor<List<Record>> captor = ArgumentCaptor.forClass(List.class);
-        verify(recordServiceMock).importRecords(captor.capture());
-        assertEquals(records.size(), captor.getValue().size());
+    /**
+     * Simulates the service by reading all the records passed to it.
+     */
+    private static Answer<RecordImportResult> importInto(List<Record> imported) {
+        return inv -> {
+            final Iterator<Record> records = inv.getArgument(0);
+            records.forEachRemaining(imported::add);
+            final RecordImportResult result = new RecordImportResult(imported.size());
+            result.setImportedCount(imported.size());
+            return result;
+        };
     }
 
+    @SuppressWarnings("unchecked")
+    private static Iterator<Record> anyIterator() {
+        return any(Iterator.class);
+    }
 
     @Test
     void importRecordsJsonImportsSpecifiedRecordsWithSpecifiedPhaseAndReturnsImportResult() throws Exception {
         final List<Record> records =
                 List.of(Generator.generateRecord(user), Generator.generateRecord(user));
-        final RecordImportResult importResult = new RecordImportResult(records.size());
-        importResult.setImportedCount(records.size());
         final RecordPhase targetPhase = RecordPhase.values()[Generator.randomInt(0, RecordPhase.values().length)];
-        when(recordServiceMock.importRecords(anyList(), any(RecordPhase.class))).thenReturn(importResult);
+        final List<Record> imported = new ArrayList<>();
+        when(recordServiceMock.importRecords(anyIterator(), any(RecordPhase.class))).thenAnswer(importInto(imported));
 
         MockMultipartFile file = new MockMultipartFile("file", "records.json",
             MediaType.MULTIPART_FORM_DATA_VALUE, toJson(records).getBytes());
@@ -395,14 +487,42 @@ public class RecordControllerTest extends BaseControllerTestRunner {
                 .param("phase", targetPhase.getIri())
         ).andExpect(status().isOk());
 
-        verify(recordServiceMock).importRecords(anyList(), eq(targetPhase));
+        verify(recordServiceMock).importRecords(anyIterator(), eq(targetPhase));
+        assertEquals(records.size(), imported.size());
+    }
+
+    @Test
+    void importRecordsJsonReturnsBadRequestWhenInputIsNotJsonArray() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "records.json",
+                MediaType.MULTIPART_FORM_DATA_VALUE, toJson(Generator.generateRecord(user)).getBytes());
+
+        mockMvc.perform(
+                multipart("/records/import/json")
+                        .file(file)
+                        .contentType(MediaType.MULTIPART_FORM_DATA_VALUE)
+        ).andExpect(status().isBadRequest());
+        verify(recordServiceMock, never()).importRecords(anyIterator(), any());
+    }
+
+    @Test
+    void importRecordsJsonReturnsBadRequestWhenArrayContainsValueOtherThanRecord() throws Exception {
+        when(recordServiceMock.importRecords(anyIterator(), isNull())).thenAnswer(importInto(new ArrayList<>()));
+        MockMultipartFile file = new MockMultipartFile("file", "records.json",
+                MediaType.MULTIPART_FORM_DATA_VALUE,
+                ("[" + toJson(Generator.generateRecord(user)) + ", 1]").getBytes());
+
+        mockMvc.perform(
+                multipart("/records/import/json")
+                        .file(file)
+                        .contentType(MediaType.MULTIPART_FORM_DATA_VALUE)
+        ).andExpect(status().isBadRequest());
     }
 
     @Test
     void importRecordsJsonReturnsConflictWhenServiceThrowsRecordAuthorNotFound() throws Exception {
         final List<Record> records =
                 List.of(Generator.generateRecord(user), Generator.generateRecord(user));
-        when(recordServiceMock.importRecords(anyList())).thenThrow(RecordAuthorNotFoundException.class);
+        when(recordServiceMock.importRecords(anyIterator(), isNull())).thenThrow(RecordAuthorNotFoundException.class);
 
         MockMultipartFile file = new MockMultipartFile("file", "records.json",
                 MediaType.MULTIPART_FORM_DATA_VALUE, toJson(records).getBytes());
@@ -519,4 +639,36 @@ public class RecordControllerTest extends BaseControllerTestRunner {
         assertEquals(result.getResponse().getStatus(), HttpStatus.OK.value());
         assertEquals(expectedValue, body);
     }
+
+    @Test
+    void publishRecordsStartsPublishJobAndReturnsAcceptedWithJobLocation() throws Exception {
+        final PublishJob job = new PublishJob(user.getUsername());
+        when(publishRecordsServiceMock.startPublishing(any(RecordFilterParams.class), any(Pageable.class)))
+                .thenReturn(job);
+
+        final MvcResult mvcResult = mockMvc.perform(post("/records/publish")).andReturn();
+        assertEquals(HttpStatus.ACCEPTED, HttpStatus.valueOf(mvcResult.getResponse().getStatus()));
+        verifyLocationEquals("/records/publish/" + job.getId(), mvcResult);
+        verify(publishRecordsServiceMock).startPublishing(new RecordFilterParams(), Pageable.unpaged());
+    }
+
+    @Test
+    void getPublishJobReturnsJobProgress() throws Exception {
+        final PublishJob job = new PublishJob(user.getUsername());
+        job.start();
+        final RecordImportResult chunkResult = new RecordImportResult(2);
+        chunkResult.addImportedRecord(Generator.generateUri().toString());
+        job.chunkPublished(2, chunkResult);
+        when(publishRecordsServiceMock.findJob(job.getId())).thenReturn(job);
+
+        final MvcResult mvcResult = mockMvc.perform(get("/records/publish/" + job.getId())).andReturn();
+        assertEquals(HttpStatus.OK, HttpStatus.valueOf(mvcResult.getResponse().getStatus()));
+        final Map<String, Object> result = readValue(mvcResult, new TypeReference<>() {
+        });
+        assertEquals(job.getId(), result.get("id"));
+        assertEquals(PublishJob.State.RUNNING.name(), result.get("state"));
+        assertEquals(2, result.get("processedCount"));
+        assertEquals(1, result.get("publishedCount"));
+        assertEquals(1, result.get("failedCount"));
+    }
 }
@@ -3,6 +3,8 @@ package cz.cvut.kbss.study.rest.handler;
 import cz.cvut.kbss.study.dto.RecordDto;
 import cz.cvut.kbss.study.environment.generator.Generator;
 import cz.cvut.kbss.study.model.User;
+import cz.cvut.kbss.study.persistence.dao.util.CursorPage;
+import cz.cvut.kbss.study.persistence.dao.util.RecordCursor;
 import cz.cvut.kbss.study.rest.event.PaginatedResultRetrievedEvent;
 import cz.cvut.kbss.study.rest.util.HttpPaginationLink;
 import cz.cvut.kbss.study.util.Constants;
@@ -15,6 +17,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -22,6 +25,7 @@ import java.util.stream.IntStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -183,6 +187,37 @@ class HateoasPagingListenerTest {
         assertThat(lastLink, containsString(pageSize(size)));
     }
 
+    @Test
+    public void generatesNextLinkWithCursorForKeysetPage() {
+        final int size = 5;
+        final RecordDto last = records.get(size - 1);
+        final RecordCursor cursor = RecordCursor.of(Instant.now(), last.getUri());
+        final Page<RecordDto> page =
+                new CursorPage<>(records.subList(0, size), PageRequest.of(0, size), records.size(), cursor);
+        listener.onApplicationEvent(event(page));
+        final String linkHeader = responseMock.getHeader(HttpHeaders.LINK);
+        assertNotNull(linkHeader);
+        final String nextLink = HttpLinkHeaderUtil.extractURIByRel(linkHeader, HttpPaginationLink.NEXT.getName());
+        assertThat(nextLink, containsString(BASE_URL));
+        assertThat(nextLink, containsString(Constants.CURSOR_PARAM + "=" + cursor.encode()));
+        assertThat(nextLink, containsString(pageSize(size)));
+        assertThat(nextLink, not(containsString(Constants.PAGE_PARAM + "=")));
+        assertNull(HttpLinkHeaderUtil.extractURIByRel(linkHeader, HttpPaginationLink.LAST.getName()));
+        assertNull(HttpLinkHeaderUtil.extractURIByRel(linkHeader, HttpPaginationLink.PREVIOUS.getName()));
+    }
+
+    @Test
+    public void generatesNoNextLinkForLastKeysetPage() {
+        final int size = 5;
+        final Page<RecordDto> page =
+                new CursorPage<>(records.subList(0, size), PageRequest.of(0, size), records.size(), null);
+        listener.onApplicationEvent(event(page));
+        final String linkHeader = responseMock.getHeader(HttpHeaders.LINK);
+        assertNotNull(linkHeader);
+        assertNull(HttpLinkHeaderUtil.extractURIByRel(linkHeader, HttpPaginationLink.NEXT.getName()));
+        assertNotNull(HttpLinkHeaderUtil.extractURIByRel(linkHeader, HttpPaginationLink.FIRST.getName()));
+    }
+
     @Test
     public void generatesTotalCountHeader() {
         final int size = records.size();
@@ -0,0 +1,74 @@
+package cz.cvut.kbss.study.rest.servlet;
+
+import cz.cvut.kbss.study.util.RequestTimings;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DiagnosticsContextFilterTest {
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/rest/records");
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    /**
+     * Records a query and writes response body.
+     */
+    private final FilterChain chain = (req, resp) -> {
+        RequestTimings.record(RequestTimings.DATABASE, TimeUnit.MILLISECONDS.toNanos(5));
+        resp.getOutputStream().write("[]".getBytes(StandardCharsets.UTF_8));
+    };
+
+    @Test
+    void doFilterAddsServerTimingHeaderWhenTimingIsRequested() throws Exception {
+        request.addHeader(DiagnosticsContextFilter.TIMING_REQUEST_HEADER, "true");
+
+        new DiagnosticsContextFilter(false, true).doFilter(request, response, chain);
+        final String header = response.getHeader(DiagnosticsContextFilter.SERVER_TIMING_HEADER);
+        assertNotNull(header);
+        assertThat(header, containsString(RequestTimings.DATABASE + ";dur=5.000;desc=\"1\""));
+        assertThat(header, containsString(RequestTimings.TOTAL + ";dur="));
+        assertFalse(RequestTimings.current().isPresent());
+    }
+
+    @Test
+    void doFilterAddsServerTimingHeaderToAllResponsesWhenTimingIsEnabled() throws Exception {
+        new DiagnosticsContextFilter(true, false).doFilter(request, response, chain);
+        assertNotNull(response.getHeader(DiagnosticsContextFilter.SERVER_TIMING_HEADER));
+    }
+
+    @Test
+    void doFilterDoesNotCollectTimingsWhenTimingIsNotRequested() throws Exception {
+        new DiagnosticsContextFilter().doFilter(request, response, chain);
+        assertNull(response.getHeader(DiagnosticsContextFilter.SERVER_TIMING_HEADER));
+    }
+
+    @Test
+    void doFilterIgnoresTimingRequestHeaderWhenHeaderIsNotEnabled() throws Exception {
+        request.addHeader(DiagnosticsContextFilter.TIMING_REQUEST_HEADER, "true");
+
+        new DiagnosticsContextFilter().doFilter(request, response, chain);
+        assertNull(response.getHeader(DiagnosticsContextFilter.SERVER_TIMING_HEADER));
+        assertFalse(RequestTimings.current().isPresent());
+    }
+
+    @Test
+    void doFilterIncludesTimeSpentInPrecedingFiltersWhenRequestStartIsMarked() throws Exception {
+        request.addHeader(DiagnosticsContextFilter.TIMING_REQUEST_HEADER, "true");
+
+        new DiagnosticsContextFilter.RequestStartFilter().doFilter(request, response, (req, resp) ->
+                new DiagnosticsContextFilter(false, true).doFilter(req, resp, chain));
+        assertThat(response.getHeader(DiagnosticsContextFilter.SERVER_TIMING_HEADER),
+                   containsString(RequestTimings.SECURITY + ";dur="));
+    }
+}
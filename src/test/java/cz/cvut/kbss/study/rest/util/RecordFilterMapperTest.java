@@ -1,13 +1,18 @@
 package cz.cvut.kbss.study.rest.util;
 
 import cz.cvut.kbss.study.model.RecordPhase;
+import cz.cvut.kbss.study.persistence.dao.util.RecordCursor;
 import cz.cvut.kbss.study.persistence.dao.util.RecordFilterParams;
+import cz.cvut.kbss.study.rest.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
+import java.net.URI;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
@@ -16,9 +21,13 @@ import java.util.Set;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class RecordFilterMapperTest {
 
+    private static final RecordCursor CURSOR =
+            RecordCursor.of(Instant.ofEpochMilli(System.currentTimeMillis()), URI.create("http://example.org/record"));
+
     @ParameterizedTest
     @MethodSource("testValues")
     void testConstructRecordFilter(MultiValueMap<String, String> params, RecordFilterParams expected) {
@@ -50,7 +59,18 @@ class RecordFilterMapperTest {
                         "institution", List.of("1111111"),
                         "phase", List.of(RecordPhase.published.name())
                 )), new RecordFilterParams(null,Set.of("1111111"), LocalDate.now().minusYears(1), LocalDate.now().minusDays(1),
-                                           Set.of(RecordPhase.published.getIri()), Collections.emptySet()))
+                                           Set.of(RecordPhase.published.getIri()), Collections.emptySet())),
+                Arguments.of(new LinkedMultiValueMap<>(Map.of(
+                        "after", List.of(CURSOR.encode())
+                )), new RecordFilterParams().withCursor(CURSOR)),
+                Arguments.of(new LinkedMultiValueMap<>(Map.of(
+                        "after", List.of("")
+                )), new RecordFilterParams().withCursor(RecordCursor.initial()))
         );
     }
+
+    @Test
+    void constructRecordFilterThrowsBadRequestExceptionForInvalidCursor() {
+        assertThrows(BadRequestException.class, () -> RecordFilterMapper.constructRecordFilter("after", "invalid"));
+    }
 }
\ No newline at end of file
@@ -68,6 +68,15 @@ class RestUtilsTest {
         assertTrue(result.isUnpaged());
     }
 
+    @Test
+    void resolvePagingReturnsFirstPageWhenCursorIsSpecifiedWithoutPageNumber() {
+        final MultiValueMap<String, String> params = new LinkedMultiValueMap<>(Map.of(
+                Constants.CURSOR_PARAM, List.of(""), Constants.PAGE_SIZE_PARAM, List.of("10")));
+
+        final Pageable result = RestUtils.resolvePaging(params);
+        assertEquals(PageRequest.of(0, 10), result);
+    }
+
     @Test
     void resolvePagingReturnsPagedObjectWithDefaultPageSizeWhenNoPageSizeIsSpecified() {
         final int page = Generator.randomInt(0, 10);
@@ -0,0 +1,111 @@
+package cz.cvut.kbss.study.service;
+
+import cz.cvut.kbss.study.model.export.Path;
+import cz.cvut.kbss.study.persistence.dao.CodeListValuesDao;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BroaderPathIndexTest {
+
+    private static final URI ROOT = URI.create("http://example.org/root");
+    private static final URI A = URI.create("http://example.org/a");
+    private static final URI B = URI.create("http://example.org/b");
+    private static final URI C = URI.create("http://example.org/c");
+
+    @Mock
+    private CodeListValuesDao codeListValuesDao;
+
+    @Test
+    void buildIndexMapsConceptToAncestorsStartingWithTopLevelConcept() {
+        final Map<URI, Path> result = BroaderPathIndex.buildIndex(List.of(
+                new URI[]{C, B}, new URI[]{B, A}, new URI[]{A, ROOT}));
+
+        final Path path = result.get(C);
+        assertEquals(ROOT, path.getL1());
+        assertEquals(A, path.getL2());
+        assertEquals(B, path.getL3());
+        assertNull(path.getL4());
+        assertEquals(ROOT, result.get(A).getL1());
+        assertNull(result.get(A).getL2());
+        assertFalse(result.containsKey(ROOT));
+    }
+
+    @Test
+    void buildIndexKeepsAtMostFiveLevels() {
+        final URI[] chain = new URI[8];
+        for (int i = 0; i < chain.length; i++) {
+            chain[i] = URI.create("http://example.org/level" + i);
+        }
+        final List<URI[]> pairs = new ArrayList<>();
+        for (int i = 1; i < chain.length; i++) {
+            pairs.add(new URI[]{chain[i], chain[i - 1]});
+        }
+
+        final Path path = BroaderPathIndex.buildIndex(pairs).get(chain[7]);
+        assertEquals(chain[0], path.getL1());
+        assertEquals(chain[4], path.getL5());
+    }
+
+    @Test
+    void buildIndexFollowsBroaderConceptWithSmallestIdentifierWhenConceptHasSeveral() {
+        final URI otherRoot = URI.create("http://example.org/otherRoot");
+        final List<URI[]> pairs = List.of(new URI[]{C, B}, new URI[]{B, ROOT}, new URI[]{C, A},
+                                          new URI[]{A, otherRoot});
+
+        final Path path = BroaderPathIndex.buildIndex(pairs).get(C);
+        assertEquals(otherRoot, path.getL1());
+        assertEquals(A, path.getL2());
+        assertNull(path.getL3());
+    }
+
+    @Test
+    void buildIndexResolvesSamePathRegardlessOfOrderOfBroaderRelations() {
+        final List<URI[]> pairs = new ArrayList<>(List.of(new URI[]{C, B}, new URI[]{C, A}, new URI[]{B, ROOT},
+                                                          new URI[]{A, ROOT}));
+        final Path path = BroaderPathIndex.buildIndex(pairs).get(C);
+        Collections.reverse(pairs);
+
+        final Path reversed = BroaderPathIndex.buildIndex(pairs).get(C);
+        assertEquals(path.getL1(), reversed.getL1());
+        assertEquals(path.getL2(), reversed.getL2());
+        assertEquals(A, reversed.getL2());
+    }
+
+    @Test
+    void buildIndexTerminatesOnCycles() {
+        final Map<URI, Path> result = BroaderPathIndex.buildIndex(List.of(new URI[]{A, B}, new URI[]{B, A}));
+
+        assertEquals(B, result.get(A).getL1());
+        assertNull(result.get(A).getL2());
+    }
+
+    @Test
+    void getPathsBuildsIndexOnceAndRebuildsItAfterInvalidation() {
+        when(codeListValuesDao.findBroaderPairs()).thenReturn(List.<URI[]>of(new URI[]{A, ROOT}));
+        final BroaderPathIndex sut = new BroaderPathIndex(codeListValuesDao, Duration.ofHours(1));
+
+        assertEquals(ROOT, sut.getPaths(Set.of(A)).get(A).getL1());
+        assertFalse(sut.getPaths(Set.of(ROOT)).containsKey(ROOT));
+        sut.invalidate();
+        sut.getPaths(Set.of(A));
+        verify(codeListValuesDao, times(2)).findBroaderPairs();
+    }
+}
@@ -0,0 +1,85 @@
+package cz.cvut.kbss.study.service;
+
+import cz.cvut.kbss.study.environment.generator.Generator;
+import cz.cvut.kbss.study.model.export.NamedItem;
+import cz.cvut.kbss.study.persistence.dao.CodeListValuesDao;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CodeListValuesCacheTest {
+
+    @Mock
+    private CodeListValuesDao codeListValuesDao;
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private CodeListValuesCache sut;
+
+    @BeforeEach
+    void setUp() {
+        this.sut = new CodeListValuesCache(codeListValuesDao, new ConfigReader(new MockEnvironment()),
+                                           meterRegistry);
+    }
+
+    @Test
+    void findItemLabelsLooksUpOnlyItemsNotCachedYet() {
+        final NamedItem first = namedItem();
+        final NamedItem second = namedItem();
+        when(codeListValuesDao.findItems(anyCollection())).thenReturn(List.of(first), List.of(second));
+
+        assertEquals(Map.of(first.getUri(), first.getName()), sut.findItemLabels(Set.of(first.getUri())));
+        final Map<URI, String> result = sut.findItemLabels(Set.of(first.getUri(), second.getUri()));
+        assertEquals(Map.of(first.getUri(), first.getName(), second.getUri(), second.getName()), result);
+        verify(codeListValuesDao).findItems(Set.of(first.getUri()));
+        verify(codeListValuesDao).findItems(Set.of(second.getUri()));
+    }
+
+    @Test
+    void findItemLabelsCachesItemsWithoutLabel() {
+        final URI unknown = Generator.generateUri();
+        when(codeListValuesDao.findItems(anyCollection())).thenReturn(List.of());
+
+        assertTrue(sut.findItemLabels(Set.of(unknown)).isEmpty());
+        assertTrue(sut.findItemLabels(Set.of(unknown)).isEmpty());
+        verify(codeListValuesDao).findItems(anyCollection());
+    }
+
+    @Test
+    void invalidateCausesValuesToBeLoadedAgain() {
+        final NamedItem institution = namedItem();
+        when(codeListValuesDao.findInstitutions()).thenReturn(List.of(institution));
+
+        assertEquals(Map.of(institution.getUri(), institution.getName()), sut.findInstitutionLabels());
+        sut.findInstitutionLabels();
+        sut.invalidate();
+        sut.findInstitutionLabels();
+        verify(codeListValuesDao, times(2)).findInstitutions();
+    }
+
+    private static NamedItem namedItem() {
+        final NamedItem item = new NamedItem();
+        item.setUri(Generator.generateUri());
+        item.setName("Item " + Generator.randomInt());
+        return item;
+    }
+}
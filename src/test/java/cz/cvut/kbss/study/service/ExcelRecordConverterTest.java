@@ -0,0 +1,192 @@
+package cz.cvut.kbss.study.service;
+
+import cz.cvut.kbss.study.environment.generator.Generator;
+import cz.cvut.kbss.study.model.RecordPhase;
+import cz.cvut.kbss.study.model.export.NamedItem;
+import cz.cvut.kbss.study.model.export.RawRecord;
+import cz.cvut.kbss.study.persistence.dao.CodeListValuesDao;
+import cz.cvut.kbss.study.persistence.dao.util.CursorPage;
+import cz.cvut.kbss.study.persistence.dao.util.RecordCursor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExcelRecordConverterTest {
+
+    private static final int PHASE_CELL = 1;
+    private static final int LABEL_CELL = 6;
+    private static final int INSTITUTION_CELL = 7;
+    private static final int AIRCRAFT_TYPE_CELL = 8;
+    private static final int AC_COMP_CELL = 25;
+    private static final int PATH_L1_CELL = 26;
+    private static final int PATH_L5_CELL = 30;
+
+    @Mock
+    private CodeListValuesDao codeListValuesDao;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final NamedItem institution = namedItem("Institution");
+
+    private final NamedItem aircraft = namedItem("Aircraft");
+
+    private final NamedItem rootComponent = namedItem("Engine");
+
+    private final NamedItem component = namedItem("Compressor");
+
+    private ExcelRecordConverter sut;
+
+    @BeforeEach
+    void setUp() {
+        final CodeListValuesCache cache = new CodeListValuesCache(codeListValuesDao,
+                                                                  new ConfigReader(new MockEnvironment()),
+                                                                  meterRegistry);
+        this.sut = new ExcelRecordConverter(cache, transactionManager);
+        final List<NamedItem> items = List.of(rootComponent, component);
+        when(codeListValuesDao.findInstitutions()).thenReturn(List.of(institution));
+        when(codeListValuesDao.findAircraft()).thenReturn(List.of(aircraft));
+        when(codeListValuesDao.findBroaderPairs()).thenReturn(
+                List.<URI[]>of(new URI[]{component.getUri(), rootComponent.getUri()}));
+        when(codeListValuesDao.findItems(anyCollection())).thenAnswer(inv -> {
+            final Collection<URI> uris = inv.getArgument(0);
+            return items.stream().filter(i -> uris.contains(i.getUri())).toList();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        sut.shutdown();
+    }
+
+    private static NamedItem namedItem(String name) {
+        final NamedItem item = new NamedItem();
+        item.setUri(Generator.generateUri());
+        item.setName(name);
+        return item;
+    }
+
+    @Test
+    void convertWritesRecordsIntoFailureReportsSheetFollowingHeader() throws IOException {
+        final RawRecord record = rawRecord(component.getUri());
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        sut.convert(List.of(record), output);
+
+        try (final XSSFWorkbook workbook = read(output)) {
+            final XSSFSheet sheet = workbook.getSheetAt(1);
+            assertEquals(1, sheet.getLastRowNum());
+            final Row row = sheet.getRow(1);
+            assertEquals(RecordPhase.completed.name(), row.getCell(PHASE_CELL).getStringCellValue());
+            assertEquals(record.getLabel(), row.getCell(LABEL_CELL).getStringCellValue());
+            assertEquals(institution.getName(), row.getCell(INSTITUTION_CELL).getStringCellValue());
+            assertEquals(aircraft.getName(), row.getCell(AIRCRAFT_TYPE_CELL).getStringCellValue());
+            assertEquals(component.getName(), row.getCell(AC_COMP_CELL).getStringCellValue());
+            assertEquals(rootComponent.getName(), row.getCell(PATH_L1_CELL).getStringCellValue());
+        }
+    }
+
+    @Test
+    void convertWritesEmptyPathCellsForComponentWithoutBroaderComponents() throws IOException {
+        final RawRecord record = rawRecord(rootComponent.getUri());
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        sut.convert(List.of(record), output);
+
+        try (final XSSFWorkbook workbook = read(output)) {
+            final Row row = workbook.getSheetAt(1).getRow(1);
+            assertEquals(rootComponent.getName(), row.getCell(AC_COMP_CELL).getStringCellValue());
+            for (int i = PATH_L1_CELL; i <= PATH_L5_CELL; i++) {
+                final Cell cell = row.getCell(i);
+                assertNotNull(cell);
+                assertEquals(CellType.BLANK, cell.getCellType());
+            }
+        }
+    }
+
+    @Test
+    void convertWritesAllChunksReturnedByChunkLoader() throws IOException {
+        final List<RawRecord> records = List.of(rawRecord(component.getUri()), rawRecord(component.getUri()),
+                                                rawRecord(null));
+        final RecordCursor next = RecordCursor.of(Instant.now(), records.get(1).getUri());
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        sut.convert(cursor -> cursor.isInitial() ?
+                              new CursorPage<>(records.subList(0, 2), Pageable.ofSize(2), 3, next) :
+                              new CursorPage<>(records.subList(2, 3), Pageable.ofSize(2), 3, null), output);
+
+        try (final XSSFWorkbook workbook = read(output)) {
+            final XSSFSheet sheet = workbook.getSheetAt(1);
+            assertEquals(records.size(), sheet.getLastRowNum());
+            for (int i = 0; i < records.size(); i++) {
+                assertEquals(records.get(i).getLabel(), sheet.getRow(i + 1).getCell(LABEL_CELL).getStringCellValue());
+            }
+            assertNull(sheet.getRow(3).getCell(PATH_L1_CELL));
+        }
+    }
+
+    @Test
+    void convertWritesRecordsExceedingStreamingRowWindow() throws IOException {
+        final List<RawRecord> records = IntStream.range(0, 250).mapToObj(i -> rawRecord(component.getUri())).toList();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        sut.convert(records, output);
+
+        try (final XSSFWorkbook workbook = read(output)) {
+            final XSSFSheet sheet = workbook.getSheetAt(1);
+            assertEquals(records.size(), sheet.getLastRowNum());
+            assertEquals(records.get(records.size() - 1).getLabel(),
+                         sheet.getRow(records.size()).getCell(LABEL_CELL).getStringCellValue());
+        }
+    }
+
+    private RawRecord rawRecord(URI acComp) {
+        final RawRecord record = new RawRecord();
+        record.setUri(Generator.generateUri());
+        record.setLabel("Record " + Generator.randomInt());
+        record.setCreated(new Date());
+        record.setLastModified(new Date());
+        record.setPhase(URI.create(RecordPhase.completed.getIri()));
+        record.setInstitution(institution.getUri());
+        record.setAircraftType(aircraft.getUri());
+        record.setAc_comp(acComp);
+        return record;
+    }
+
+    private static XSSFWorkbook read(ByteArrayOutputStream output) throws IOException {
+        return new XSSFWorkbook(new ByteArrayInputStream(output.toByteArray()));
+    }
+}
@@ -0,0 +1,203 @@
+package cz.cvut.kbss.study.service;
+
+import cz.cvut.kbss.study.dto.PublishJob;
+import cz.cvut.kbss.study.dto.RecordImportResult;
+import cz.cvut.kbss.study.environment.generator.Generator;
+import cz.cvut.kbss.study.exception.NotFoundException;
+import cz.cvut.kbss.study.model.Record;
+import cz.cvut.kbss.study.model.RecordPhase;
+import cz.cvut.kbss.study.persistence.dao.util.CursorPage;
+import cz.cvut.kbss.study.persistence.dao.util.RecordCursor;
+import cz.cvut.kbss.study.persistence.dao.util.RecordFilterParams;
+import cz.cvut.kbss.study.service.security.SecurityUtils;
+import cz.cvut.kbss.study.util.ConfigParam;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PublishRecordsServiceTest {
+
+    private static final String PUBLISH_URL = "http://localhost/publish";
+
+    @Mock
+    private RecordService recordService;
+
+    @Mock
+    private SecurityUtils securityUtils;
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Mock
+    private ConfigReader configReader;
+
+    private PublishRecordsService sut;
+
+    @BeforeEach
+    void setUp() {
+        this.sut = new PublishRecordsService(recordService, securityUtils, restTemplate, configReader);
+        lenient().when(configReader.getConfig(ConfigParam.ON_PUBLISH_RECORDS_SERVICE_URL)).thenReturn(PUBLISH_URL);
+        lenient().when(securityUtils.getPublishToken()).thenReturn("token");
+        lenient().when(configReader.getIntConfig(eq(ConfigParam.RECORDS_PUBLISH_CHUNK_SIZE), anyInt()))
+                 .thenAnswer(inv -> inv.getArgument(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        sut.shutdown();
+    }
+
+    @Test
+    void publishRecordsSendsRecordsInChunksAndMarksEachChunkPublished() {
+        when(configReader.getIntConfig(eq(ConfigParam.RECORDS_PUBLISH_CHUNK_SIZE), anyInt())).thenReturn(2);
+        final List<Record> firstChunk = List.of(generateRecord(), generateRecord());
+        final List<Record> secondChunk = List.of(generateRecord());
+        final RecordCursor cursor = RecordCursor.of(Instant.now(), firstChunk.get(1).getUri());
+        when(recordService.findAllFull(any(RecordFilterParams.class), any(Pageable.class)))
+                .thenReturn(new CursorPage<>(firstChunk, Pageable.ofSize(2), 3, cursor),
+                            new CursorPage<>(secondChunk, Pageable.ofSize(2), 3, null));
+        when(restTemplate.postForEntity(eq(PUBLISH_URL), any(HttpEntity.class), eq(RecordImportResult.class)))
+                .thenReturn(ResponseEntity.ok(importResult(firstChunk)), ResponseEntity.ok(importResult(secondChunk)));
+
+        final RecordImportResult result = sut.publishRecords(new RecordFilterParams(), Pageable.unpaged());
+        assertEquals(3, result.getTotalCount());
+        assertEquals(3, result.getImportedCount());
+        verify(restTemplate, times(2)).postForEntity(eq(PUBLISH_URL), any(HttpEntity.class),
+                                                     eq(RecordImportResult.class));
+        verify(recordService).setPhase(uris(firstChunk), RecordPhase.published);
+        verify(recordService).setPhase(uris(secondChunk), RecordPhase.published);
+        verify(securityUtils).getPublishToken();
+    }
+
+    @Test
+    void publishRecordsStopsAtFailedChunkAndKeepsPrecedingChunksPublished() {
+        when(configReader.getIntConfig(eq(ConfigParam.RECORDS_PUBLISH_CHUNK_SIZE), anyInt())).thenReturn(1);
+        final List<Record> firstChunk = List.of(generateRecord());
+        final List<Record> secondChunk = List.of(generateRecord());
+        when(recordService.findAllFull(any(RecordFilterParams.class), any(Pageable.class)))
+                .thenReturn(new CursorPage<>(firstChunk, Pageable.ofSize(1), 3,
+                                             RecordCursor.of(Instant.now(), firstChunk.get(0).getUri())),
+                            new CursorPage<>(secondChunk, Pageable.ofSize(1), 3,
+                                             RecordCursor.of(Instant.now(), secondChunk.get(0).getUri())));
+        when(restTemplate.postForEntity(eq(PUBLISH_URL), any(HttpEntity.class), eq(RecordImportResult.class)))
+                .thenReturn(ResponseEntity.ok(importResult(firstChunk)))
+                .thenThrow(new ResourceAccessException("Read timed out"));
+
+        final RecordImportResult result = sut.publishRecords(new RecordFilterParams(), Pageable.unpaged());
+        assertEquals(2, result.getTotalCount());
+        assertEquals(1, result.getImportedCount());
+        assertEquals(1, result.getErrors().size());
+        verify(recordService).setPhase(uris(firstChunk), RecordPhase.published);
+        verify(recordService, never()).setPhase(uris(secondChunk), RecordPhase.published);
+        verify(recordService, times(2)).findAllFull(any(RecordFilterParams.class), any(Pageable.class));
+    }
+
+    @Test
+    void publishRecordsDoesNotModifyFiltersOfCaller() {
+        final RecordFilterParams filters = new RecordFilterParams();
+        filters.setPhaseIds(Set.of(RecordPhase.open.getIri()));
+        final RecordFilterParams original = filters.withCursor(null);
+        when(recordService.findAllFull(any(RecordFilterParams.class), any(Pageable.class)))
+                .thenReturn(new CursorPage<>(List.of(), Pageable.ofSize(100), 0, null));
+
+        sut.publishRecords(filters, Pageable.unpaged());
+        assertEquals(original, filters);
+        final ArgumentCaptor<RecordFilterParams> captor = ArgumentCaptor.forClass(RecordFilterParams.class);
+        verify(recordService).findAllFull(captor.capture(), any(Pageable.class));
+        assertEquals(Set.of(RecordPhase.completed.getIri()), captor.getValue().getPhaseIds());
+    }
+
+    @Test
+    void publishRecordsExchangesTokenAgainAndResendsChunkWhenTokenIsRejected() {
+        final List<Record> records = List.of(generateRecord());
+        when(recordService.findAllFull(any(RecordFilterParams.class), any(Pageable.class)))
+                .thenReturn(new CursorPage<>(records, Pageable.ofSize(100), 1, null));
+        when(securityUtils.getPublishToken()).thenReturn("token", "refreshed");
+        when(restTemplate.postForEntity(eq(PUBLISH_URL), any(HttpEntity.class), eq(RecordImportResult.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.UNAUTHORIZED, "Unauthorized", null, null, null))
+                .thenReturn(ResponseEntity.ok(importResult(records)));
+
+        final RecordImportResult result = sut.publishRecords(new RecordFilterParams(), Pageable.unpaged());
+        assertEquals(1, result.getImportedCount());
+        verify(securityUtils, times(2)).getPublishToken();
+        final ArgumentCaptor<HttpEntity<?>> captor = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate, times(2)).postForEntity(eq(PUBLISH_URL), captor.capture(), eq(RecordImportResult.class));
+        assertEquals("Bearer refreshed", captor.getValue().getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+        verify(recordService).setPhase(uris(records), RecordPhase.published);
+    }
+
+    @Test
+    void startPublishingPublishesRecordsInBackgroundAndTracksProgressInJob() throws Exception {
+        when(securityUtils.getCurrentUserUsername()).thenReturn("user");
+        final List<Record> records = List.of(generateRecord(), generateRecord());
+        when(recordService.findAllFull(any(RecordFilterParams.class), any(Pageable.class)))
+                .thenReturn(new CursorPage<>(records, Pageable.ofSize(100), 2, null));
+        when(restTemplate.postForEntity(eq(PUBLISH_URL), any(HttpEntity.class), eq(RecordImportResult.class)))
+                .thenReturn(ResponseEntity.ok(importResult(records)));
+
+        final PublishJob job = sut.startPublishing(new RecordFilterParams(), Pageable.unpaged());
+        assertEquals(job, sut.findJob(job.getId()));
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (job.getFinished() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(PublishJob.State.COMPLETED, job.getState());
+        assertEquals(2, job.getProcessedCount());
+        assertEquals(2, job.getPublishedCount());
+        assertEquals(0, job.getFailedCount());
+        verify(recordService).setPhase(uris(records), RecordPhase.published);
+        assertTrue(sut.isStartedByCurrentUser(job.getId()));
+    }
+
+    @Test
+    void findJobThrowsNotFoundExceptionForUnknownJob() {
+        assertThrows(NotFoundException.class, () -> sut.findJob("unknown"));
+    }
+
+    private static Record generateRecord() {
+        final Record record = new Record();
+        record.setUri(Generator.generateUri());
+        record.setPhase(RecordPhase.completed);
+        return record;
+    }
+
+    private static RecordImportResult importResult(List<Record> records) {
+        final RecordImportResult result = new RecordImportResult(records.size());
+        records.forEach(r -> result.addImportedRecord(r.getUri().toString()));
+        return result;
+    }
+
+    private static Set<String> uris(List<Record> records) {
+        return records.stream().map(r -> r.getUri().toString()).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,95 @@
+package cz.cvut.kbss.study.service.repository;
+
+import cz.cvut.kbss.study.exception.ValidationException;
+import cz.cvut.kbss.study.persistence.dao.InstitutionDao;
+import cz.cvut.kbss.study.persistence.dao.RecordDao;
+import cz.cvut.kbss.study.persistence.dao.UserDao;
+import cz.cvut.kbss.study.service.BaseServiceTestRunner;
+import cz.cvut.kbss.study.service.event.CodeListValuesChangedEvent;
+import cz.cvut.kbss.study.service.security.SecurityUtils;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RepositoryInstitutionServiceTest extends BaseServiceTestRunner {
+
+    @InjectMocks
+    private RepositoryInstitutionService sut;
+
+    @Mock
+    private InstitutionDao institutionDao;
+
+    @Mock
+    private UserDao userDao;
+
+    @Mock
+    private RecordDao recordDao;
+
+    @Mock
+    private SecurityUtils securityUtils;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void removeRemovesInstitutionAndPublishesCodeListValuesChangedEvent() {
+        when(userDao.findByInstitution(institution)).thenReturn(List.of());
+        when(recordDao.findByInstitution(institution)).thenReturn(List.of());
+
+        sut.remove(institution);
+        verify(institutionDao).remove(institution);
+        verify(eventPublisher).publishEvent(any(CodeListValuesChangedEvent.class));
+    }
+
+    @Test
+    void removeDoesNotPublishCodeListValuesChangedEventWhenInstitutionCannotBeRemoved() {
+        when(userDao.findByInstitution(institution)).thenReturn(List.of(user));
+
+        assertThrows(ValidationException.class, () -> sut.remove(institution));
+        verify(institutionDao, never()).remove(institution);
+        verify(eventPublisher, never()).publishEvent(any(CodeListValuesChangedEvent.class));
+    }
+
+    @Test
+    void updatePublishesCodeListValuesChangedEvent() {
+        institution.setEmailAddress("");
+
+        sut.update(institution);
+        verify(institutionDao).update(institution);
+        verify(eventPublisher).publishEvent(any(CodeListValuesChangedEvent.class));
+    }
+
+    @Test
+    void updateInvalidatesRecordSummaries() {
+        institution.setEmailAddress("");
+
+        sut.update(institution);
+        verify(recordDao).invalidateSummaries();
+    }
+
+    @Test
+    void updateEvictsCachedUsers() {
+        institution.setEmailAddress("");
+
+        sut.update(institution);
+        verify(securityUtils).evictAllUsers();
+    }
+
+    @Test
+    void removeEvictsCachedUsers() {
+        when(userDao.findByInstitution(institution)).thenReturn(List.of());
+        when(recordDao.findByInstitution(institution)).thenReturn(List.of());
+
+        sut.remove(institution);
+        verify(securityUtils).evictAllUsers();
+    }
+}
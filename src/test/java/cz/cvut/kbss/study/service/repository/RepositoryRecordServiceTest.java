@@ -8,17 +8,22 @@ import cz.cvut.kbss.study.model.*;
 import cz.cvut.kbss.study.model.Record;
 import cz.cvut.kbss.study.persistence.dao.RecordDao;
 import cz.cvut.kbss.study.service.BaseServiceTestRunner;
+import cz.cvut.kbss.study.service.ConfigReader;
 import cz.cvut.kbss.study.service.UserService;
 import cz.cvut.kbss.study.service.security.SecurityUtils;
+import cz.cvut.kbss.study.util.ConfigParam;
 import cz.cvut.kbss.study.util.IdentificationUtils;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.transaction.PlatformTransactionManager;
 
-import java.net.URI;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.anyOf;
@@ -28,6 +33,11 @@ import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -46,7 +56,12 @@ class RepositoryRecordServiceTest extends BaseServiceTestRunner {
 
     @Mock
     private UserService userService;
-    ;
+
+    @Mock
+    private ConfigReader configReader;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     @Test
     void importRecordsSetsCurrentUserAsAuthorWhenTheyAreRegularUserAndImportsSpecifiedRecords() {
@@ -54,7 +69,6 @@ class RepositoryRecordServiceTest extends BaseServiceTestRunner {
         when(securityUtils.getCurrentUser()).thenReturn(user);
         final User originalAuthor = Generator.generateUser(Generator.generateInstitution(), this.userRoleGroup);
         final List<Record> toImport = generateRecordsToImport(originalAuthor);
-        when(recordDao.exists(any())).thenReturn(false);
 
         final RecordImportResult result = sut.importRecords(toImport);
         assertEquals(toImport.size(), result.getTotalCount());
@@ -90,7 +104,6 @@ class RepositoryRecordServiceTest extends BaseServiceTestRunner {
         Environment.setCurrentUser(this.admin);
         when(securityUtils.getCurrentUser()).thenReturn(admin);
         when(userService.exists(originalAuthor.getUri())).thenReturn(true);
-        when(recordDao.exists(any())).thenReturn(false);
 
         sut.importRecords(toImport);
         final ArgumentCaptor<Record> captor = ArgumentCaptor.forClass(Record.class);
@@ -124,15 +137,78 @@ class RepositoryRecordServiceTest extends BaseServiceTestRunner {
         final User originalAuthor = Generator.generateUser(Generator.generateInstitution(), this.userRoleGroup);
         final List<Record> toImport = generateRecordsToImport(originalAuthor);
         final Record existing = toImport.get(Generator.randomIndex(toImport));
-        when(recordDao.exists(any(URI.class))).thenReturn(false);
-        when(recordDao.exists(existing.getUri())).thenReturn(true);
+        when(recordDao.findExistingUris(anyCollection())).thenReturn(Set.of(existing.getUri()));
         when(userService.exists(originalAuthor.getUri())).thenReturn(true);
 
         final RecordImportResult result = sut.importRecords(toImport);
         assertEquals(toImport.size(), result.getTotalCount());
         assertEquals(toImport.size() - 1, result.getImportedCount());
         assertEquals(1, result.getErrors().size());
-        toImport.forEach(r -> verify(recordDao).exists(r.getUri()));
+        verify(recordDao).findExistingUris(toImport.stream().map(Record::getUri).toList());
+        verify(recordDao, never()).persist(existing);
+    }
+
+    @Test
+    void importRecordsPersistsRecordsInBatchesOfConfiguredSizeEachInSeparateTransaction() {
+        Environment.setCurrentUser(user);
+        when(securityUtils.getCurrentUser()).thenReturn(user);
+        when(configReader.getIntConfig(eq(ConfigParam.RECORDS_IMPORT_BATCH_SIZE), anyInt())).thenReturn(1);
+        final User originalAuthor = Generator.generateUser(Generator.generateInstitution(), this.userRoleGroup);
+        final List<Record> toImport = generateRecordsToImport(originalAuthor);
+
+        final RecordImportResult result = sut.importRecords(toImport);
+        assertEquals(toImport.size(), result.getTotalCount());
+        assertEquals(toImport.size(), result.getImportedCount());
+        toImport.forEach(r -> verify(recordDao).findExistingUris(List.of(r.getUri())));
+        verify(transactionManager, times(toImport.size())).commit(any());
+        verify(recordDao, times(toImport.size())).persist(any(Record.class));
+    }
+
+    @Test
+    void importRecordsFromIteratorPullsRecordsOneBatchAtATime() {
+        Environment.setCurrentUser(user);
+        when(securityUtils.getCurrentUser()).thenReturn(user);
+        when(configReader.getIntConfig(eq(ConfigParam.RECORDS_IMPORT_BATCH_SIZE), anyInt())).thenReturn(2);
+        final User originalAuthor = Generator.generateUser(Generator.generateInstitution(), this.userRoleGroup);
+        final List<Record> toImport = List.of(Generator.generateRecord(originalAuthor),
+                                              Generator.generateRecord(originalAuthor),
+                                              Generator.generateRecord(originalAuthor));
+        final Iterator<Record> source = toImport.iterator();
+        final List<Integer> pulledAtPersist = new ArrayList<>();
+        final int[] pulled = {0};
+        final Iterator<Record> records = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public Record next() {
+                pulled[0]++;
+                return source.next();
+            }
+        };
+        doAnswer(inv -> pulledAtPersist.add(pulled[0])).when(recordDao).persist(any(Record.class));
+
+        final RecordImportResult result = sut.importRecords(records, null);
+        assertEquals(toImport.size(), result.getTotalCount());
+        assertEquals(toImport.size(), result.getImportedCount());
+        assertEquals(List.of(2, 2, 3), pulledAtPersist);
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void importRecordsSkipsRecordsRepeatedInImportedData() {
+        Environment.setCurrentUser(user);
+        when(securityUtils.getCurrentUser()).thenReturn(user);
+        final User originalAuthor = Generator.generateUser(Generator.generateInstitution(), this.userRoleGroup);
+        final Record record = generateRecordsToImport(originalAuthor).get(0);
+
+        final RecordImportResult result = sut.importRecords(List.of(record, record));
+        assertEquals(2, result.getTotalCount());
+        assertEquals(1, result.getImportedCount());
+        assertEquals(1, result.getErrors().size());
+        verify(recordDao).persist(record);
     }
 
     @Test
@@ -143,7 +219,6 @@ class RepositoryRecordServiceTest extends BaseServiceTestRunner {
         final User originalAuthor = Generator.generateUser(Generator.generateInstitution(), this.userRoleGroup);
         final List<Record> toImport = generateRecordsToImport(originalAuthor);
         final RecordPhase targetPhase = RecordPhase.values()[Generator.randomInt(0, RecordPhase.values().length)];
-        when(recordDao.exists(any())).thenReturn(false);
         when(userService.exists(originalAuthor.getUri())).thenReturn(true);
 
         sut.importRecords(toImport, targetPhase);
@@ -158,7 +233,6 @@ class RepositoryRecordServiceTest extends BaseServiceTestRunner {
         when(securityUtils.getCurrentUser()).thenReturn(user);
         final User originalAuthor = Generator.generateUser(Generator.generateInstitution(), this.userRoleGroup);
         final List<Record> toImport = generateRecordsToImport(originalAuthor);
-        when(recordDao.exists(any())).thenReturn(false);
         when(userService.exists(originalAuthor.getUri())).thenReturn(true);
 
         sut.importRecords(toImport);
@@ -18,6 +18,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -25,6 +26,8 @@ import org.springframework.security.core.context.SecurityContextImpl;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.security.web.authentication.switchuser.SwitchUserFilter;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -37,6 +40,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
@@ -195,4 +200,47 @@ public class SecurityUtilsTest extends BaseServiceTestRunner {
         assertNotSame(admin, result);
         assertEquals(admin, result);
     }
+
+    @Test
+    void getCurrentUserRetrievesUserFromRepositoryOnlyOnceForRepeatedCalls() {
+        Environment.setCurrentUser(admin);
+        when(userDao.findByUsername(admin.getUsername())).thenReturn(admin);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            sut.getCurrentUser();
+            sut.isMemberOfInstitution(admin.getInstitution().getKey());
+            final User result = sut.getCurrentUser();
+            assertEquals(admin, result);
+            verify(userDao).findByUsername(admin.getUsername());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    void getCurrentUserRetrievesUserFromRepositoryAgainAfterItWasEvicted() {
+        Environment.setCurrentUser(admin);
+        when(userDao.findByUsername(admin.getUsername())).thenReturn(admin);
+        sut.getCurrentUser();
+
+        sut.evictUser(admin.getUsername());
+        sut.getCurrentUser();
+        verify(userDao, times(2)).findByUsername(admin.getUsername());
+    }
+
+    @Test
+    void getCurrentUserRetrievesUserFromRepositoryAgainAfterAllUsersWereEvicted() {
+        Environment.setCurrentUser(admin);
+        when(userDao.findByUsername(admin.getUsername())).thenReturn(admin);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            sut.getCurrentUser();
+
+            sut.evictAllUsers();
+            sut.getCurrentUser();
+            verify(userDao, times(2)).findByUsername(admin.getUsername());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
 }
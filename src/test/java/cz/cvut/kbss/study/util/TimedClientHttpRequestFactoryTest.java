@@ -0,0 +1,87 @@
+package cz.cvut.kbss.study.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+@ExtendWith(MockitoExtension.class)
+class TimedClientHttpRequestFactoryTest {
+
+    private static final URI SERVICE_URI = URI.create("http://localhost/services/form-gen");
+
+    @Mock
+    private ClientHttpRequestFactory delegate;
+
+    @Mock
+    private ClientHttpResponse response;
+
+    private TimedClientHttpRequestFactory sut;
+
+    @BeforeEach
+    void setUp() {
+        this.sut = new TimedClientHttpRequestFactory(delegate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestTimings.stop();
+    }
+
+    @Test
+    void executeRecordsTimeOfOutboundRequest() throws Exception {
+        final ClientHttpRequest request = mock(ClientHttpRequest.class);
+        when(delegate.createRequest(SERVICE_URI, HttpMethod.GET)).thenReturn(request);
+        when(request.execute()).thenReturn(response);
+        final RequestTimings timings = RequestTimings.start(System.nanoTime());
+
+        final ClientHttpRequest result = sut.createRequest(SERVICE_URI, HttpMethod.GET);
+        assertSame(response, result.execute());
+        assertThat(timings.toMap().get(RequestTimings.HTTP_CLIENT), endsWith("ms/1"));
+    }
+
+    @Test
+    void setBodyPassesBodyToStreamingRequest() throws Exception {
+        final ClientHttpRequest request = mock(ClientHttpRequest.class,
+                                               withSettings().extraInterfaces(StreamingHttpOutputMessage.class));
+        when(delegate.createRequest(SERVICE_URI, HttpMethod.POST)).thenReturn(request);
+        final StreamingHttpOutputMessage.Body body = out -> out.write(1);
+
+        final ClientHttpRequest result = sut.createRequest(SERVICE_URI, HttpMethod.POST);
+        assertInstanceOf(StreamingHttpOutputMessage.class, result);
+        ((StreamingHttpOutputMessage) result).setBody(body);
+        verify((StreamingHttpOutputMessage) request).setBody(body);
+    }
+
+    @Test
+    void setBodyWritesBodyIntoNonStreamingRequest() throws Exception {
+        final ClientHttpRequest request = mock(ClientHttpRequest.class);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        when(request.getBody()).thenReturn(out);
+        when(delegate.createRequest(SERVICE_URI, HttpMethod.POST)).thenReturn(request);
+
+        final ClientHttpRequest result = sut.createRequest(SERVICE_URI, HttpMethod.POST);
+        ((StreamingHttpOutputMessage) result).setBody(o -> o.write(new byte[]{1, 2}));
+        assertArrayEquals(new byte[]{1, 2}, out.toByteArray());
+    }
+}